@@ -0,0 +1,389 @@
+package org.example.roomrelish.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.dto.BookingDetailsDTO;
+import org.example.roomrelish.exception.ResourceNotFoundException;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.CustomerRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.HotelRepositoryCustomImpl;
+import org.example.roomrelish.repository.OutboxEmailRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.repository.PaymentRepositoryCustomImpl;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepositoryCustomImpl;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.booking.BookingHoldService;
+import org.example.roomrelish.services.booking.BookingService;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.example.roomrelish.services.payment.PaymentServiceImpl;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Load run of the booking path: thousands of virtual threads, released together, each booking rooms with
+ * {@link BookingService#bookRoom} and paying for most of them with {@link PaymentServiceImpl#confirmBook}, against
+ * the real services wired by hand. Reports p50/p99 latency, throughput and the contention seen by the hotel write
+ * queue and the holds, then runs an {@link OverbookingCheck} over what was written and exits non-zero when it fails.
+ *
+ * <p>The run goes against a Mongo server, {@code --mongo-uri}, {@value #DEFAULT_MONGO_URI} unless given, so the check
+ * covers the conditional updates of the real repositories. It uses a database of its own ({@code roomrelish_load}
+ * unless the URI names one) whose collections are dropped first; point it at a local, disposable server, e.g.
+ * {@code docker run -d -p 27017:27017 mongo:7}. {@code --backend in-memory} opts into the {@link InMemoryBackend}
+ * instead, with a simulated round trip per repository call: quick for profiling the services, but it stands in for
+ * the month holds, so it says nothing about their atomicity. {@code --hotels 1} puts every thread on a single hotel;
+ * more hotels spread them over a city. A short {@code --hold-ttl-ms} lets unpaid holds expire during the run.
+ *
+ * <pre>mvn -P benchmark -DskipTests verify -Dbenchmark.main=org.example.roomrelish.benchmark.BookingLoadHarness -Dbenchmark.args="--hotels 1 --threads 5000"</pre>
+ */
+public final class BookingLoadHarness {
+
+    private static final Logger APP_LOGGER = Logger.getLogger("org.example.roomrelish");
+    private static final int FAILURE_MESSAGES = 5;
+    static final String DEFAULT_MONGO_URI = "mongodb://localhost:27017/roomrelish_load";
+
+    record Repositories(HotelRepository hotels, CustomerRepository customers, BookingRepository bookings,
+                        PaymentRepository payments, RoomAvailabilityMonthRepository months, OutboxEmailRepository outbox) {
+    }
+
+    private final Options options;
+    private final Repositories repositories;
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final BookingService bookingService;
+    private final PaymentServiceImpl paymentService;
+    private final BookingHoldService bookingHolds;
+    private final Timer bookLatency;
+    private final Timer payLatency;
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    private BookingLoadHarness(Options options, Repositories repositories) {
+        this.options = options;
+        this.repositories = repositories;
+        seed();
+
+        SearchResultCache searchResultCache = new SearchResultCache(registry, 0, 0, Duration.ofMinutes(5));
+        HotelCatalog hotelCatalog = new HotelCatalog(repositories.hotels(), searchResultCache);
+        hotelCatalog.rebuild();
+        RoomInventoryService roomInventory = new RoomInventoryService(repositories.months());
+        RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex(repositories.months());
+        HotelWriteQueue hotelWrites = new HotelWriteQueue(roomInventory, registry, options.batchSize);
+        bookingHolds = new BookingHoldService(repositories.payments(), repositories.bookings(), repositories.hotels(),
+                roomInventory, hotelWrites, occupancyIndex, searchResultCache, hotelCatalog, registry,
+                Duration.ofMillis(options.holdTtlMillis), 50, 512, 200);
+        EmailOutbox emailOutbox = new EmailOutbox(repositories.outbox(), null);
+        EmailTemplates emailTemplates = new EmailTemplates();
+        bookingService = new BookingService(repositories.hotels(), repositories.bookings(), repositories.payments(),
+                repositories.customers(), emailOutbox, emailTemplates, hotelCatalog, roomInventory, bookingHolds);
+        paymentService = new PaymentServiceImpl(repositories.bookings(), repositories.payments(), repositories.hotels(),
+                emailOutbox, emailTemplates, repositories.customers(), occupancyIndex, searchResultCache, roomInventory,
+                hotelWrites, bookingHolds);
+
+        bookLatency = latency("load.book");
+        payLatency = latency("load.pay");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+        APP_LOGGER.setLevel(Level.WARNING);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        boolean passed;
+        if (options.inMemory()) {
+            passed = new BookingLoadHarness(options, new InMemoryBackend(Duration.ofNanos(options.roundTripMicros * 1000)).repositories()).run();
+        } else {
+            try (MongoClient client = MongoClients.create(options.mongoUri)) {
+                passed = new BookingLoadHarness(options, mongo(client, options.mongoUri)).run();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Repositories over a Mongo database of their own, with the indexes the application creates on startup. The
+     * outbox stays in memory: queued emails are dropped, as no worker runs to send them.
+     */
+    static Repositories mongo(MongoClient client, String uri) {
+        String database = new ConnectionString(uri).getDatabase();
+        MongoTemplate template = new MongoTemplate(client, database == null ? "roomrelish_load" : database);
+        IndexResolver indexResolver = IndexResolver.create(template.getConverter().getMappingContext());
+        for (Class<?> type : List.of(Hotel.class, Customer.class, Booking.class, Payment.class, RoomAvailabilityMonth.class)) {
+            template.dropCollection(type);
+            IndexOperations indexes = template.indexOps(type);
+            indexResolver.resolveIndexFor(type).forEach(indexes::ensureIndex);
+        }
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(template);
+        return new Repositories(
+                factory.getRepository(HotelRepository.class, RepositoryFragments.just(new HotelRepositoryCustomImpl(template))),
+                factory.getRepository(CustomerRepository.class),
+                factory.getRepository(BookingRepository.class),
+                factory.getRepository(PaymentRepository.class, RepositoryFragments.just(new PaymentRepositoryCustomImpl(template))),
+                factory.getRepository(RoomAvailabilityMonthRepository.class,
+                        RepositoryFragments.just(new RoomAvailabilityMonthRepositoryCustomImpl(template))),
+                new InMemoryBackend(Duration.ZERO).repositories().outbox());
+    }
+
+    /** Hotels of {@code --rooms} room types with {@code --room-count} rooms each, and one customer per thread. */
+    private void seed() {
+        for (int h = 0; h < options.hotels; h++) {
+            Hotel hotel = new Hotel();
+            hotel.setId("load-hotel-" + h);
+            hotel.setHotelName("Load Hotel " + h);
+            hotel.setImages(List.of("image-" + h));
+            List<Room> rooms = new ArrayList<>();
+            for (int r = 0; r < options.rooms; r++) {
+                rooms.add(Room.builder().id("load-room-" + h + "-" + r).roomType("Type " + r).roomRate(100 + r * 10)
+                        .roomCount(options.roomCount).build());
+            }
+            hotel.setRooms(rooms);
+            hotels.add(hotel);
+        }
+        repositories.hotels().saveAll(hotels);
+
+        List<Customer> customers = new ArrayList<>(options.threads);
+        for (int t = 0; t < options.threads; t++) {
+            Customer customer = new Customer();
+            customer.setId("load-customer-" + t);
+            customer.setUsername("Guest " + t);
+            customer.setEmail("guest" + t + "@example.com");
+            customers.add(customer);
+        }
+        repositories.customers().saveAll(customers);
+    }
+
+    private boolean run() throws InterruptedException {
+        LocalDate firstNight = LocalDate.now().plusDays(1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(options.threads);
+        for (int t = 0; t < options.threads; t++) {
+            int thread = t;
+            Thread.ofVirtual().name("load-" + t).start(() -> {
+                try {
+                    start.await();
+                    book(thread, firstNight);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        AtomicBoolean loading = new AtomicBoolean(true);
+        Thread expiry = Thread.ofVirtual().name("load-expiry").start(() -> {
+            while (loading.get()) {
+                bookingHolds.expireDue();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        loading.set(false);
+        expiry.join();
+
+        report(elapsedSeconds);
+        return check();
+    }
+
+    private void book(int thread, LocalDate firstNight) {
+        SplittableRandom random = new SplittableRandom(options.seed + thread);
+        for (int n = 0; n < options.bookingsPerThread; n++) {
+            Hotel hotel = hotels.get(random.nextInt(hotels.size()));
+            Room room = hotel.getRooms().get(random.nextInt(hotel.getRooms().size()));
+            LocalDate checkIn = firstNight.plusDays(random.nextInt(options.days));
+            int nights = 1 + random.nextInt(options.maxNights);
+            BookingDetailsDTO details = BookingDetailsDTO.builder()
+                    ._userId("load-customer-" + thread)
+                    ._hotelId(hotel.getId())
+                    ._roomId(room.getId())
+                    .customerRoomCount(1 + random.nextInt(options.maxRooms))
+                    .customerDayCount(nights)
+                    .checkInDate(checkIn)
+                    .checkOutDate(checkIn.plusDays(nights))
+                    .roomType(room.getRoomType())
+                    .build();
+
+            Booking booking = timed(bookLatency, "load.bookings", "booked", () -> bookingService.bookRoom(details));
+            if (booking != null && random.nextDouble() < options.payShare) {
+                timed(payLatency, "load.payments", "paid", () -> paymentService.confirmBook(booking.getId()));
+            }
+        }
+    }
+
+    /** Runs the call, counting its outcome; a sold-out or expired booking is an outcome, anything else a failure. */
+    private <T> T timed(Timer latency, String outcomes, String success, Supplier<T> call) {
+        long started = System.nanoTime();
+        String outcome = success;
+        try {
+            return call.get();
+        } catch (RoomUnavailableException e) {
+            outcome = "sold-out";
+        } catch (ResourceNotFoundException e) {
+            outcome = "expired";
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            if (failures.size() < FAILURE_MESSAGES) failures.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            registry.counter(outcomes, "outcome", outcome).increment();
+        }
+        return null;
+    }
+
+    private Timer latency(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(0.5, 0.99)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(Duration.ofHours(1))
+                .register(registry);
+    }
+
+    private void report(double elapsedSeconds) {
+        System.out.printf("%nBooking load: %s, %d hotel(s) x %d rooms x %d each, %d virtual threads x %d bookings, pay %.0f%%%n",
+                options.inMemory() ? "in-memory backend, " + options.roundTripMicros + " us round trip" : "mongo backend at " + options.mongoUri,
+                options.hotels, options.rooms, options.roomCount, options.threads, options.bookingsPerThread, options.payShare * 100);
+        System.out.printf("Elapsed          %.2f s%n", elapsedSeconds);
+        printLatency("bookRoom", bookLatency, "load.bookings");
+        printLatency("confirmBook", payLatency, "load.payments");
+        System.out.printf("Throughput       %.1f bookings/s, %.1f payments/s, %.1f calls/s%n",
+                count("load.bookings", "booked") / elapsedSeconds, count("load.payments", "paid") / elapsedSeconds,
+                (bookLatency.count() + payLatency.count()) / elapsedSeconds);
+
+        DistributionSummary batches = registry.get("inventory.write-queue.batch.size").summary();
+        System.out.printf("Write queue      %d batches, mean %.1f / max %.0f reservations; %s%n", batches.count(),
+                batches.mean(), batches.max(), outcomes("inventory.write-queue.reservations", "result"));
+        System.out.printf("Holds            %s%n", outcomes("booking.holds", "event"));
+        System.out.printf("Sold out         %.1f%% of bookRoom, %.1f%% of confirmBook%n",
+                share(count("load.bookings", "sold-out"), bookLatency.count()), share(count("load.payments", "sold-out"), payLatency.count()));
+        failures.forEach(failure -> System.out.println("Failure          " + failure));
+    }
+
+    private void printLatency(String call, Timer timer, String outcomes) {
+        Map<Double, Double> percentiles = new HashMap<>();
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+        }
+        System.out.printf("%-16s %d calls, p50 %.2f ms, p99 %.2f ms, max %.2f ms; %s%n", call, timer.count(),
+                percentiles.getOrDefault(0.5, 0.0), percentiles.getOrDefault(0.99, 0.0), timer.max(TimeUnit.MILLISECONDS),
+                outcomes(outcomes, "outcome"));
+    }
+
+    private String outcomes(String name, String tag) {
+        List<String> counts = new ArrayList<>();
+        registry.find(name).counters().forEach(counter -> counts.add(counter.getId().getTag(tag) + "=" + (long) counter.count()));
+        counts.sort(null);
+        return counts.isEmpty() ? "none" : String.join(", ", counts);
+    }
+
+    private double count(String name, String outcome) {
+        Counter counter = registry.find(name).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static double share(double part, long whole) {
+        return whole == 0 ? 0 : part * 100 / whole;
+    }
+
+    private boolean check() {
+        OverbookingCheck.Result result = OverbookingCheck.run(hotels, repositories.payments().findAll(),
+                repositories.bookings().findAll(), repositories.months().findAll());
+        System.out.printf("Overbooking      %s: %d room-nights sold, %d sold beyond the room count, %d sold or held beyond it, "
+                        + "%d payments without their rooms, %d days with a wrong free count%n",
+                result.passed() ? "PASSED" : "FAILED", result.soldRoomNights(), result.overbookedNights(), result.overheldNights(),
+                result.unheldPayments(), result.driftedDays());
+        System.out.printf("Leftovers        %d payments without a booking, %d stays without a payment%n",
+                result.orphanedPayments(), result.leakedStays());
+        result.examples().forEach(example -> System.out.println("  " + example));
+        return result.passed();
+    }
+
+    /** Command line options, each {@code --name value}. */
+    private record Options(int hotels, int rooms, int roomCount, int threads, int bookingsPerThread, int days,
+                           int maxNights, int maxRooms, double payShare, long holdTtlMillis, long roundTripMicros,
+                           int batchSize, long seed, String backend, String mongoUri) {
+
+        boolean inMemory() {
+            return backend.equals("in-memory");
+        }
+
+        static Options parse(String[] args) {
+            if (args.length % 2 != 0) throw new IllegalArgumentException("No value for " + args[args.length - 1]);
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < args.length; i += 2) {
+                if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+                values.put(args[i].substring(2), args[i + 1]);
+            }
+            Options options = new Options(
+                    Integer.parseInt(values.getOrDefault("hotels", "1")),
+                    Integer.parseInt(values.getOrDefault("rooms", "4")),
+                    Integer.parseInt(values.getOrDefault("room-count", "20")),
+                    Integer.parseInt(values.getOrDefault("threads", "2000")),
+                    Integer.parseInt(values.getOrDefault("bookings-per-thread", "5")),
+                    Integer.parseInt(values.getOrDefault("days", "28")),
+                    Integer.parseInt(values.getOrDefault("max-nights", "3")),
+                    Integer.parseInt(values.getOrDefault("max-rooms", "2")),
+                    Double.parseDouble(values.getOrDefault("pay-share", "0.9")),
+                    Long.parseLong(values.getOrDefault("hold-ttl-ms", "900000")),
+                    Long.parseLong(values.getOrDefault("round-trip-us", "300")),
+                    Integer.parseInt(values.getOrDefault("batch-size", "64")),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    values.getOrDefault("backend", "mongo"),
+                    values.getOrDefault("mongo-uri", DEFAULT_MONGO_URI));
+            if (options.hotels < 1 || options.rooms < 1 || options.roomCount < 1 || options.threads < 1 || options.days < 1
+                    || options.maxNights < 1 || options.maxRooms < 1) {
+                throw new IllegalArgumentException("Counts must be at least 1");
+            }
+            if (!options.backend.equals("mongo") && !options.inMemory()) {
+                throw new IllegalArgumentException("--backend is mongo or in-memory, got " + options.backend);
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.roomrelish.benchmark;
+
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering one email body with the compiled templates, next to the string concatenation with a fresh
+ * {@link DecimalFormat} per call that they replaced. The gc profiler's {@code alloc.rate.norm} is the bytes allocated
+ * per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplates templates;
+    private Customer customer;
+    private Hotel hotel;
+    private Room room;
+    private Booking booking;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        templates = new EmailTemplates();
+        customer = new Customer();
+        customer.setUsername("Priya Raman");
+        hotel = new Hotel();
+        hotel.setHotelName("Sea View Residency");
+        room = Room.builder().id("r1").roomType("Deluxe King").build();
+        booking = Booking.builder().id("66a1f0c2b5e4d81a2c3f9e10").numOfRooms(2).totalAmount(18450.5)
+                .checkInDate(LocalDate.of(2024, 7, 30)).checkOutDate(LocalDate.of(2024, 8, 2)).build();
+        payment = Payment.builder().id("66a1f0c2b5e4d81a2c3f9e11").totalAmount(21771.59).build();
+    }
+
+    @Benchmark
+    public String bookingConfirmation() {
+        return templates.bookingConfirmation(customer, booking, hotel, room);
+    }
+
+    @Benchmark
+    public String paymentConfirmation() {
+        return templates.paymentConfirmation(customer, booking, hotel, payment);
+    }
+
+    @Benchmark
+    public String bookingCancellation() {
+        return templates.bookingCancellation(customer, booking, hotel, 1845.05);
+    }
+
+    @Benchmark
+    public String bookingConfirmationConcatenated() {
+        NumberFormat formatter = new DecimalFormat("#0.00");
+        return "<html><body>" +
+                "<h2>Booking Confirmation - " + hotel.getHotelName() + "</h2>" +
+                "<p>Dear " + customer.getUserName() + ",</p>" +
+                "<p>Your booking at " + hotel.getHotelName() + " has been confirmed.</p>" +
+                "<h3>Booking Details:</h3>" +
+                "<ul>" +
+                "<li><strong>Booking ID:</strong> " + booking.getId() + "</li>" +
+                "<li><strong>Hotel Name:</strong> " + hotel.getHotelName() + "</li>" +
+                "<li><strong>Room Type:</strong> " + room.getRoomType() + "</li>" +
+                "<li><strong>Check-in Date:</strong> " + booking.getCheckInDate() + "</li>" +
+                "<li><strong>Check-out Date:</strong> " + booking.getCheckOutDate() + "</li>" +
+                "<li><strong>Total Amount:</strong> $" + formatter.format(booking.getTotalAmount()) + "</li>" +
+                "</ul>" +
+                "<p>Thank you for choosing " + hotel.getHotelName() + ".</p>" +
+                "<p>Best regards,<br/>Hotel Management Team</p>" +
+                "</body></html>";
+    }
+}
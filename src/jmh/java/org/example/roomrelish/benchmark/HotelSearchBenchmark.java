@@ -0,0 +1,150 @@
+package org.example.roomrelish.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.dto.SearchResultDTO;
+import org.example.roomrelish.dto.SearchSort;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.example.roomrelish.services.availability.ParallelAvailabilityExecutor;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.concurrent.OptimisticRetry;
+import org.example.roomrelish.services.hotel.BatchSearchExecutor;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.HotelGeoIndex;
+import org.example.roomrelish.services.hotel.HotelGeoSearch;
+import org.example.roomrelish.services.hotel.HotelRequestCoalescer;
+import org.example.roomrelish.services.hotel.HotelServiceImpl;
+import org.example.roomrelish.services.hotel.HotelSuggestionIndex;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path of the hotel search over a {@link SyntheticCity}, stage by stage and end to end. Runs without Mongo;
+ * the search cache is sized to zero so every end-to-end call recomputes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotelSearchBenchmark {
+
+    @Param({"200", "2000"})
+    public int hotels;
+
+    @Param({"5"})
+    public int roomsPerHotel;
+
+    @Param({"20", "200"})
+    public int bookingsPerRoom;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private SyntheticCity city;
+    private HotelRepository hotelRepository;
+    private RoomAvailabilityMonthRepository monthRepository;
+    private RoomOccupancyIndex occupancyIndex;
+    private ParallelAvailabilityExecutor availabilityExecutor;
+    private HotelServiceImpl hotelService;
+    private List<HotelSummary> summaries;
+
+    private final LocalDate checkIn = SyntheticCity.START.plusDays(180);
+    private final LocalDate checkOut = checkIn.plusDays(3);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        city = new SyntheticCity(hotels, roomsPerHotel, bookingsPerRoom, 42);
+        hotelRepository = city.repository();
+        monthRepository = city.monthRepository();
+        occupancyIndex = new RoomOccupancyIndex(monthRepository);
+        occupancyIndex.rebuild();
+        availabilityExecutor = new ParallelAvailabilityExecutor(new SimpleMeterRegistry(), parallelism, 256);
+        SearchResultCache searchResultCache = new SearchResultCache(new SimpleMeterRegistry(), 0, 0, Duration.ofMinutes(5));
+        HotelGeoIndex hotelGeoIndex = new HotelGeoIndex(hotelRepository);
+        hotelService = new HotelServiceImpl(hotelRepository, null, occupancyIndex, availabilityExecutor, searchResultCache,
+                hotelGeoIndex, new HotelGeoSearch(hotelGeoIndex, hotelRepository), new HotelSuggestionIndex(hotelRepository, 10),
+                new HotelCatalog(hotelRepository, searchResultCache),
+                new HotelRequestCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(5), Duration.ofSeconds(1)),
+                new BatchSearchExecutor(new SimpleMeterRegistry(), 1, 1), new RoomInventoryService(monthRepository),
+                new OptimisticRetry(new SimpleMeterRegistry(), 1, Duration.ZERO, Duration.ZERO));
+        // Stages below only overwrite availableRoomIds, so the summaries can be shared across invocations
+        summaries = city.summaries();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        availabilityExecutor.shutdown();
+    }
+
+    /** The original check: every booking of every room compared against the stay. */
+    @Benchmark
+    public void bookingListScan(Blackhole blackhole) {
+        for (Hotel hotel : city.hotels()) {
+            for (Room room : hotel.getRooms()) {
+                int freeRooms = room.getRoomCount();
+                for (RoomAvailability availability : city.bookings(room.getId())) {
+                    freeRooms = hotelService.findAvailabilityWithTheList(availability, checkIn, checkOut, freeRooms);
+                }
+                blackhole.consume(freeRooms);
+            }
+        }
+    }
+
+    @Benchmark
+    public RoomOccupancyIndex occupancyIndexBuild() {
+        RoomOccupancyIndex index = new RoomOccupancyIndex(monthRepository);
+        index.rebuild();
+        return index;
+    }
+
+    @Benchmark
+    public List<HotelSummary> availabilityCheck() {
+        hotelService.findAvailability(checkIn, checkOut, 1, summaries);
+        return summaries;
+    }
+
+    @Benchmark
+    public SearchResultDTO filteringAndFacets() {
+        return hotelService.filteringHotelsByCheckInCheckOutDate(summaries, checkIn, checkOut, 1);
+    }
+
+    @Benchmark
+    public SearchResultDTO endToEndSearch() {
+        return hotelService.findHotels(SearchDTO.builder()
+                .cityName(SyntheticCity.CITY)
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .countOfRooms(1)
+                .rating(3.0)
+                .amenities(List.of("WiFi"))
+                .sort(SearchSort.PRICE_ASC)
+                .pageSize(20)
+                .build());
+    }
+}
@@ -0,0 +1,326 @@
+package org.example.roomrelish.benchmark;
+
+import org.bson.types.ObjectId;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.CustomerRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.OutboxEmailRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * In-memory stand-ins for the repositories of the booking path, for {@link BookingLoadHarness} runs with
+ * {@code --backend in-memory}. Every call first waits one simulated round trip. Bookings, payments and months are
+ * copied on the way in and out as a database would, and a month is only ever replaced whole inside
+ * {@link ConcurrentHashMap#compute}, so its conditional updates are atomic per month and never across months, like
+ * the Mongo updates they stand in for. Those holds are reimplemented here, so such a run checks the services around
+ * them, not the Mongo updates themselves. Hotels and customers are handed out as stored: the harness gives every
+ * virtual thread its own customer. The outbox stores nothing, so no confirmation email is ever sent. Methods the
+ * booking path does not call throw {@link UnsupportedOperationException}.
+ */
+final class InMemoryBackend {
+
+    private final long roundTripNanos;
+    private final Map<String, Hotel> hotels = new ConcurrentHashMap<>();
+    private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+    private final Map<String, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<String, Payment> payments = new ConcurrentHashMap<>();
+    private final Map<String, String> paymentIdsByBooking = new ConcurrentHashMap<>();
+    private final Map<String, RoomAvailabilityMonth> months = new ConcurrentHashMap<>();
+
+    InMemoryBackend(Duration roundTrip) {
+        this.roundTripNanos = roundTrip.toNanos();
+    }
+
+    BookingLoadHarness.Repositories repositories() {
+        return new BookingLoadHarness.Repositories(hotelRepository(), customerRepository(), bookingRepository(),
+                paymentRepository(), monthRepository(), outboxRepository());
+    }
+
+    private HotelRepository hotelRepository() {
+        return repository(HotelRepository.class, (name, args) -> switch (name) {
+            case "saveAll" -> {
+                List<Hotel> saved = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(hotel -> saved.add((Hotel) hotel));
+                saved.forEach(hotel -> hotels.put(hotel.getId(), hotel));
+                yield saved;
+            }
+            case "findById" -> Optional.ofNullable(hotels.get((String) args[0]));
+            case "findAll" -> List.copyOf(hotels.values());
+            case "backfillVersions" -> 0L;
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private CustomerRepository customerRepository() {
+        return repository(CustomerRepository.class, (name, args) -> switch (name) {
+            case "saveAll" -> {
+                List<Customer> saved = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(customer -> saved.add((Customer) customer));
+                saved.forEach(customer -> customers.put(customer.getId(), customer));
+                yield saved;
+            }
+            case "save" -> {
+                Customer customer = (Customer) args[0];
+                customers.put(customer.getId(), customer);
+                yield customer;
+            }
+            case "findById" -> Optional.ofNullable(customers.get((String) args[0]));
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private BookingRepository bookingRepository() {
+        return repository(BookingRepository.class, (name, args) -> switch (name) {
+            case "save" -> {
+                Booking booking = (Booking) args[0];
+                if (booking.getId() == null) booking.setId(new ObjectId().toString());
+                bookings.put(booking.getId(), copy(booking));
+                yield booking;
+            }
+            case "findById" -> Optional.ofNullable(bookings.get((String) args[0])).map(InMemoryBackend::copy);
+            case "findAll" -> bookings.values().stream().map(InMemoryBackend::copy).toList();
+            case "delete" -> {
+                bookings.remove(((Booking) args[0]).getId());
+                yield null;
+            }
+            case "deleteAllById" -> {
+                ((Iterable<?>) args[0]).forEach(bookings::remove);
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private PaymentRepository paymentRepository() {
+        return repository(PaymentRepository.class, (name, args) -> switch (name) {
+            case "save" -> {
+                Payment payment = (Payment) args[0];
+                if (payment.getId() == null) payment.setId(new ObjectId().toString());
+                payments.put(payment.getId(), copy(payment));
+                paymentIdsByBooking.put(payment.getBookingId(), payment.getId());
+                yield payment;
+            }
+            case "findByBookingId" -> Optional.ofNullable(paymentIdsByBooking.get((String) args[0]))
+                    .map(payments::get)
+                    .map(InMemoryBackend::copy);
+            case "findAll" -> payments.values().stream().map(InMemoryBackend::copy).toList();
+            case "streamByPaymentStatusFalse" -> payments.values().stream().filter(payment -> !payment.isPaymentStatus())
+                    .map(InMemoryBackend::copy);
+            case "removeUnpaidByBookingId" -> {
+                String paymentId = paymentIdsByBooking.get((String) args[0]);
+                Payment[] removed = new Payment[1];
+                if (paymentId != null) {
+                    payments.computeIfPresent(paymentId, (id, payment) -> {
+                        if (payment.isPaymentStatus()) return payment;
+                        removed[0] = payment;
+                        return null;
+                    });
+                }
+                if (removed[0] != null) paymentIdsByBooking.remove(removed[0].getBookingId(), paymentId);
+                yield Optional.ofNullable(removed[0]);
+            }
+            case "markPaid" -> {
+                Payment paid = (Payment) args[0];
+                boolean[] applied = new boolean[1];
+                payments.computeIfPresent(paid.getId(), (id, payment) -> {
+                    if (payment.isPaymentStatus()) return payment;
+                    Payment stored = copy(payment);
+                    stored.setPaymentStatus(true);
+                    stored.setBookingConfirmedDateTime(paid.getBookingConfirmedDateTime());
+                    stored.setHoldExpiresAt(null);
+                    applied[0] = true;
+                    return stored;
+                });
+                yield applied[0];
+            }
+            case "delete" -> {
+                Payment payment = (Payment) args[0];
+                payments.remove(payment.getId());
+                paymentIdsByBooking.remove(payment.getBookingId(), payment.getId());
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private RoomAvailabilityMonthRepository monthRepository() {
+        return repository(RoomAvailabilityMonthRepository.class, (name, args) -> switch (name) {
+            case "createMissing" -> {
+                ((List<RoomAvailabilityMonth>) args[0]).forEach(month -> months.putIfAbsent(month.getId(), copy(month)));
+                yield null;
+            }
+            case "hold" -> {
+                RoomAvailability stay = (RoomAvailability) args[3];
+                int[] rooms = new int[RoomAvailabilityMonth.DAYS];
+                for (int day = (int) args[1]; day < (int) args[2]; day++) {
+                    rooms[day] = stay.getRoomCount();
+                }
+                yield update((String) args[0], List.of(stay), rooms, (boolean) args[4]);
+            }
+            case "holdAll" -> {
+                Map<String, List<RoomAvailabilityMonth.Hold>> byMonth = new LinkedHashMap<>();
+                ((List<RoomAvailabilityMonth.Hold>) args[0])
+                        .forEach(hold -> byMonth.computeIfAbsent(hold.monthId(), id -> new ArrayList<>()).add(hold));
+                int applied = 0;
+                for (Map.Entry<String, List<RoomAvailabilityMonth.Hold>> month : byMonth.entrySet()) {
+                    int[] rooms = new int[RoomAvailabilityMonth.DAYS];
+                    for (RoomAvailabilityMonth.Hold hold : month.getValue()) {
+                        for (int day = hold.span().fromDay(); day < hold.span().toDay(); day++) {
+                            rooms[day] += hold.stay().getRoomCount();
+                        }
+                    }
+                    if (update(month.getKey(), month.getValue().stream().map(RoomAvailabilityMonth.Hold::stay).toList(), rooms, true)) {
+                        applied++;
+                    }
+                }
+                yield applied == byMonth.size();
+            }
+            case "isHeld" -> {
+                RoomAvailabilityMonth month = months.get((String) args[0]);
+                yield month != null && held(month, (String) args[1]);
+            }
+            case "release" -> release((String) args[0], (int) args[1], (int) args[2], (String) args[3], (int) args[4]);
+            case "findAllById" -> {
+                List<RoomAvailabilityMonth> found = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(id -> Optional.ofNullable(months.get((String) id)).map(InMemoryBackend::copy).ifPresent(found::add));
+                yield found;
+            }
+            case "findAll" -> months.values().stream().map(InMemoryBackend::copy).toList();
+            case "findByHotelIdInAndMonthIn" -> months.values().stream()
+                    .filter(month -> ((Collection<?>) args[0]).contains(month.getHotelId()) && ((Collection<?>) args[1]).contains(month.getMonth()))
+                    .map(InMemoryBackend::copy)
+                    .toList();
+            case "streamByMonthGreaterThanEqual" -> months.values().stream()
+                    .filter(month -> month.getMonth().compareTo((String) args[0]) >= 0)
+                    .map(InMemoryBackend::copy);
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private OutboxEmailRepository outboxRepository() {
+        return repository(OutboxEmailRepository.class, (name, args) -> switch (name) {
+            case "insertIfAbsent" -> false;
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    /**
+     * Takes {@code rooms[day]} off each day and adds the stays, only while none of them is in the month and every
+     * day has its rooms free when {@code checkFree}. Returns whether the month was changed.
+     */
+    private boolean update(String monthId, List<RoomAvailability> stays, int[] rooms, boolean checkFree) {
+        boolean[] applied = new boolean[1];
+        months.computeIfPresent(monthId, (id, month) -> {
+            if (stays.stream().anyMatch(stay -> held(month, stay.getBookingId()))) return month;
+            int[] free = month.getFree().clone();
+            for (int day = 0; day < free.length; day++) {
+                if (checkFree && free[day] < rooms[day]) return month;
+                free[day] -= rooms[day];
+            }
+            List<RoomAvailability> held = new ArrayList<>(month.getStays());
+            stays.forEach(stay -> held.add(copy(stay)));
+            applied[0] = true;
+            return new RoomAvailabilityMonth(month.getId(), month.getHotelId(), month.getRoomId(), month.getMonth(), month.getCapacity(), free, held);
+        });
+        return applied[0];
+    }
+
+    private boolean release(String monthId, int fromDay, int toDay, String bookingId, int rooms) {
+        boolean[] applied = new boolean[1];
+        months.computeIfPresent(monthId, (id, month) -> {
+            if (!held(month, bookingId)) return month;
+            int[] free = month.getFree().clone();
+            for (int day = fromDay; day < toDay; day++) {
+                free[day] += rooms;
+            }
+            List<RoomAvailability> held = new ArrayList<>(month.getStays());
+            held.removeIf(stay -> stay.getBookingId().equals(bookingId));
+            applied[0] = true;
+            return new RoomAvailabilityMonth(month.getId(), month.getHotelId(), month.getRoomId(), month.getMonth(), month.getCapacity(), free, held);
+        });
+        return applied[0];
+    }
+
+    private static boolean held(RoomAvailabilityMonth month, String bookingId) {
+        return month.getStays().stream().anyMatch(stay -> stay.getBookingId().equals(bookingId));
+    }
+
+    /** A proxy answering {@code calls} by method name, one simulated round trip per call. */
+    private <T> T repository(Class<T> type, BiFunction<String, Object[], Object> calls) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "In-memory " + type.getSimpleName();
+                    default -> {
+                        if (roundTripNanos > 0) LockSupport.parkNanos(roundTripNanos);
+                        yield calls.apply(method.getName(), args);
+                    }
+                }));
+    }
+
+    private static RoomAvailabilityMonth copy(RoomAvailabilityMonth month) {
+        return new RoomAvailabilityMonth(month.getId(), month.getHotelId(), month.getRoomId(), month.getMonth(), month.getCapacity(),
+                month.getFree().clone(), new ArrayList<>(month.getStays().stream().map(InMemoryBackend::copy).toList()));
+    }
+
+    private static RoomAvailability copy(RoomAvailability stay) {
+        return new RoomAvailability(stay.getBookingId(), stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+    }
+
+    private static Booking copy(Booking booking) {
+        return Booking.builder()
+                .id(booking.getId())
+                .userId(booking.getUserId())
+                .hotelId(booking.getHotelId())
+                .roomId(booking.getRoomId())
+                .numOfRooms(booking.getNumOfRooms())
+                .numOfDays(booking.getNumOfDays())
+                .totalAmount(booking.getTotalAmount())
+                .gstOfTotalAmount(booking.getGstOfTotalAmount())
+                .checkInDate(booking.getCheckInDate())
+                .checkOutDate(booking.getCheckOutDate())
+                .build();
+    }
+
+    private static Payment copy(Payment payment) {
+        return Payment.builder()
+                .id(payment.getId())
+                .hotelId(payment.getHotelId())
+                .hotelName(payment.getHotelName())
+                .hotelImage(payment.getHotelImage())
+                .userId(payment.getUserId())
+                .roomId(payment.getRoomId())
+                .roomName(payment.getRoomName())
+                .bookingId(payment.getBookingId())
+                .totalAmount(payment.getTotalAmount())
+                .numOfRooms(payment.getNumOfRooms())
+                .numOfDays(payment.getNumOfDays())
+                .paymentStatus(payment.isPaymentStatus())
+                .checkInDate(payment.getCheckInDate())
+                .checkOutDate(payment.getCheckOutDate())
+                .bookingConfirmedDateTime(payment.getBookingConfirmedDateTime())
+                .holdExpiresAt(payment.getHoldExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.roomrelish.benchmark;
+
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Checks what a load run left behind. The sales come from the payments: a paid payment has sold its rooms for every
+ * night of its stay, an unpaid one still holds them. No night of a room may have more rooms sold, or sold and held,
+ * than the room's {@link Room#getRoomCount()}. The inventory must also agree with the payments: every payment's
+ * booking holds each month of its stay, and each day's free count is the capacity less the rooms of the stays on it.
+ * Payments without a booking and stays without a payment only waste rooms, so they are reported but do not fail the
+ * check.
+ */
+final class OverbookingCheck {
+
+    private static final int EXAMPLES = 5;
+
+    record Result(int soldRoomNights, int overbookedNights, int overheldNights, int unheldPayments, int driftedDays,
+                  int orphanedPayments, int leakedStays, List<String> examples) {
+
+        boolean passed() {
+            return overbookedNights == 0 && overheldNights == 0 && unheldPayments == 0 && driftedDays == 0;
+        }
+    }
+
+    private OverbookingCheck() {
+    }
+
+    static Result run(List<Hotel> hotels, List<Payment> payments, List<Booking> bookings, List<RoomAvailabilityMonth> months) {
+        List<String> examples = new ArrayList<>();
+        Map<String, Integer> roomCounts = new HashMap<>();
+        hotels.forEach(hotel -> hotel.getRooms().forEach(room -> roomCounts.put(room.getId(), room.getRoomCount())));
+
+        Map<String, Map<LocalDate, Integer>> sold = new HashMap<>();
+        Map<String, Map<LocalDate, Integer>> taken = new HashMap<>();
+        for (Payment payment : payments) {
+            for (LocalDate night = payment.getCheckInDate(); night.isBefore(payment.getCheckOutDate()); night = night.plusDays(1)) {
+                if (payment.isPaymentStatus()) {
+                    sold.computeIfAbsent(payment.getRoomId(), roomId -> new TreeMap<>()).merge(night, payment.getNumOfRooms(), Integer::sum);
+                }
+                taken.computeIfAbsent(payment.getRoomId(), roomId -> new TreeMap<>()).merge(night, payment.getNumOfRooms(), Integer::sum);
+            }
+        }
+        int soldRoomNights = sold.values().stream().mapToInt(Map::size).sum();
+        int overbooked = beyondRoomCount(sold, roomCounts, "sold", examples);
+        int overheld = beyondRoomCount(taken, roomCounts, "sold or held", examples);
+
+        Map<String, RoomAvailabilityMonth> monthsById = new HashMap<>();
+        months.forEach(month -> monthsById.put(month.getId(), month));
+        int unheld = 0;
+        Set<String> payingBookings = new HashSet<>();
+        for (Payment payment : payments) {
+            payingBookings.add(payment.getBookingId());
+            boolean held = RoomAvailabilityMonth.Span.of(payment.getCheckInDate(), payment.getCheckOutDate()).stream()
+                    .map(span -> monthsById.get(RoomAvailabilityMonth.id(payment.getRoomId(), span.month())))
+                    .allMatch(month -> month != null && month.getStays().stream().anyMatch(stay -> stay.getBookingId().equals(payment.getBookingId())));
+            if (!held) {
+                unheld++;
+                example(examples, "booking " + payment.getBookingId() + " has a payment but does not hold its rooms");
+            }
+        }
+
+        int drifted = 0;
+        Set<String> leaked = new HashSet<>();
+        for (RoomAvailabilityMonth month : months) {
+            YearMonth yearMonth = YearMonth.parse(month.getMonth());
+            int[] expected = new int[RoomAvailabilityMonth.DAYS];
+            for (int day = 0; day < yearMonth.lengthOfMonth(); day++) {
+                expected[day] = month.getCapacity();
+            }
+            for (RoomAvailability stay : month.getStays()) {
+                if (!payingBookings.contains(stay.getBookingId())) leaked.add(stay.getBookingId());
+                for (RoomAvailabilityMonth.Span span : RoomAvailabilityMonth.Span.of(stay.getCheckInDate(), stay.getCheckOutDate())) {
+                    if (!span.month().equals(yearMonth)) continue;
+                    for (int day = span.fromDay(); day < span.toDay(); day++) {
+                        expected[day] -= stay.getRoomCount();
+                    }
+                }
+            }
+            for (int day = 0; day < yearMonth.lengthOfMonth(); day++) {
+                if (month.getFree()[day] != expected[day] || month.getFree()[day] < 0) {
+                    drifted++;
+                    example(examples, "room " + month.getRoomId() + " on " + yearMonth.atDay(day + 1) + " counts "
+                            + month.getFree()[day] + " free, its stays leave " + expected[day]);
+                }
+            }
+        }
+
+        Set<String> bookingIds = new HashSet<>();
+        bookings.forEach(booking -> bookingIds.add(booking.getId()));
+        int orphaned = (int) payments.stream().filter(payment -> !bookingIds.contains(payment.getBookingId())).count();
+        return new Result(soldRoomNights, overbooked, overheld, unheld, drifted, orphaned, leaked.size(), examples);
+    }
+
+    private static int beyondRoomCount(Map<String, Map<LocalDate, Integer>> rooms, Map<String, Integer> roomCounts,
+                                       String what, List<String> examples) {
+        int nights = 0;
+        for (Map.Entry<String, Map<LocalDate, Integer>> room : rooms.entrySet()) {
+            int roomCount = roomCounts.getOrDefault(room.getKey(), 0);
+            for (Map.Entry<LocalDate, Integer> night : room.getValue().entrySet()) {
+                if (night.getValue() > roomCount) {
+                    nights++;
+                    example(examples, "room " + room.getKey() + " on " + night.getKey() + ": " + night.getValue()
+                            + " rooms " + what + " of " + roomCount);
+                }
+            }
+        }
+        return nights;
+    }
+
+    private static void example(List<String> examples, String example) {
+        if (examples.size() < EXAMPLES) examples.add(example);
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.roomrelish.benchmark;
+
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory city of hotels for the benchmarks, with a {@link HotelRepository} stand-in that answers
+ * from these objects instead of Mongo. The stand-in applies the search's city, rating, price and amenity filters in
+ * Java; it does not emulate the Mongo date filter, so every matching hotel reaches the availability check. The
+ * bookings are also served as availability months, every month whatever the query asks for.
+ */
+final class SyntheticCity {
+
+    static final String CITY = "Benchmark City";
+    static final LocalDate START = LocalDate.of(2025, 1, 1);
+    static final List<String> AMENITIES = List.of("WiFi", "Pool", "Gym", "Spa", "Parking", "Breakfast", "Bar", "Airport shuttle");
+    private static final List<String> HOTEL_TYPES = List.of("Hotel", "Resort", "Hostel", "Apartment");
+
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final Map<String, List<RoomAvailability>> bookings = new HashMap<>();
+
+    SyntheticCity(int hotelCount, int roomsPerHotel, int bookingsPerRoom, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int h = 0; h < hotelCount; h++) {
+            Hotel hotel = new Hotel();
+            hotel.setId("hotel-" + h);
+            hotel.setHotelName("Hotel " + h);
+            hotel.setHotelType(HOTEL_TYPES.get(random.nextInt(HOTEL_TYPES.size())));
+            hotel.setLocation(new Location(CITY, 13 + random.nextDouble(), 80 + random.nextDouble(), "Street " + h));
+            hotel.setRating(Math.round((2 + random.nextDouble() * 3) * 10) / 10.0);
+            hotel.setNumReviews(random.nextInt(500));
+            hotel.setPriceStartingFrom(50 + random.nextInt(950));
+            hotel.setAmenities(AMENITIES.stream().filter(amenity -> random.nextInt(3) > 0).toList());
+            hotel.setImages(List.of("image-" + h + "-0", "image-" + h + "-1"));
+
+            List<Room> rooms = new ArrayList<>();
+            for (int r = 0; r < roomsPerHotel; r++) {
+                int roomCount = 1 + random.nextInt(20);
+                List<RoomAvailability> bookings = new ArrayList<>();
+                for (int b = 0; b < bookingsPerRoom; b++) {
+                    LocalDate checkIn = START.plusDays(random.nextInt(365));
+                    bookings.add(new RoomAvailability("booking-" + h + "-" + r + "-" + b, checkIn,
+                            checkIn.plusDays(1 + random.nextInt(7)), 1 + random.nextInt(Math.max(1, roomCount / 2))));
+                }
+                rooms.add(Room.builder()
+                        .id("room-" + h + "-" + r)
+                        .roomType("Type " + r)
+                        .roomRate(hotel.getPriceStartingFrom() + r * 10)
+                        .roomCount(roomCount)
+                        .build());
+                this.bookings.put(rooms.getLast().getId(), bookings);
+            }
+            hotel.setRooms(rooms);
+            hotels.add(hotel);
+        }
+    }
+
+    List<Hotel> hotels() {
+        return hotels;
+    }
+
+    List<RoomAvailability> bookings(String roomId) {
+        return bookings.getOrDefault(roomId, List.of());
+    }
+
+    /** Fresh summaries of every hotel, as the search projection would return them. */
+    List<HotelSummary> summaries() {
+        return hotels.stream().map(SyntheticCity::summary).toList();
+    }
+
+    HotelRepository repository() {
+        return (HotelRepository) Proxy.newProxyInstance(HotelRepository.class.getClassLoader(), new Class<?>[]{HotelRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll", "findAllNames", "findAllLocations" -> hotels;
+                    case "findAllSummaries" -> summaries();
+                    case "searchHotels" -> hotels.stream().filter(hotel -> matches(hotel, (SearchDTO) args[0]))
+                            .map(SyntheticCity::summary).toList();
+                    case "findById" -> hotels.stream().filter(hotel -> hotel.getId().equals(args[0])).findFirst();
+                    case "backfillPositions" -> 0L;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticCity repository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    RoomAvailabilityMonthRepository monthRepository() {
+        Map<String, RoomAvailabilityMonth> months = new LinkedHashMap<>();
+        for (Hotel hotel : hotels) {
+            for (Room room : hotel.getRooms()) {
+                for (RoomAvailability booking : bookings(room.getId())) {
+                    for (RoomAvailabilityMonth.Span span : RoomAvailabilityMonth.Span.of(booking.getCheckInDate(), booking.getCheckOutDate())) {
+                        months.computeIfAbsent(RoomAvailabilityMonth.id(room.getId(), span.month()),
+                                id -> RoomAvailabilityMonth.empty(hotel.getId(), room.getId(), span.month(), room.getRoomCount()))
+                                .getStays().add(booking);
+                    }
+                }
+            }
+        }
+        return (RoomAvailabilityMonthRepository) Proxy.newProxyInstance(RoomAvailabilityMonthRepository.class.getClassLoader(),
+                new Class<?>[]{RoomAvailabilityMonthRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "streamByMonthGreaterThanEqual" -> months.values().stream();
+                    case "findByHotelIdInAndMonthIn", "findAll" -> List.copyOf(months.values());
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticCity month repository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static boolean matches(Hotel hotel, SearchDTO searchDTO) {
+        if (searchDTO.getCityName() != null && !searchDTO.getCityName().isBlank()
+                && !hotel.getLocation().getCityName().equalsIgnoreCase(searchDTO.getCityName().trim())) return false;
+        if (searchDTO.getRating() > 0 && hotel.getRating() <= searchDTO.getRating()) return false;
+        if (searchDTO.getPriceRangeMin() > 0 && hotel.getPriceStartingFrom() < searchDTO.getPriceRangeMin()) return false;
+        if (searchDTO.getPriceRangeMax() > 0 && hotel.getPriceStartingFrom() > searchDTO.getPriceRangeMax()) return false;
+        return searchDTO.getAmenities() == null || hotel.getAmenities().containsAll(searchDTO.getAmenities());
+    }
+
+    private static HotelSummary summary(Hotel hotel) {
+        return HotelSummary.builder()
+                .id(hotel.getId())
+                .hotelName(hotel.getHotelName())
+                .hotelType(hotel.getHotelType())
+                .cityName(hotel.getLocation().getCityName())
+                .rating(hotel.getRating())
+                .numReviews(hotel.getNumReviews())
+                .priceStartingFrom(hotel.getPriceStartingFrom())
+                .image(hotel.getImages().getFirst())
+                .amenities(hotel.getAmenities())
+                .rooms(hotel.getRooms().stream().map(room -> Room.builder().id(room.getId()).roomCount(room.getRoomCount()).build()).toList())
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.roomrelish.config;
 
 import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.services.idempotency.IdempotencyService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,7 +34,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173", "http://127.0.0.1"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", IdempotencyService.HEADER));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -63,6 +64,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/v1/hotel/hotels").hasAuthority("USER")
                 .requestMatchers(HttpMethod.GET, "/api/v1/hotel/hotel").hasAuthority("USER")
                 .requestMatchers(HttpMethod.GET, "/api/v1/hotel/search").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/hotel/search/flexible").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/v1/hotel/search/batch").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/hotel/suggest").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/hotel/*/calendar").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/v1/hotel/reviews").hasAuthority("USER")
                 .requestMatchers(HttpMethod.POST, "/api/v1/hotel/addReview").hasAuthority("USER")
                 .requestMatchers(HttpMethod.POST, "/api/v1/hotel/addRoom").hasAuthority("USER")
@@ -8,4 +8,22 @@ public class ApplicationConstants {
 
     public static final double DEFAULT_CANCELLATION_CHARGE=0.5;
 
+    public static final double DEFAULT_SEARCH_RADIUS_KM = 10.0;
+
+    public static final double MAX_SEARCH_RADIUS_KM = 100.0;
+
+    public static final int FACET_PRICE_BUCKET_WIDTH = 500;
+
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    public static final int MAX_CALENDAR_NIGHTS = 366;
+
+    public static final int MAX_BATCH_SEARCHES = 20;
+
+    public static final long BATCH_SEARCH_TIMEOUT_MILLIS = 30_000;
+
+    public static final int MAX_CART_LINES = 20;
+
+    public static final int MAX_ADVANCE_BOOKING_DAYS = 366;
+
 }
@@ -4,20 +4,29 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.example.roomrelish.dto.BookingDetailsDTO;
+import org.example.roomrelish.dto.CartCheckoutDTO;
+import org.example.roomrelish.dto.CartDTO;
 import org.example.roomrelish.models.Booking;
 import org.example.roomrelish.services.booking.BookingService;
+import org.example.roomrelish.services.booking.CartService;
+import org.example.roomrelish.services.idempotency.IdempotencyService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.security.Principal;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/v1/booking")
 public class BookingController {
 
     private final BookingService bookingService;
+    private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(
             description = "Booking Room",
@@ -34,8 +43,34 @@ public class BookingController {
             }
     )
     @PostMapping("/book-room")
-    public ResponseEntity<Booking> bookingDetails(@RequestBody BookingDetailsDTO bookingDetailsDTO) {
-        Booking bookingDetails = bookingService.bookRoom(bookingDetailsDTO);
+    public ResponseEntity<Booking> bookingDetails(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                  @RequestBody BookingDetailsDTO bookingDetailsDTO,
+                                                  Principal principal) {
+        Booking bookingDetails = idempotencyService.execute("book-room", principal.getName(), idempotencyKey, bookingDetailsDTO, Booking.class,
+                () -> bookingService.bookRoom(bookingDetailsDTO));
         return ResponseEntity.ok(bookingDetails);
     }
+
+    @Operation(
+            description = "Cart checkout",
+            summary = "Books and pays for every line of the cart together, holding the rooms of all lines or none",
+            responses = {
+                    @ApiResponse(
+                            description = "Payments of the cart's bookings",
+                            responseCode = "200"
+                    ),
+                    @ApiResponse(
+                            description = "Invalid cart lines, No available rooms for a line",
+                            responseCode = "400"
+                    )
+            }
+    )
+    @PostMapping("/cart/checkout")
+    public ResponseEntity<CartCheckoutDTO> checkoutCart(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                        @RequestBody CartDTO cartDTO,
+                                                        Principal principal) {
+        CartCheckoutDTO checkout = idempotencyService.execute("cart-checkout", principal.getName(), idempotencyKey, cartDTO, CartCheckoutDTO.class,
+                () -> cartService.checkout(cartDTO));
+        return ResponseEntity.ok(checkout);
+    }
 }
@@ -6,17 +6,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.constants.ApplicationConstants;
 import org.example.roomrelish.dto.*;
 import org.example.roomrelish.models.Hotel;
 import org.example.roomrelish.services.hotel.HotelService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -38,8 +45,8 @@ public class HotelController {
     }
 
     @GetMapping("/hotels")
-    public List<Hotel> getAllHotels(){
-        return hotelService.getAllHotels();
+    public List<HotelSummary> getAllHotels(){
+        return hotelService.getHotelSummaries();
     }
 
     @GetMapping("/hotel")
@@ -50,7 +57,7 @@ public class HotelController {
     // Search hotel
     @Operation(
             description = "Search Hotels",
-            summary = "Search hotels by city name and/or rating",
+            summary = "Search hotels by city or around a point (radius / nearest), rating, price range, amenities and stay dates; optionally sorted and paged with a cursor",
             responses = {
                     @ApiResponse(
                             description = "List of hotels found",
@@ -75,12 +82,100 @@ public class HotelController {
             @RequestParam(required = false, defaultValue = "0") int priceRangeMax,
             @RequestParam(required = false, defaultValue = "0") int priceRangeMin,
             @RequestParam(required = false, defaultValue = "0") double rating,
-            @RequestParam(required = false) List<String> amenities
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer nearest,
+            @RequestParam(required = false) SearchSort sort,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor
     ){
-        SearchResultDTO searchResultDTO = hotelService.findHotels(cityName, checkInDate, checkOutDate, countOfRooms, priceRangeMax, priceRangeMin, rating, amenities);
+        SearchDTO searchDTO = SearchDTO.builder()
+                .cityName(cityName)
+                .checkInDate(checkInDate)
+                .checkOutDate(checkOutDate)
+                .countOfRooms(countOfRooms)
+                .priceRangeMax(priceRangeMax)
+                .priceRangeMin(priceRangeMin)
+                .rating(rating)
+                .amenities(amenities)
+                .latitude(latitude)
+                .longitude(longitude)
+                .radiusKm(radiusKm)
+                .nearest(nearest)
+                .sort(sort)
+                .pageSize(pageSize)
+                .cursor(cursor)
+                .build();
+        SearchResultDTO searchResultDTO = hotelService.findHotels(searchDTO);
         return ResponseEntity.ok(searchResultDTO);
     }
 
+    @Operation(
+            description = "Batch search",
+            summary = "Runs up to 20 searches concurrently and streams one JSON line per search (newline-delimited JSON) as each completes"
+    )
+    @PostMapping(value = "/search/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter searchHotelsBatch(@RequestBody List<SearchDTO> searches){
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(ApplicationConstants.BATCH_SEARCH_TIMEOUT_MILLIS);
+        hotelService.findHotelsBatch(searches, result -> sendLine(emitter, result))
+                .whenComplete((done, error) -> {
+                    if (error == null) emitter.complete();
+                    else emitter.completeWithError(error);
+                });
+        return emitter;
+    }
+
+    private static void sendLine(ResponseBodyEmitter emitter, BatchSearchResultDTO result) {
+        // One send per line so concurrent searches never interleave inside a line
+        Set<ResponseBodyEmitter.DataWithMediaType> line = new LinkedHashSet<>();
+        line.add(new ResponseBodyEmitter.DataWithMediaType(result, MediaType.APPLICATION_JSON));
+        line.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+        try {
+            emitter.send(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Operation(
+            description = "Suggest cities and hotels",
+            summary = "Most popular city and hotel names starting with the prefix"
+    )
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam String prefix,
+                                                       @RequestParam(required = false, defaultValue = "10") int limit){
+        return ResponseEntity.ok(hotelService.suggest(prefix, limit));
+    }
+
+    @Operation(
+            description = "Room availability calendar",
+            summary = "Free rooms and rate of each room for every night from 'from' (inclusive) to 'to' (exclusive)"
+    )
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<List<RoomCalendarDTO>> getAvailabilityCalendar(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(hotelService.getAvailabilityCalendar(id, from, to));
+    }
+
+    @Operation(
+            description = "Flexible-dates search",
+            summary = "Cheapest start dates per hotel for a stay of the given nights anywhere from 'from' to 'to'"
+    )
+    @GetMapping("/search/flexible")
+    public ResponseEntity<List<FlexibleStayDTO>> searchFlexibleStays(
+            @RequestParam String cityName,
+            @RequestParam int nights,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false, defaultValue = "1") int countOfRooms,
+            @RequestParam(required = false, defaultValue = "3") int options){
+        return ResponseEntity.ok(hotelService.findFlexibleStays(cityName, nights, from, to, countOfRooms, options));
+    }
+
     @PostMapping("/createHotel")
     public ResponseEntity<String> createHotel(@Valid @RequestBody HotelDTO hotelDTO){
         hotelService.createHotel(hotelDTO);
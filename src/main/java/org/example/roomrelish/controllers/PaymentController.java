@@ -4,10 +4,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.services.idempotency.IdempotencyService;
 import org.example.roomrelish.services.payment.PaymentServiceImpl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -16,14 +18,18 @@ import java.util.List;
 public class PaymentController {
 
         private final PaymentServiceImpl paymentService;
+        private final IdempotencyService idempotencyService;
 
         @Operation(description = "Confirm Payment process", summary = "After booking, this payment API confirms the booking by making a payment", responses = {
                 @ApiResponse(description = "Details of Payment", responseCode = "200"),
                 @ApiResponse(description = "No booking details found", responseCode = "204")
         })
         @PostMapping("/pay")
-        public ResponseEntity<Payment> confirmBooking(@RequestParam String bookingId){
-                Payment paymentDetails = paymentService.confirmBook(bookingId);
+        public ResponseEntity<Payment> confirmBooking(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                      @RequestParam String bookingId,
+                                                      Principal principal){
+                Payment paymentDetails = idempotencyService.execute("pay", principal.getName(), idempotencyKey, bookingId, Payment.class,
+                        () -> paymentService.confirmBook(bookingId));
                 return ResponseEntity.ok(paymentDetails);
         }
 
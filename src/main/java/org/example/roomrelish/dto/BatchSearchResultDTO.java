@@ -0,0 +1,19 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch search response: the result of the search at {@code index} in the request, or the reason it
+ * failed. Lines arrive in completion order, not request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchResultDTO {
+    private int index;
+    private String cityName;
+    private SearchResultDTO result;
+    private String error;
+}
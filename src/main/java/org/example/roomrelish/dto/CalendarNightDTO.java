@@ -0,0 +1,16 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarNightDTO {
+    private LocalDate date;
+    private int freeRooms;
+    private int rate;
+}
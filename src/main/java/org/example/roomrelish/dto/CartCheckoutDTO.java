@@ -0,0 +1,17 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.roomrelish.models.Payment;
+
+import java.util.List;
+
+/** The paid bookings of a checked out cart, one payment per cart line in line order, and what was paid in total. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCheckoutDTO {
+    private List<Payment> payments;
+    private double totalAmount;
+}
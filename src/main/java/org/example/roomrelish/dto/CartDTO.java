@@ -0,0 +1,31 @@
+package org.example.roomrelish.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(
+        name = "Cart",
+        description = "Rooms, possibly in several hotels, booked and paid for together"
+)
+public class CartDTO {
+
+    @NotEmpty(message = "User ID cannot be null or empty")
+    @Schema(
+            description = "User ID",
+            example = "12345"
+    )
+    private String _userId;
+
+    @NotEmpty(message = "A cart needs at least one line")
+    private List<CartLineDTO> lines;
+}
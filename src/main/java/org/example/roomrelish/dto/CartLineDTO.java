@@ -0,0 +1,58 @@
+package org.example.roomrelish.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(
+        name = "CartLine",
+        description = "Rooms of one type in one hotel for one stay"
+)
+public class CartLineDTO {
+
+    @NotEmpty(message = "Hotel ID cannot be null or empty")
+    @Schema(
+            description = "Hotel ID",
+            example = "67890"
+    )
+    private String _hotelId;
+
+    @NotEmpty(message = "Room ID cannot be null or empty")
+    @Schema(
+            description = "Room ID",
+            example = "54321"
+    )
+    private String _roomId;
+
+    @Min(value = 1, message = "Customer room count must be at least 1")
+    @Schema(
+            description = "Number of rooms booked by the customer",
+            example = "2"
+    )
+    private int customerRoomCount;
+
+    @NotNull(message = "Check-in date cannot be null")
+    @Schema(
+            description = "Check-in date",
+            example = "2024-06-12"
+    )
+    private LocalDate checkInDate;
+
+    @NotNull(message = "Check-out date cannot be null")
+    @Schema(
+            description = "Check-out date",
+            example = "2024-06-15"
+    )
+    private LocalDate checkOutDate;
+}
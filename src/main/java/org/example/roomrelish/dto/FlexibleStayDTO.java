@@ -0,0 +1,16 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlexibleStayDTO {
+    private String hotelId;
+    private String hotelName;
+    private List<StayOptionDTO> options;
+}
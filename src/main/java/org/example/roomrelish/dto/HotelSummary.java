@@ -0,0 +1,34 @@
+package org.example.roomrelish.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.roomrelish.models.Room;
+
+import java.util.List;
+
+/**
+ * List-view projection of a hotel. Read straight from Mongo with only these fields projected, so reviews and the
+ * rooms' booking history are never loaded. {@link #rooms} carries just the id and count of each room and is used
+ * to work out {@link #availableRoomIds}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class HotelSummary {
+    private String id;
+    private String hotelName;
+    private String hotelType;
+    private String cityName;
+    private double rating;
+    private int numReviews;
+    private int priceStartingFrom;
+    private String image;
+    private List<String> amenities;
+    private List<String> availableRoomIds;
+    @JsonIgnore
+    private List<Room> rooms;
+}
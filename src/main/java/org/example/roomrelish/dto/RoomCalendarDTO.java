@@ -0,0 +1,17 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomCalendarDTO {
+    private String roomId;
+    private String roomType;
+    private int roomCount;
+    private List<CalendarNightDTO> nights;
+}
@@ -1,6 +1,7 @@
 package org.example.roomrelish.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -11,6 +12,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder
 public class SearchDTO {
     private String cityName;
     private LocalDate checkInDate;
@@ -20,6 +22,13 @@ public class SearchDTO {
     private int priceRangeMin;
     private double rating;
     private List<String> amenities;
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+    private Integer nearest;
+    private SearchSort sort;
+    private Integer pageSize;
+    private String cursor;
 
 
 
@@ -0,0 +1,21 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Counts of the hotels in a search result by filter value. Rating buckets are keyed by the whole star below the
+ * rating, price buckets by their lower bound.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDTO {
+    private Map<String, Long> amenities;
+    private Map<Integer, Long> ratings;
+    private Map<Integer, Long> prices;
+    private Map<String, Long> hotelTypes;
+}
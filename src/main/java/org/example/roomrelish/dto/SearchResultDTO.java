@@ -3,14 +3,18 @@ package org.example.roomrelish.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.example.roomrelish.models.Hotel;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SearchResultDTO {
-    private List<Hotel> hotels;
+    private List<HotelSummary> hotels;
     private List<String> roomIds;
+    private Map<String, Double> distancesKm;
+    private SearchFacetsDTO facets;
+    private int totalHotels;
+    private String nextCursor;
 }
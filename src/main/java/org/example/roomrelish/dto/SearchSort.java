@@ -0,0 +1,9 @@
+package org.example.roomrelish.dto;
+
+public enum SearchSort {
+    PRICE_ASC,
+    PRICE_DESC,
+    RATING,
+    DISTANCE,
+    POPULARITY
+}
@@ -0,0 +1,18 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StayOptionDTO {
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private String roomId;
+    private String roomType;
+    private long totalPrice;
+}
@@ -0,0 +1,15 @@
+package org.example.roomrelish.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    public enum Type { CITY, HOTEL }
+
+    private Type type;
+    private String text;
+}
@@ -57,6 +57,60 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponseDto);
     }
 
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidSearchException(
+            InvalidSearchException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+        return ResponseEntity.badRequest().body(errorResponseDto);
+    }
+
+    @ExceptionHandler(InvalidCartException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidCartException(
+            InvalidCartException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+        return ResponseEntity.badRequest().body(errorResponseDto);
+    }
+
+    @ExceptionHandler(InvalidBookingException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidBookingException(
+            InvalidBookingException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+        return ResponseEntity.badRequest().body(errorResponseDto);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyReusedException(
+            IdempotencyKeyReusedException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), request);
+        return ResponseEntity.unprocessableEntity().body(errorResponseDto);
+    }
+
+    @ExceptionHandler(RequestInProgressException.class)
+    public ResponseEntity<ErrorResponseDto> handleRequestInProgressException(
+            RequestInProgressException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponseDto);
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ErrorResponseDto> handleConcurrentUpdateException(
+            ConcurrentUpdateException ex,
+            WebRequest request) {
+
+        ErrorResponseDto errorResponseDto = createErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponseDto);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGlobalException(
             Exception ex,
@@ -0,0 +1,11 @@
+package org.example.roomrelish.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidBookingException extends RuntimeException {
+    public InvalidBookingException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.roomrelish.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidCartException extends RuntimeException {
+    public InvalidCartException(String msg) {
+        super(msg);
+    }
+}
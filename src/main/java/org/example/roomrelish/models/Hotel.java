@@ -5,8 +5,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.TestOnly;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.List;
 
 @TestOnly
@@ -14,6 +18,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "hotels")
+@CompoundIndex(name = "city_rating_price_ci", def = "{'location.cityName': 1, 'rating': -1, 'priceStartingFrom': 1}",
+        collation = "{'locale': 'en', 'strength': 2}")
 public class Hotel {
     @Id
     private String id;
@@ -26,9 +32,15 @@ public class Hotel {
     private int priceStartingFrom;
     private String overview;
     private List<String> locationFeatures;
+    @Indexed
     private List<String> amenities;
     private List<String> images;
     private List<Room> rooms;
     private List<GuestReview> guestReviews;
+    @Indexed
+    private Instant lastModified;
+    /** Bumped on every save, which only applies to the version it read; see {@code OptimisticRetry}. */
+    @Version
+    private Long version;
 }
 
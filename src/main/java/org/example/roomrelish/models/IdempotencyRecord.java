@@ -0,0 +1,33 @@
+package org.example.roomrelish.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A request made with an {@code Idempotency-Key}, under id {@code <endpoint>:<key>}. The fingerprint is a hash of the
+ * request, so the key cannot be reused for a different one; the response is kept as JSON once the request completed.
+ * Mongo drops records {@value #RETENTION} after they were started.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    public static final String RETENTION = "24h";
+
+    @Id
+    private String id;
+    private String fingerprint;
+    private IdempotencyStatus status;
+    @Indexed(name = "expire_after_retention", expireAfter = RETENTION)
+    private Instant startedAt;
+    private String response;
+}
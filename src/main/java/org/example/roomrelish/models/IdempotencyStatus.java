@@ -0,0 +1,6 @@
+package org.example.roomrelish.models;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -1,9 +1,13 @@
 package org.example.roomrelish.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.TestOnly;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 
 @TestOnly
 @Data
@@ -14,4 +18,13 @@ public class Location {
     private double latitude;
     private double longitude;
     private String address;
+
+    // GeoJSON copy of latitude/longitude for the 2dsphere index, kept in sync on every save
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint position;
+
+    public Location(String cityName, double latitude, double longitude, String address) {
+        this(cityName, latitude, longitude, address, new GeoJsonPoint(longitude, latitude));
+    }
 }
\ No newline at end of file
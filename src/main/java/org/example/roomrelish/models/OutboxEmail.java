@@ -0,0 +1,37 @@
+package org.example.roomrelish.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An email waiting in the outbox. The id names the event the email is about, e.g.
+ * {@code booking-confirmation:<bookingId>}, so writing the same event twice keeps one email. While an entry is
+ * {@link OutboxStatus#SENDING}, {@link #nextAttemptAt} is the end of the worker's lease: a worker that dies mid-send
+ * leaves the entry to be claimed again once it passes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxEmail {
+    @Id
+    private String id;
+    private String to;
+    private String subject;
+    private String body;
+    private OutboxStatus status;
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+    private Instant sentAt;
+    private String lastError;
+}
@@ -0,0 +1,8 @@
+package org.example.roomrelish.models;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
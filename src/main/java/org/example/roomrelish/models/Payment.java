@@ -9,6 +9,7 @@ import org.jetbrains.annotations.TestOnly;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -35,4 +36,6 @@ public class Payment {
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private LocalDateTime bookingConfirmedDateTime;
+    /** While unpaid, when the booking's rooms are given back and the booking is dropped. */
+    private Instant holdExpiresAt;
 }
\ No newline at end of file
@@ -7,8 +7,6 @@ import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.TestOnly;
 import org.springframework.data.annotation.Id;
 
-import java.util.List;
-
 @TestOnly
 @Data
 @NoArgsConstructor
@@ -21,5 +19,4 @@ public class Room {
     private String roomSpecification;
     private int roomRate;
     private int roomCount;
-    private List<RoomAvailability> roomAvailabilityList;
 }
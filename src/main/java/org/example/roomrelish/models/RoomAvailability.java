@@ -17,4 +17,8 @@ public class RoomAvailability {
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private int roomCount;
+
+    public static RoomAvailability of(Booking booking) {
+        return new RoomAvailability(booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate(), booking.getNumOfRooms());
+    }
 }
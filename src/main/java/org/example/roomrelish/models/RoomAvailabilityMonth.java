@@ -0,0 +1,75 @@
+package org.example.roomrelish.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Availability of one room type for one calendar month: the free count of each day, always {@value #DAYS} entries
+ * with day {@code n} at index {@code n - 1}, and the stays that cover any night of the month. A stay crossing a
+ * month end is kept whole in every month it covers. The id is {@code <roomId>:<yyyy-MM>} so the bucket of a night
+ * can be addressed without a lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "room_availability")
+@CompoundIndex(name = "hotel_month", def = "{'hotelId': 1, 'month': 1}")
+public class RoomAvailabilityMonth {
+    public static final int DAYS = 31;
+
+    @Id
+    private String id;
+    private String hotelId;
+    private String roomId;
+    /** {@code yyyy-MM}, so months sort and compare as strings. */
+    private String month;
+    private int capacity;
+    private int[] free;
+    private List<RoomAvailability> stays;
+
+    public static String id(String roomId, YearMonth month) {
+        return roomId + ":" + month;
+    }
+
+    /** A month with every day free for the room's whole capacity and no stays. */
+    public static RoomAvailabilityMonth empty(String hotelId, String roomId, YearMonth month, int capacity) {
+        int[] free = new int[DAYS];
+        for (int day = 0; day < month.lengthOfMonth(); day++) {
+            free[day] = capacity;
+        }
+        return new RoomAvailabilityMonth(id(roomId, month), hotelId, roomId, month.toString(), capacity, free, new ArrayList<>());
+    }
+
+    /** Nights {@code [fromDay, toDay)} of a month, as indexes into {@link #free}. */
+    public record Span(YearMonth month, int fromDay, int toDay) {
+
+        /** The per-month pieces of the nights {@code [checkIn, checkOut)}, earliest first. */
+        public static List<Span> of(LocalDate checkIn, LocalDate checkOut) {
+            List<Span> spans = new ArrayList<>();
+            LocalDate start = checkIn;
+            while (start.isBefore(checkOut)) {
+                YearMonth month = YearMonth.from(start);
+                LocalDate nextMonth = month.plusMonths(1).atDay(1);
+                LocalDate end = checkOut.isBefore(nextMonth) ? checkOut : nextMonth;
+                spans.add(new Span(month, start.getDayOfMonth() - 1, end.equals(nextMonth) ? month.lengthOfMonth() : end.getDayOfMonth() - 1));
+                start = end;
+            }
+            return spans;
+        }
+    }
+
+    /** One stay's nights {@code [span.fromDay, span.toDay)} in the month {@code monthId}. */
+    public record Hold(String monthId, Span span, RoomAvailability stay) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.Hotel;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Stamps {@link Hotel#getLastModified()} on every save so other instances can poll for the hotels that changed.
+ */
+@Component
+public class HotelModifiedCallback implements BeforeConvertCallback<Hotel> {
+
+    @Override
+    public Hotel onBeforeConvert(Hotel hotel, String collection) {
+        hotel.setLastModified(Instant.now());
+        return hotel;
+    }
+}
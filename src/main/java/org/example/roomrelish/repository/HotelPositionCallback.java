@@ -0,0 +1,23 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link Location#getPosition()} in sync with latitude/longitude so the 2dsphere index sees every saved hotel.
+ */
+@Component
+public class HotelPositionCallback implements BeforeConvertCallback<Hotel> {
+
+    @Override
+    public Hotel onBeforeConvert(Hotel hotel, String collection) {
+        Location location = hotel.getLocation();
+        if (location != null) {
+            location.setPosition(new GeoJsonPoint(location.getLongitude(), location.getLatitude()));
+        }
+        return hotel;
+    }
+}
@@ -6,13 +6,25 @@ import org.jetbrains.annotations.TestOnly;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 
-public interface HotelRepository extends MongoRepository<Hotel, String> {
+public interface HotelRepository extends MongoRepository<Hotel, String>, HotelRepositoryCustom {
     Optional<Hotel> findById(String hotelId);
     List<Hotel> findByLocationCityNameAndRatingGreaterThanEqual(
             String location_cityName, double rating);
     List<Hotel> findByLocationCityName(String cityName);
+    List<Hotel> findByLastModifiedGreaterThan(Instant lastModified);
+
+    @Query(value = "{}", fields = "{'location': 1}")
+    List<Hotel> findAllLocations();
+
+    @Query(value = "{}", fields = "{'hotelName': 1, 'location.cityName': 1, 'numReviews': 1}")
+    List<Hotel> findAllNames();
+
+    @Query(value = "{'location.cityName': ?0}", fields = "{'hotelName': 1, 'rooms': 1}",
+            collation = "{'locale': 'en', 'strength': 2}")
+    List<Hotel> findRoomsByCity(String cityName);
 }
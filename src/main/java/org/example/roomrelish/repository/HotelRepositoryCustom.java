@@ -0,0 +1,35 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.models.RoomAvailability;
+import org.springframework.data.geo.GeoResults;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface HotelRepositoryCustom {
+    List<HotelSummary> findAllSummaries();
+
+    List<HotelSummary> searchHotels(SearchDTO searchDTO);
+
+    List<HotelSummary> searchHotels(SearchDTO searchDTO, Collection<String> hotelIds);
+
+    List<HotelSummary> findSummariesByCities(Collection<String> cityNames);
+
+    GeoResults<HotelSummary> searchHotelsNear(SearchDTO searchDTO);
+
+    long backfillPositions();
+
+    /** Gives hotels saved before documents were versioned version 0; unversioned, their next save would insert them again. */
+    long backfillVersions();
+
+    /** Ids of the hotels whose rooms still embed their booking history, from before availability had its own collection. */
+    List<String> findIdsWithEmbeddedAvailability();
+
+    /** The booking history embedded in the hotel's rooms, by room id. */
+    Map<String, List<RoomAvailability>> findEmbeddedAvailability(String hotelId);
+
+    void removeEmbeddedAvailability(String hotelId);
+}
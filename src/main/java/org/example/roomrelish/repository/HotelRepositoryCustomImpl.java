@@ -0,0 +1,146 @@
+package org.example.roomrelish.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.RoomAvailability;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class HotelRepositoryCustomImpl implements HotelRepositoryCustom {
+
+    private static final String EMBEDDED_AVAILABILITY = "rooms.roomAvailabilityList";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<HotelSummary> findAllSummaries() {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> HotelSearchQueryBuilder.summaryProjection());
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), Hotel.class, HotelSummary.class).getMappedResults();
+    }
+
+    @Override
+    public List<HotelSummary> searchHotels(SearchDTO searchDTO) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(HotelSearchQueryBuilder.criteria(searchDTO)));
+        addAvailabilityStage(stages, searchDTO);
+        stages.add(context -> HotelSearchQueryBuilder.summaryProjection());
+        return mongoTemplate.aggregate(aggregation(stages), Hotel.class, HotelSummary.class).getMappedResults();
+    }
+
+    @Override
+    public List<HotelSummary> searchHotels(SearchDTO searchDTO, Collection<String> hotelIds) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("id").in(hotelIds)));
+        stages.add(Aggregation.match(HotelSearchQueryBuilder.criteria(searchDTO)));
+        addAvailabilityStage(stages, searchDTO);
+        stages.add(context -> HotelSearchQueryBuilder.summaryProjection());
+        return mongoTemplate.aggregate(aggregation(stages), Hotel.class, HotelSummary.class).getMappedResults();
+    }
+
+    @Override
+    public List<HotelSummary> findSummariesByCities(Collection<String> cityNames) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("location.cityName").in(cityNames)));
+        stages.add(context -> HotelSearchQueryBuilder.summaryProjection());
+        return mongoTemplate.aggregate(aggregation(stages), Hotel.class, HotelSummary.class).getMappedResults();
+    }
+
+    @Override
+    public GeoResults<HotelSummary> searchHotelsNear(SearchDTO searchDTO) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> HotelSearchQueryBuilder.geoNearStage(searchDTO));
+        addAvailabilityStage(stages, searchDTO);
+        if (searchDTO.getNearest() != null) {
+            stages.add(Aggregation.limit(searchDTO.getNearest()));
+        }
+        stages.add(context -> HotelSearchQueryBuilder.summaryProjection());
+        List<GeoResult<HotelSummary>> results = mongoTemplate.aggregate(aggregation(stages), Hotel.class, Document.class)
+                .getMappedResults().stream()
+                .map(document -> new GeoResult<>(
+                        mongoTemplate.getConverter().read(HotelSummary.class, document),
+                        new Distance(document.get(HotelSearchQueryBuilder.DISTANCE_FIELD, Number.class).doubleValue() / 1000, Metrics.KILOMETERS)))
+                .toList();
+        return new GeoResults<>(results, Metrics.KILOMETERS);
+    }
+
+    @Override
+    public long backfillPositions() {
+        Query missingPosition = new Query(Criteria.where("location").exists(true).and("location.position").exists(false));
+        AggregationUpdate update = AggregationUpdate.update().set("location.position").toValue(new Document("type", "Point")
+                .append("coordinates", List.of("$location.longitude", "$location.latitude")));
+        return mongoTemplate.updateMulti(missingPosition, update, Hotel.class).getModifiedCount();
+    }
+
+    @Override
+    public long backfillVersions() {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), Hotel.class).getModifiedCount();
+    }
+
+    @Override
+    public List<String> findIdsWithEmbeddedAvailability() {
+        Query embedded = new Query(Criteria.where(EMBEDDED_AVAILABILITY).exists(true));
+        embedded.fields().include("id");
+        return mongoTemplate.query(Hotel.class).as(Document.class).matching(embedded).all().stream()
+                .map(hotel -> hotel.get("_id").toString())
+                .toList();
+    }
+
+    @Override
+    public Map<String, List<RoomAvailability>> findEmbeddedAvailability(String hotelId) {
+        Query hotel = Query.query(Criteria.where("id").is(hotelId));
+        hotel.fields().include("rooms._id", EMBEDDED_AVAILABILITY);
+        Document document = mongoTemplate.query(Hotel.class).as(Document.class).matching(hotel).oneValue();
+        Map<String, List<RoomAvailability>> availability = new HashMap<>();
+        if (document == null) return availability;
+        for (Document room : document.getList("rooms", Document.class, List.of())) {
+            List<RoomAvailability> stays = room.getList("roomAvailabilityList", Document.class, List.of()).stream()
+                    .map(stay -> mongoTemplate.getConverter().read(RoomAvailability.class, stay))
+                    .toList();
+            if (room.get("_id") != null && !stays.isEmpty()) {
+                availability.put(room.get("_id").toString(), stays);
+            }
+        }
+        return availability;
+    }
+
+    @Override
+    public void removeEmbeddedAvailability(String hotelId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(hotelId)),
+                new Update().unset("rooms.$[].roomAvailabilityList").set("lastModified", Instant.now()).inc("version", 1), Hotel.class);
+    }
+
+    private void addAvailabilityStage(List<AggregationOperation> stages, SearchDTO searchDTO) {
+        if (HotelSearchQueryBuilder.hasStay(searchDTO)) {
+            HotelSearchQueryBuilder.availabilityStages(searchDTO.getCheckInDate(), searchDTO.getCheckOutDate(), searchDTO.getCountOfRooms())
+                    .forEach(stage -> stages.add(context -> stage));
+        }
+    }
+
+    private static Aggregation aggregation(List<AggregationOperation> stages) {
+        return Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().collation(HotelSearchQueryBuilder.CASE_INSENSITIVE).build());
+    }
+}
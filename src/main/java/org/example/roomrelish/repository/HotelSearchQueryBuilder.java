@@ -0,0 +1,164 @@
+package org.example.roomrelish.repository;
+
+import org.bson.Document;
+import org.example.roomrelish.constants.ApplicationConstants;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.models.RoomAvailabilityMonth.Span;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a {@link SearchDTO} into the Mongo filters used by the hotel search.
+ * City, rating, price and amenities become one indexed {@link Criteria}; the date filter looks up the rooms'
+ * availability months and keeps hotels with at least one room free on every night of the stay.
+ * Searches run with a case-insensitive collation matching the city index and end in {@link #summaryProjection()}.
+ */
+public final class HotelSearchQueryBuilder {
+
+    public static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    public static final String DISTANCE_FIELD = "distance";
+
+    private static final String AVAILABILITY_FIELD = "availabilityMonths";
+
+    private HotelSearchQueryBuilder() {}
+
+    public static Criteria criteria(SearchDTO searchDTO) {
+        List<Criteria> filters = new ArrayList<>();
+        if (searchDTO.getCityName() != null && !searchDTO.getCityName().isBlank()) {
+            filters.add(Criteria.where("location.cityName").is(searchDTO.getCityName().trim()));
+        }
+        if (searchDTO.getRating() > 0) {
+            filters.add(Criteria.where("rating").gt(searchDTO.getRating()));
+        }
+        if (searchDTO.getPriceRangeMin() > 0 || searchDTO.getPriceRangeMax() > 0) {
+            Criteria price = Criteria.where("priceStartingFrom");
+            if (searchDTO.getPriceRangeMin() > 0) price = price.gte(searchDTO.getPriceRangeMin());
+            if (searchDTO.getPriceRangeMax() > 0) price = price.lte(searchDTO.getPriceRangeMax());
+            filters.add(price);
+        }
+        if (searchDTO.getAmenities() != null && !searchDTO.getAmenities().isEmpty()) {
+            filters.add(Criteria.where("amenities").all(searchDTO.getAmenities()));
+        }
+        return filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+    }
+
+    /**
+     * The filters of {@link #criteria} other than the city, applied in memory to a hotel already fetched for its city.
+     * Amenities are compared ignoring case, like the collation the searches run with.
+     */
+    public static boolean matches(HotelSummary hotel, SearchDTO searchDTO) {
+        if (searchDTO.getRating() > 0 && hotel.getRating() <= searchDTO.getRating()) return false;
+        if (searchDTO.getPriceRangeMin() > 0 && hotel.getPriceStartingFrom() < searchDTO.getPriceRangeMin()) return false;
+        if (searchDTO.getPriceRangeMax() > 0 && hotel.getPriceStartingFrom() > searchDTO.getPriceRangeMax()) return false;
+        if (searchDTO.getAmenities() == null || searchDTO.getAmenities().isEmpty()) return true;
+        if (hotel.getAmenities() == null) return false;
+        Set<String> amenities = hotel.getAmenities().stream().map(amenity -> amenity.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        return searchDTO.getAmenities().stream().allMatch(amenity -> amenities.contains(amenity.toLowerCase(Locale.ROOT)));
+    }
+
+    public static boolean hasStay(SearchDTO searchDTO) {
+        return searchDTO.getCheckInDate() != null && searchDTO.getCheckOutDate() != null;
+    }
+
+    public static boolean hasLocation(SearchDTO searchDTO) {
+        return searchDTO.getLatitude() != null && searchDTO.getLongitude() != null;
+    }
+
+    /** Search radius in km; {@code null} for a k-nearest search without a radius. */
+    public static Double radiusKm(SearchDTO searchDTO) {
+        if (searchDTO.getRadiusKm() != null) return searchDTO.getRadiusKm();
+        return searchDTO.getNearest() != null ? null : ApplicationConstants.DEFAULT_SEARCH_RADIUS_KM;
+    }
+
+    /**
+     * {@code $geoNear} stage on the 2dsphere index of {@code location.position}, applying the other filters as its
+     * query and writing the distance in meters to {@link #DISTANCE_FIELD}. Results come out nearest first.
+     */
+    public static Document geoNearStage(SearchDTO searchDTO) {
+        Document geoNear = new Document("near", new Document("type", "Point")
+                .append("coordinates", List.of(searchDTO.getLongitude(), searchDTO.getLatitude())))
+                .append("distanceField", DISTANCE_FIELD)
+                .append("spherical", true)
+                .append("key", "location.position")
+                .append("query", criteria(searchDTO).getCriteriaObject());
+        Double radiusKm = radiusKm(searchDTO);
+        if (radiusKm != null) {
+            geoNear.append("maxDistance", radiusKm * 1000);
+        }
+        return new Document("$geoNear", geoNear);
+    }
+
+    /**
+     * {@code $project} stage shaping hotels into {@link org.example.roomrelish.dto.HotelSummary}: the list fields,
+     * the first image, and only the id and count of each room. Keeps {@link #DISTANCE_FIELD} for geo searches.
+     */
+    public static Document summaryProjection() {
+        return new Document("$project", new Document("hotelName", 1)
+                .append("hotelType", 1)
+                .append("cityName", "$location.cityName")
+                .append("rating", 1)
+                .append("numReviews", 1)
+                .append("priceStartingFrom", 1)
+                .append("image", new Document("$arrayElemAt", List.of("$images", 0)))
+                .append("amenities", 1)
+                .append("rooms", new Document("$map", new Document("input", ifNull("$rooms"))
+                        .append("as", "room")
+                        .append("in", new Document("_id", "$$room._id").append("roomCount", "$$room.roomCount"))))
+                .append(DISTANCE_FIELD, 1));
+    }
+
+    /**
+     * {@code $lookup} of the availability months the stay covers followed by a {@code $match} keeping hotels with a
+     * room whose free count covers {@code countOfRooms} on every night of {@code [checkIn, checkOut)}. A month
+     * without a bucket has the room's whole count free.
+     */
+    public static List<Document> availabilityStages(LocalDate checkIn, LocalDate checkOut, int countOfRooms) {
+        List<Span> spans = Span.of(checkIn, checkOut);
+        Document lookup = new Document("$lookup", new Document("from", "room_availability")
+                .append("let", new Document("hotelId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$hotelId", "$$hotelId")))
+                                .append("month", new Document("$in", spans.stream().map(span -> span.month().toString()).toList()))),
+                        new Document("$project", new Document("roomId", 1).append("month", 1).append("free", 1))))
+                .append("as", AVAILABILITY_FIELD));
+
+        List<Document> freePerMonth = new ArrayList<>();
+        for (Span span : spans) {
+            Document bucket = new Document("$filter", new Document("input", "$" + AVAILABILITY_FIELD)
+                    .append("as", "month")
+                    .append("cond", and(
+                            new Document("$eq", List.of("$$month.roomId", new Document("$toString", "$$room._id"))),
+                            new Document("$eq", List.of("$$month.month", span.month().toString())))));
+            Document leastFree = new Document("$map", new Document("input", bucket)
+                    .append("as", "month")
+                    .append("in", new Document("$min", new Document("$slice",
+                            List.of("$$month.free", span.fromDay(), span.toDay() - span.fromDay())))));
+            freePerMonth.add(new Document("$ifNull", List.of(
+                    new Document("$arrayElemAt", List.of(leastFree, 0)), "$$room.roomCount")));
+        }
+
+        Document anyRoomFree = new Document("$in", List.of(true, new Document("$map",
+                new Document("input", ifNull("$rooms"))
+                        .append("as", "room")
+                        .append("in", new Document("$gte", List.of(new Document("$min", freePerMonth), countOfRooms))))));
+
+        return List.of(lookup, new Document("$match", new Document("$expr", anyRoomFree)));
+    }
+
+    private static Document ifNull(String field) {
+        return new Document("$ifNull", List.of(field, List.of()));
+    }
+
+    private static Document and(Document... conditions) {
+        return new Document("$and", List.of(conditions));
+    }
+}
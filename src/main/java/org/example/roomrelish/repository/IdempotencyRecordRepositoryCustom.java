@@ -0,0 +1,14 @@
+package org.example.roomrelish.repository;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepositoryCustom {
+    /**
+     * Marks the key in progress for this caller: creates the record, or takes over one left in progress since before
+     * {@code staleBefore} by a caller that never finished. Returns false when the key is completed or another caller
+     * is still working on it.
+     */
+    boolean claim(String id, String fingerprint, Instant now, Instant staleBefore);
+
+    void complete(String id, String response);
+}
@@ -0,0 +1,43 @@
+package org.example.roomrelish.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.IdempotencyRecord;
+import org.example.roomrelish.models.IdempotencyStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+public class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean claim(String id, String fingerprint, Instant now, Instant staleBefore) {
+        // Matches only an abandoned record; for any other existing one the upsert's insert hits the duplicate id
+        Query abandoned = Query.query(Criteria.where("id").is(id)
+                .and("status").is(IdempotencyStatus.IN_PROGRESS)
+                .and("startedAt").lt(staleBefore));
+        Update update = new Update()
+                .set("fingerprint", fingerprint)
+                .set("status", IdempotencyStatus.IN_PROGRESS)
+                .set("startedAt", now);
+        try {
+            mongoTemplate.upsert(abandoned, update, IdempotencyRecord.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String id, String response) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(id)), new Update()
+                .set("status", IdempotencyStatus.COMPLETED)
+                .set("response", response), IdempotencyRecord.class);
+    }
+}
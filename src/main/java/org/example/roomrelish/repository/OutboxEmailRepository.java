@@ -0,0 +1,9 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.OutboxEmail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEmailRepository extends MongoRepository<OutboxEmail, String>, OutboxEmailRepositoryCustom {
+}
@@ -0,0 +1,25 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.OutboxEmail;
+import org.example.roomrelish.models.OutboxStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface OutboxEmailRepositoryCustom {
+    /** Stores the email unless an entry with its id exists; returns whether it was stored. */
+    boolean insertIfAbsent(OutboxEmail email);
+
+    /**
+     * Takes the oldest due entry, pending or with an expired lease, marks it {@link OutboxStatus#SENDING} for
+     * {@code lease} and counts the attempt, in one update so two workers never claim the same entry.
+     */
+    Optional<OutboxEmail> claimNext(Instant now, Duration lease);
+
+    /** Marks a claimed entry sent, unless another worker has claimed it again since {@code attempt}. */
+    void markSent(String id, int attempt, Instant sentAt);
+
+    /** Puts a claimed entry back as {@code status} with the error, unless another worker has claimed it again since. */
+    void markFailed(String id, int attempt, OutboxStatus status, Instant nextAttemptAt, String error);
+}
@@ -0,0 +1,68 @@
+package org.example.roomrelish.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.OutboxEmail;
+import org.example.roomrelish.models.OutboxStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class OutboxEmailRepositoryCustomImpl implements OutboxEmailRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean insertIfAbsent(OutboxEmail email) {
+        Update update = new Update()
+                .setOnInsert("to", email.getTo())
+                .setOnInsert("subject", email.getSubject())
+                .setOnInsert("body", email.getBody())
+                .setOnInsert("status", email.getStatus())
+                .setOnInsert("attempts", email.getAttempts())
+                .setOnInsert("createdAt", email.getCreatedAt())
+                .setOnInsert("nextAttemptAt", email.getNextAttemptAt());
+        return mongoTemplate.upsert(Query.query(Criteria.where("id").is(email.getId())), update, OutboxEmail.class)
+                .getUpsertedId() != null;
+    }
+
+    @Override
+    public Optional<OutboxEmail> claimNext(Instant now, Duration lease) {
+        Query due = Query.query(Criteria.where("status").in(List.of(OutboxStatus.PENDING, OutboxStatus.SENDING))
+                        .and("nextAttemptAt").lte(now))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", OutboxStatus.SENDING)
+                .set("nextAttemptAt", now.plus(lease))
+                .inc("attempts", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), OutboxEmail.class));
+    }
+
+    @Override
+    public void markSent(String id, int attempt, Instant sentAt) {
+        mongoTemplate.updateFirst(Query.query(claimed(id, attempt)), new Update()
+                .set("status", OutboxStatus.SENT)
+                .set("sentAt", sentAt)
+                .unset("lastError"), OutboxEmail.class);
+    }
+
+    @Override
+    public void markFailed(String id, int attempt, OutboxStatus status, Instant nextAttemptAt, String error) {
+        mongoTemplate.updateFirst(Query.query(claimed(id, attempt)), new Update()
+                .set("status", status)
+                .set("nextAttemptAt", nextAttemptAt)
+                .set("lastError", error), OutboxEmail.class);
+    }
+
+    private static Criteria claimed(String id, int attempt) {
+        return Criteria.where("id").is(id).and("status").is(OutboxStatus.SENDING).and("attempts").is(attempt);
+    }
+}
@@ -3,14 +3,16 @@ package org.example.roomrelish.repository;
 import org.example.roomrelish.models.Payment;
 import org.jetbrains.annotations.TestOnly;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 @Repository
-public interface PaymentRepository extends CrudRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
     List<Payment> findAllByUserId(String userId);
 
     Optional<Payment> findByBookingId(String bookingId);
+
+    Stream<Payment> streamByPaymentStatusFalse();
 }
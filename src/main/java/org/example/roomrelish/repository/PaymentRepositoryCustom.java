@@ -0,0 +1,16 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.Payment;
+
+import java.util.Optional;
+
+public interface PaymentRepositoryCustom {
+    /** Deletes the booking's payment if it is still unpaid, in one operation, and returns what was deleted. */
+    Optional<Payment> removeUnpaidByBookingId(String bookingId);
+
+    /**
+     * Stores the payment as paid with its confirmation time, only while the stored payment is still unpaid, in one
+     * operation; returns whether it was. Races {@link #removeUnpaidByBookingId} safely: exactly one of them applies.
+     */
+    boolean markPaid(Payment payment);
+}
@@ -0,0 +1,32 @@
+package org.example.roomrelish.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.Payment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Payment> removeUnpaidByBookingId(String bookingId) {
+        Query unpaid = Query.query(Criteria.where("bookingId").is(bookingId).and("paymentStatus").is(false));
+        return Optional.ofNullable(mongoTemplate.findAndRemove(unpaid, Payment.class));
+    }
+
+    @Override
+    public boolean markPaid(Payment payment) {
+        Query unpaid = Query.query(Criteria.where("id").is(payment.getId()).and("paymentStatus").is(false));
+        Update paid = new Update()
+                .set("paymentStatus", true)
+                .set("bookingConfirmedDateTime", payment.getBookingConfirmedDateTime())
+                .unset("holdExpiresAt");
+        return mongoTemplate.updateFirst(unpaid, paid, Payment.class).getModifiedCount() > 0;
+    }
+}
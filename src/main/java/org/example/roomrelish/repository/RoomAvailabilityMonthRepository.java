@@ -0,0 +1,16 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface RoomAvailabilityMonthRepository extends MongoRepository<RoomAvailabilityMonth, String>, RoomAvailabilityMonthRepositoryCustom {
+    List<RoomAvailabilityMonth> findByHotelIdInAndMonthIn(Collection<String> hotelIds, Collection<String> months);
+
+    Stream<RoomAvailabilityMonth> streamByMonthGreaterThanEqual(String month);
+
+    void deleteByHotelId(String hotelId);
+}
@@ -0,0 +1,37 @@
+package org.example.roomrelish.repository;
+
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+
+import java.util.List;
+
+public interface RoomAvailabilityMonthRepositoryCustom {
+    /** Inserts the months that do not exist yet; existing months are left untouched. */
+    void createMissing(List<RoomAvailabilityMonth> months);
+
+    /**
+     * Takes the stay's rooms off the free count of days {@code [fromDay, toDay)} and records the stay, in one update
+     * that only applies while the booking is not in the month and, when {@code checkFree}, every day has them free.
+     */
+    boolean hold(String monthId, int fromDay, int toDay, RoomAvailability stay, boolean checkFree);
+
+    /**
+     * Applies the holds grouped by month, in one bulk write with a single update per month. A month's update takes
+     * the summed rooms of its holds off each day and records all their stays, and only applies while none of the
+     * bookings is in the month and every day has the sum free. Returns whether every month's update applied; when
+     * not, each month was held whole or left untouched.
+     */
+    boolean holdAll(List<RoomAvailabilityMonth.Hold> holds);
+
+    boolean isHeld(String monthId, String bookingId);
+
+    /**
+     * Adds {@code delta} rooms, which may be negative, to the capacity and to the free count of every day of each
+     * existing month of the room, after its room count changed. Booked rooms stay booked, so shrinking a room below
+     * them leaves negative free counts that no hold can pass.
+     */
+    void resize(String roomId, int delta);
+
+    /** Gives back the rooms of days {@code [fromDay, toDay)} and drops the stay, if the booking is in the month. */
+    boolean release(String monthId, int fromDay, int toDay, String bookingId, int rooms);
+}
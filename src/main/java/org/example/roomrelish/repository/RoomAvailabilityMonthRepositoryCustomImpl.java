@@ -0,0 +1,117 @@
+package org.example.roomrelish.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class RoomAvailabilityMonthRepositoryCustomImpl implements RoomAvailabilityMonthRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void createMissing(List<RoomAvailabilityMonth> months) {
+        if (months.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RoomAvailabilityMonth.class);
+        for (RoomAvailabilityMonth month : months) {
+            bulk.upsert(Query.query(Criteria.where("id").is(month.getId())), new Update()
+                    .setOnInsert("hotelId", month.getHotelId())
+                    .setOnInsert("roomId", month.getRoomId())
+                    .setOnInsert("month", month.getMonth())
+                    .setOnInsert("capacity", month.getCapacity())
+                    .setOnInsert("free", month.getFree())
+                    .setOnInsert("stays", List.of()));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public boolean hold(String monthId, int fromDay, int toDay, RoomAvailability stay, boolean checkFree) {
+        Criteria notHeld = Criteria.where("id").is(monthId).and("stays.bookingId").ne(stay.getBookingId());
+        Update update = new Update().push("stays", stay);
+        for (int day = fromDay; day < toDay; day++) {
+            if (checkFree) {
+                notHeld.and("free." + day).gte(stay.getRoomCount());
+            }
+            update.inc("free." + day, -stay.getRoomCount());
+        }
+        return mongoTemplate.updateFirst(Query.query(notHeld), update, RoomAvailabilityMonth.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean holdAll(List<RoomAvailabilityMonth.Hold> holds) {
+        if (holds.isEmpty()) return true;
+        Map<String, List<RoomAvailabilityMonth.Hold>> byMonth = holds.stream()
+                .collect(Collectors.groupingBy(RoomAvailabilityMonth.Hold::monthId, LinkedHashMap::new, Collectors.toList()));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RoomAvailabilityMonth.class);
+        for (Map.Entry<String, List<RoomAvailabilityMonth.Hold>> month : byMonth.entrySet()) {
+            int[] rooms = new int[RoomAvailabilityMonth.DAYS];
+            List<RoomAvailability> stays = new ArrayList<>(month.getValue().size());
+            for (RoomAvailabilityMonth.Hold hold : month.getValue()) {
+                for (int day = hold.span().fromDay(); day < hold.span().toDay(); day++) {
+                    rooms[day] += hold.stay().getRoomCount();
+                }
+                stays.add(hold.stay());
+            }
+            Criteria notHeld = Criteria.where("id").is(month.getKey())
+                    .and("stays.bookingId").nin(stays.stream().map(RoomAvailability::getBookingId).toList());
+            Update update = new Update().push("stays").each(stays.toArray());
+            for (int day = 0; day < rooms.length; day++) {
+                if (rooms[day] == 0) continue;
+                notHeld.and("free." + day).gte(rooms[day]);
+                update.inc("free." + day, -rooms[day]);
+            }
+            bulk.updateOne(Query.query(notHeld), update);
+        }
+        return bulk.execute().getModifiedCount() == byMonth.size();
+    }
+
+    @Override
+    public boolean isHeld(String monthId, String bookingId) {
+        return mongoTemplate.exists(Query.query(held(monthId, bookingId)), RoomAvailabilityMonth.class);
+    }
+
+    @Override
+    public boolean release(String monthId, int fromDay, int toDay, String bookingId, int rooms) {
+        Update update = new Update().pull("stays", new Document("bookingId", bookingId));
+        for (int day = fromDay; day < toDay; day++) {
+            update.inc("free." + day, rooms);
+        }
+        return mongoTemplate.updateFirst(Query.query(held(monthId, bookingId)), update, RoomAvailabilityMonth.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public void resize(String roomId, int delta) {
+        if (delta == 0) return;
+        Query roomMonths = Query.query(Criteria.where("roomId").is(roomId));
+        roomMonths.fields().include("month");
+        List<RoomAvailabilityMonth> months = mongoTemplate.find(roomMonths, RoomAvailabilityMonth.class);
+        if (months.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RoomAvailabilityMonth.class);
+        for (RoomAvailabilityMonth month : months) {
+            Update update = new Update().inc("capacity", delta);
+            for (int day = 0; day < YearMonth.parse(month.getMonth()).lengthOfMonth(); day++) {
+                update.inc("free." + day, delta);
+            }
+            bulk.updateOne(Query.query(Criteria.where("id").is(month.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    private static Criteria held(String monthId, String bookingId) {
+        return Criteria.where("id").is(monthId).and("stays.bookingId").is(bookingId);
+    }
+}
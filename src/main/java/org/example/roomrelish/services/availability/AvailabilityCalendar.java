@@ -0,0 +1,64 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.dto.CalendarNightDTO;
+import org.example.roomrelish.dto.RoomCalendarDTO;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Free rooms per night over {@code [from, to)} for each room of a hotel. Every booking adds its room count at the
+ * first night it covers in the window and removes it after the last, so one running sum over the window yields
+ * the booked count of every night: O(bookings + nights) per room. Bookings come keyed by room id, as read from the
+ * room's availability months.
+ */
+public final class AvailabilityCalendar {
+
+    private AvailabilityCalendar() {}
+
+    public static List<RoomCalendarDTO> of(List<Room> rooms, Map<String, List<RoomAvailability>> stays, LocalDate from, LocalDate to) {
+        List<RoomCalendarDTO> calendar = new ArrayList<>();
+        if (rooms == null) return calendar;
+        for (Room room : rooms) {
+            int[] freeRooms = freeRooms(room, stays.getOrDefault(room.getId(), List.of()), from, to);
+            List<CalendarNightDTO> nights = new ArrayList<>(freeRooms.length);
+            for (int night = 0; night < freeRooms.length; night++) {
+                nights.add(new CalendarNightDTO(from.plusDays(night), freeRooms[night], room.getRoomRate()));
+            }
+            calendar.add(new RoomCalendarDTO(room.getId(), room.getRoomType(), room.getRoomCount(), nights));
+        }
+        return calendar;
+    }
+
+    /** Free count of the room for each night of {@code [from, to)}, index 0 being {@code from}. */
+    public static int[] freeRooms(Room room, List<RoomAvailability> stays, LocalDate from, LocalDate to) {
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+        int[] bookedDelta = new int[nights + 1];
+        for (RoomAvailability booking : stays) {
+            addBooking(bookedDelta, booking, from, to);
+        }
+        int[] freeRooms = new int[nights];
+        int booked = 0;
+        for (int night = 0; night < nights; night++) {
+            booked += bookedDelta[night];
+            freeRooms[night] = Math.max(0, room.getRoomCount() - booked);
+        }
+        return freeRooms;
+    }
+
+    private static void addBooking(int[] bookedDelta, RoomAvailability booking, LocalDate from, LocalDate to) {
+        if (booking.getCheckInDate() == null) return;
+        long checkIn = booking.getCheckInDate().toEpochDay();
+        long checkOut = RoomOccupancyIndex.lastNightExclusive(booking.getCheckInDate(), booking.getCheckOutDate());
+        long first = Math.max(checkIn, from.toEpochDay());
+        long end = Math.min(checkOut, to.toEpochDay());
+        if (first >= end) return;
+        bookedDelta[(int) (first - from.toEpochDay())] += booking.getRoomCount();
+        bookedDelta[(int) (end - from.toEpochDay())] -= booking.getRoomCount();
+    }
+}
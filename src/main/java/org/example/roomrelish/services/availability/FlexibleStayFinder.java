@@ -0,0 +1,86 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.dto.StayOptionDTO;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheapest stays of a fixed length starting anywhere in a date window. For every room the free count of each night
+ * comes from {@link AvailabilityCalendar#freeRooms}; a sliding-window minimum over it gives the free count of every
+ * possible stay, and a sliding sum of the nightly rate its price, so a room costs O(nights in window).
+ */
+public final class FlexibleStayFinder {
+
+    private FlexibleStayFinder() {}
+
+    /**
+     * The {@code limit} cheapest start dates in {@code [from, to)} for a stay of {@code nights} nights that ends by
+     * {@code to}, each with the cheapest room free for {@code countOfRooms} on every night; earlier dates first on
+     * equal price.
+     */
+    public static List<StayOptionDTO> cheapestStays(List<Room> rooms, Map<String, List<RoomAvailability>> stays,
+                                                    LocalDate from, LocalDate to, int nights, int countOfRooms, int limit) {
+        int windowNights = (int) ChronoUnit.DAYS.between(from, to);
+        int starts = windowNights - nights + 1;
+        if (rooms == null || starts <= 0) return List.of();
+
+        long[] bestPrice = new long[starts];
+        Room[] bestRoom = new Room[starts];
+        for (Room room : rooms) {
+            int[] freeRooms = AvailabilityCalendar.freeRooms(room, stays.getOrDefault(room.getId(), List.of()), from, to);
+            int[] freeForStay = slidingMinimum(freeRooms, nights);
+            long[] nightlyPrice = new long[windowNights];
+            Arrays.fill(nightlyPrice, (long) room.getRoomRate() * countOfRooms);
+            long[] stayPrice = slidingSum(nightlyPrice, nights);
+            for (int start = 0; start < starts; start++) {
+                if (freeForStay[start] >= countOfRooms && (bestRoom[start] == null || stayPrice[start] < bestPrice[start])) {
+                    bestPrice[start] = stayPrice[start];
+                    bestRoom[start] = room;
+                }
+            }
+        }
+
+        List<StayOptionDTO> options = new ArrayList<>();
+        for (int start = 0; start < starts; start++) {
+            if (bestRoom[start] == null) continue;
+            LocalDate checkIn = from.plusDays(start);
+            options.add(new StayOptionDTO(checkIn, checkIn.plusDays(nights), bestRoom[start].getId(), bestRoom[start].getRoomType(), bestPrice[start]));
+        }
+        options.sort(Comparator.comparingLong(StayOptionDTO::getTotalPrice).thenComparing(StayOptionDTO::getCheckInDate));
+        return options.size() > limit ? List.copyOf(options.subList(0, limit)) : options;
+    }
+
+    /** Minimum of every {@code width}-long run of {@code values}, kept with a deque of increasing candidates. */
+    static int[] slidingMinimum(int[] values, int width) {
+        int[] minimum = new int[Math.max(0, values.length - width + 1)];
+        Deque<Integer> candidates = new ArrayDeque<>();
+        for (int i = 0; i < values.length; i++) {
+            while (!candidates.isEmpty() && values[candidates.peekLast()] >= values[i]) candidates.pollLast();
+            candidates.addLast(i);
+            if (candidates.peekFirst() <= i - width) candidates.pollFirst();
+            if (i >= width - 1) minimum[i - width + 1] = values[candidates.peekFirst()];
+        }
+        return minimum;
+    }
+
+    static long[] slidingSum(long[] values, int width) {
+        long[] sum = new long[Math.max(0, values.length - width + 1)];
+        long running = 0;
+        for (int i = 0; i < values.length; i++) {
+            running += values[i];
+            if (i >= width) running -= values[i - width];
+            if (i >= width - 1) sum[i - width + 1] = running;
+        }
+        return sum;
+    }
+}
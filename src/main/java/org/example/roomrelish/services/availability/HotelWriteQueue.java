@@ -0,0 +1,184 @@
+package org.example.roomrelish.services.availability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.services.availability.RoomInventoryService.Reservation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Single writer per hotel for room holds. Callers queue their stay in the hotel's mailbox and wait; one virtual
+ * thread per busy hotel takes up to {@code batchSize} queued stays at a time and holds them with
+ * {@link RoomInventoryService#reserveAll}, one bulk write for the whole batch, then completes each caller. While a
+ * batch is being written the next one fills up, so a burst on one hotel costs a few round trips per batch instead of
+ * several per booking. A drainer exits once its mailbox is empty; mailboxes themselves are kept, one per hotel.
+ */
+@Service
+public class HotelWriteQueue {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final RoomInventoryService roomInventory;
+    private final int batchSize;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final Counter held;
+    private final Counter unavailable;
+    private final Counter failed;
+
+    public HotelWriteQueue(RoomInventoryService roomInventory,
+                           MeterRegistry meterRegistry,
+                           @Value("${inventory.write-queue.batch-size}") int batchSize) {
+        this.roomInventory = roomInventory;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchSizes = DistributionSummary.builder("inventory.write-queue.batch.size").register(meterRegistry);
+        this.held = result(meterRegistry, "held");
+        this.unavailable = result(meterRegistry, "unavailable");
+        this.failed = result(meterRegistry, "failed");
+        Gauge.builder("inventory.write-queue.pending", queued, AtomicInteger::get).register(meterRegistry);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("inventory.write-queue.reservations").tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Holds the stay like {@link RoomInventoryService#reserve}, through the hotel's mailbox; returns once its batch is
+     * written and throws {@link RoomUnavailableException} when a night is sold out.
+     */
+    public void reserve(String hotelId, Room room, RoomAvailability stay) {
+        RoomInventoryService.validateStay(stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+        CompletableFuture<Void> done = submit(hotelId, new Reservation(room, stay));
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Holds the stays of several hotels all or nothing. Every stay is queued before any is waited for, so the stays of
+     * one hotel share batches and different hotels write at the same time. When a stay cannot be held the others are
+     * given back and the first failure is rethrown, a {@link RoomUnavailableException} when a night is sold out.
+     */
+    public void reserveAll(Map<String, List<Reservation>> reservationsByHotel) {
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        reservationsByHotel.values().forEach(reservations -> reservations.forEach(reservation -> {
+            RoomAvailability stay = reservation.stay();
+            RoomInventoryService.validateStay(stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+        }));
+        reservationsByHotel.forEach((hotelId, reservations) -> reservations.forEach(reservation -> done.add(submit(hotelId, reservation))));
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : done) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure == null) return;
+        reservationsByHotel.values().forEach(reservations -> reservations.forEach(reservation -> {
+            RoomAvailability stay = reservation.stay();
+            roomInventory.release(reservation.room().getId(), stay.getBookingId(), stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+        }));
+        throw failure;
+    }
+
+    CompletableFuture<Void> submit(String hotelId, Reservation reservation) {
+        Mailbox mailbox = mailboxes.computeIfAbsent(hotelId, Mailbox::new);
+        Pending pending = new Pending(reservation, new CompletableFuture<>());
+        queued.incrementAndGet();
+        mailbox.queue.add(pending);
+        mailbox.wakeUp();
+        return pending.done();
+    }
+
+    /** Stays queued and not yet written, over all hotels. */
+    public int pending() {
+        return queued.get();
+    }
+
+    private void write(String hotelId, List<Pending> batch) {
+        batchSizes.record(batch.size());
+        Set<String> soldOut;
+        try {
+            soldOut = roomInventory.reserveAll(hotelId, batch.stream().map(Pending::reservation).toList());
+        } catch (RuntimeException e) {
+            logger.warning("Writing " + batch.size() + " holds of hotel " + hotelId + " failed: " + e.getMessage());
+            failed.increment(batch.size());
+            batch.forEach(pending -> pending.done().completeExceptionally(e));
+            return;
+        }
+        for (Pending pending : batch) {
+            if (soldOut.contains(pending.reservation().stay().getBookingId())) {
+                unavailable.increment();
+                pending.done().completeExceptionally(new RoomUnavailableException("No available rooms for the selected dates"));
+            } else {
+                held.increment();
+                pending.done().complete(null);
+            }
+        }
+    }
+
+    private record Pending(Reservation reservation, CompletableFuture<Void> done) {
+    }
+
+    private final class Mailbox {
+        private final String hotelId;
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Mailbox(String hotelId) {
+            this.hotelId = hotelId;
+        }
+
+        /** Starts a drainer unless one is running; it re-checks the queue after stopping, so no stay is left behind. */
+        private void wakeUp() {
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("hotel-writes-" + hotelId).start(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    List<Pending> batch = new ArrayList<>(batchSize);
+                    Pending next;
+                    while ((next = queue.poll()) != null) {
+                        queued.decrementAndGet();
+                        batch.add(next);
+                        if (batch.size() == batchSize) {
+                            write(hotelId, batch);
+                            batch = new ArrayList<>(batchSize);
+                        }
+                    }
+                    if (!batch.isEmpty()) write(hotelId, batch);
+                } finally {
+                    draining.set(false);
+                }
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.roomrelish.services.availability;
+
+/**
+ * Booked-room counts per night kept in the leaves of an iterative max segment tree.
+ * Leaf {@code i} holds the number of rooms booked for the night starting on epoch day {@code origin + i}.
+ * The tree grows (by powers of two) when a booking falls outside the covered range, up to {@value #MAX_SIZE}
+ * nights; a booking that would stretch it further is rejected.
+ */
+final class OccupancyTree {
+
+    private static final int MIN_SIZE = 64;
+    static final int MAX_SIZE = 1 << 13;
+
+    private long origin;
+    private int size;
+    private int[] tree;
+
+    OccupancyTree(long firstNight) {
+        this.origin = firstNight;
+        this.size = MIN_SIZE;
+        this.tree = new int[2 * size];
+    }
+
+    /** Adds {@code delta} booked rooms to every night in {@code [fromNight, toNight)}. */
+    void add(long fromNight, long toNight, int delta) {
+        if (fromNight >= toNight || delta == 0) {
+            return;
+        }
+        ensureCovered(fromNight, toNight);
+        int left = (int) (fromNight - origin);
+        int right = (int) (toNight - origin);
+        for (int i = left; i < right; i++) {
+            tree[size + i] += delta;
+        }
+        int lo = (size + left) >> 1;
+        int hi = (size + right - 1) >> 1;
+        while (lo >= 1) {
+            for (int node = lo; node <= hi; node++) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+            lo >>= 1;
+            hi >>= 1;
+        }
+    }
+
+    /** Highest number of rooms booked on any night in {@code [fromNight, toNight)}. */
+    int max(long fromNight, long toNight) {
+        long from = Math.max(fromNight, origin);
+        long to = Math.min(toNight, origin + size);
+        if (from >= to) {
+            return 0;
+        }
+        int left = (int) (from - origin) + size;
+        int right = (int) (to - origin) + size;
+        int result = 0;
+        while (left < right) {
+            if ((left & 1) == 1) {
+                result = Math.max(result, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = Math.max(result, tree[--right]);
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+        return result;
+    }
+
+    private void ensureCovered(long fromNight, long toNight) {
+        long end = origin + size;
+        if (fromNight >= origin && toNight <= end) {
+            return;
+        }
+        long newEnd = Math.max(end, toNight);
+        long span = newEnd - Math.min(origin, fromNight);
+        if (span > MAX_SIZE) {
+            throw new IllegalArgumentException("Occupancy would span " + span + " nights, more than " + MAX_SIZE);
+        }
+        int newSize = size;
+        while (newSize < span) {
+            newSize <<= 1;
+        }
+        // The added nights go on the side that grew, so stays arriving one night earlier each do not double it again
+        long newOrigin = fromNight < origin ? newEnd - newSize : origin;
+        int[] newTree = new int[2 * newSize];
+        System.arraycopy(tree, size, newTree, newSize + (int) (origin - newOrigin), size);
+        for (int node = newSize - 1; node >= 1; node--) {
+            newTree[node] = Math.max(newTree[2 * node], newTree[2 * node + 1]);
+        }
+        origin = newOrigin;
+        size = newSize;
+        tree = newTree;
+    }
+}
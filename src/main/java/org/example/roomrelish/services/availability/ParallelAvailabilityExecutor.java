@@ -0,0 +1,119 @@
+package org.example.roomrelish.services.availability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs the per-hotel availability check of a search on a dedicated, bounded {@link ForkJoinPool} (never the common
+ * pool). Hotels are split by their room count; searches with fewer rooms than the threshold, or a pool of one
+ * thread, stay on the request thread.
+ */
+@Component
+public class ParallelAvailabilityExecutor {
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    private final Counter sequentialRuns;
+    private final Counter parallelRuns;
+    private final DistributionSummary tasksPerRun;
+
+    public ParallelAvailabilityExecutor(MeterRegistry meterRegistry,
+                                        @Value("${search.availability.parallelism}") int parallelism,
+                                        @Value("${search.availability.parallel-threshold}") int parallelThreshold) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), AvailabilityWorker::new, null, false);
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+        this.sequentialRuns = meterRegistry.counter("search.availability.runs", "mode", "sequential");
+        this.parallelRuns = meterRegistry.counter("search.availability.runs", "mode", "parallel");
+        this.tasksPerRun = DistributionSummary.builder("search.availability.tasks").register(meterRegistry);
+        Gauge.builder("search.availability.pool.parallelism", pool, ForkJoinPool::getParallelism).register(meterRegistry);
+        Gauge.builder("search.availability.pool.active", pool, ForkJoinPool::getActiveThreadCount).register(meterRegistry);
+    }
+
+    /**
+     * Applies {@code action} to every item, in parallel when the items' total {@code cost} reaches the threshold.
+     * Each item is handled by exactly one task, so the action may write to the item without locking.
+     */
+    public <T> void forEach(List<T> items, ToIntFunction<T> cost, Consumer<T> action) {
+        long[] costPrefix = new long[items.size() + 1];
+        for (int i = 0; i < items.size(); i++) {
+            costPrefix[i + 1] = costPrefix[i] + Math.max(0, cost.applyAsInt(items.get(i)));
+        }
+        if (pool.getParallelism() == 1 || costPrefix[items.size()] < parallelThreshold) {
+            sequentialRuns.increment();
+            items.forEach(action);
+            return;
+        }
+        parallelRuns.increment();
+        tasksPerRun.record(pool.invoke(new Slice<>(items, costPrefix, action, 0, items.size())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /** Handles {@code [from, to)} and returns the number of leaf tasks it ran as. */
+    private final class Slice<T> extends RecursiveTask<Integer> {
+        private final List<T> items;
+        private final long[] costPrefix;
+        private final Consumer<T> action;
+        private final int from;
+        private final int to;
+
+        Slice(List<T> items, long[] costPrefix, Consumer<T> action, int from, int to) {
+            this.items = items;
+            this.costPrefix = costPrefix;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from < 2 || costPrefix[to] - costPrefix[from] <= parallelThreshold) {
+                for (int i = from; i < to; i++) {
+                    action.accept(items.get(i));
+                }
+                return 1;
+            }
+            int middle = middleByCost();
+            Slice<T> left = new Slice<>(items, costPrefix, action, from, middle);
+            left.fork();
+            int rightTasks = new Slice<>(items, costPrefix, action, middle, to).compute();
+            return left.join() + rightTasks;
+        }
+
+        /** Split point halving the cost of the slice, keeping at least one item on each side. */
+        private int middleByCost() {
+            long half = costPrefix[from] + (costPrefix[to] - costPrefix[from]) / 2;
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (costPrefix[mid] < half) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    private static final class AvailabilityWorker extends ForkJoinWorkerThread {
+        AvailabilityWorker(ForkJoinPool pool) {
+            super(pool);
+            setName("availability-" + getPoolIndex());
+        }
+    }
+}
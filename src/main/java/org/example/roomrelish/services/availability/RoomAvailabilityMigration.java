@@ -0,0 +1,75 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.HotelRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Moves the booking history still embedded in hotel documents into the availability months, one hotel at a time:
+ * every stay is recorded in the months it covers, then the hotel's embedded lists are removed. Runs at startup,
+ * before the indexes are built from the months. Recording a stay twice is a no-op, so a run that stopped half way is
+ * finished by the next start.
+ */
+@Component
+public class RoomAvailabilityMigration implements ApplicationRunner {
+
+    private final HotelRepository hotelRepository;
+    private final RoomInventoryService roomInventory;
+    private final boolean enabled;
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    public RoomAvailabilityMigration(HotelRepository hotelRepository, RoomInventoryService roomInventory,
+                                     @Value("${availability.migrate-embedded}") boolean enabled) {
+        this.hotelRepository = hotelRepository;
+        this.roomInventory = roomInventory;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /** Returns the number of hotels migrated. */
+    public int migrate() {
+        List<String> hotelIds = hotelRepository.findIdsWithEmbeddedAvailability();
+        int stays = 0;
+        for (String hotelId : hotelIds) {
+            Hotel hotel = hotelRepository.findById(hotelId).orElse(null);
+            if (hotel == null) continue;
+            Map<String, List<RoomAvailability>> embedded = hotelRepository.findEmbeddedAvailability(hotelId);
+            for (Room room : hotel.getRooms() == null ? List.<Room>of() : hotel.getRooms()) {
+                List<RoomAvailability> roomStays = embedded.getOrDefault(room.getId(), List.of());
+                for (int i = 0; i < roomStays.size(); i++) {
+                    RoomAvailability stay = roomStays.get(i);
+                    if (stay.getCheckInDate() == null || stay.getRoomCount() < 1) continue;
+                    if (stay.getBookingId() == null) {
+                        stay.setBookingId("migrated-" + room.getId() + "-" + i);
+                    }
+                    if (stay.getCheckOutDate() == null || !stay.getCheckOutDate().isAfter(stay.getCheckInDate())) {
+                        stay.setCheckOutDate(stay.getCheckInDate().plusDays(1));
+                    }
+                    roomInventory.importStay(hotelId, room, stay);
+                    stays++;
+                }
+            }
+            hotelRepository.removeEmbeddedAvailability(hotelId);
+        }
+        if (!hotelIds.isEmpty()) {
+            logger.info("Moved " + stays + " embedded stays of " + hotelIds.size() + " hotels to the availability months");
+        }
+        return hotelIds.size();
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.roomrelish.services.availability;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.exception.InvalidBookingException;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.models.RoomAvailabilityMonth.Hold;
+import org.example.roomrelish.models.RoomAvailabilityMonth.Span;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Books rooms against the monthly availability buckets in {@code room_availability}, kept outside the hotel document
+ * so hotel reads stay the same size however many bookings exist. Holding a stay is one conditional update per month
+ * it covers, applied only where every night still has the rooms free; when a month cannot be held the months already
+ * taken are given back, so a stay is held entirely or not at all. Holds are keyed by booking id: retrying one never
+ * holds rooms twice. {@link #reserveAll} holds a batch of one hotel's stays with one update per month rather than
+ * per stay, falling back to holding them one by one when the batch as a whole does not fit.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoomInventoryService {
+
+    private final RoomAvailabilityMonthRepository monthRepository;
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    /** Holds the stay's rooms of the room on every night of the stay for its booking. */
+    public void reserve(String hotelId, Room room, RoomAvailability stay) {
+        validateStay(stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+        List<Span> spans = Span.of(stay.getCheckInDate(), stay.getCheckOutDate());
+        createMissingMonths(hotelId, room, spans);
+        for (Span span : spans) {
+            String monthId = RoomAvailabilityMonth.id(room.getId(), span.month());
+            if (!monthRepository.hold(monthId, span.fromDay(), span.toDay(), stay, true)
+                    && !monthRepository.isHeld(monthId, stay.getBookingId())) {
+                release(room.getId(), stay.getBookingId(), stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+                logger.info("Room " + room.getId() + " sold out in " + span.month() + " for booking " + stay.getBookingId());
+                throw new RoomUnavailableException("No available rooms for the selected dates");
+            }
+        }
+    }
+
+    /**
+     * Holds a batch of stays of the hotel, like {@link #reserve} on each in order, and returns the booking ids that
+     * could not be held because a night is sold out. Stays whose booking already holds every month are left as is;
+     * the others are held together in one bulk write with one update per month. When that does not apply in full,
+     * e.g. because the batch needs more rooms than are left, the stays are held one at a time so that earlier ones
+     * still get the rooms there are.
+     */
+    public Set<String> reserveAll(String hotelId, List<Reservation> reservations) {
+        List<String> monthIds = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            RoomAvailability stay = reservation.stay();
+            validateStay(stay.getCheckInDate(), stay.getCheckOutDate(), stay.getRoomCount());
+            for (Span span : Span.of(stay.getCheckInDate(), stay.getCheckOutDate())) {
+                monthIds.add(RoomAvailabilityMonth.id(reservation.room().getId(), span.month()));
+            }
+        }
+        Map<String, RoomAvailabilityMonth> months = monthRepository.findAllById(monthIds.stream().distinct().toList())
+                .stream().collect(Collectors.toMap(RoomAvailabilityMonth::getId, Function.identity()));
+
+        List<Reservation> pending = new ArrayList<>();
+        List<RoomAvailabilityMonth> missing = new ArrayList<>();
+        List<Hold> holds = new ArrayList<>();
+        Set<String> bookingIds = new HashSet<>();
+        boolean distinct = true;
+        for (Reservation reservation : reservations) {
+            Room room = reservation.room();
+            RoomAvailability stay = reservation.stay();
+            List<Hold> stayHolds = new ArrayList<>();
+            boolean held = true;
+            for (Span span : Span.of(stay.getCheckInDate(), stay.getCheckOutDate())) {
+                String monthId = RoomAvailabilityMonth.id(room.getId(), span.month());
+                RoomAvailabilityMonth month = months.get(monthId);
+                if (month == null) {
+                    month = RoomAvailabilityMonth.empty(hotelId, room.getId(), span.month(), room.getRoomCount());
+                    months.put(monthId, month);
+                    missing.add(month);
+                }
+                held &= contains(month, stay.getBookingId());
+                stayHolds.add(new Hold(monthId, span, stay));
+            }
+            if (held) continue;
+            pending.add(reservation);
+            holds.addAll(stayHolds);
+            distinct &= bookingIds.add(stay.getBookingId());
+        }
+        if (pending.isEmpty()) return Set.of();
+        monthRepository.createMissing(missing);
+        if (distinct && monthRepository.holdAll(holds)) return Set.of();
+
+        Set<String> unavailable = new LinkedHashSet<>();
+        for (Reservation reservation : pending) {
+            try {
+                reserve(hotelId, reservation.room(), reservation.stay());
+            } catch (RoomUnavailableException e) {
+                unavailable.add(reservation.stay().getBookingId());
+            }
+        }
+        return unavailable;
+    }
+
+    /**
+     * Records a stay that is already booked, such as one carried over from the hotel document, without checking the
+     * free counts: a past overbooking must not be dropped. Recording it again is a no-op.
+     */
+    public void importStay(String hotelId, Room room, RoomAvailability stay) {
+        List<Span> spans = Span.of(stay.getCheckInDate(), stay.getCheckOutDate());
+        createMissingMonths(hotelId, room, spans);
+        for (Span span : spans) {
+            monthRepository.hold(RoomAvailabilityMonth.id(room.getId(), span.month()), span.fromDay(), span.toDay(), stay, false);
+        }
+    }
+
+    /** Gives back the rooms the booking holds; a booking holding nothing, or without a stay, is left as is. */
+    public void release(String roomId, String bookingId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut)) return;
+        for (Span span : Span.of(checkIn, checkOut)) {
+            monthRepository.release(RoomAvailabilityMonth.id(roomId, span.month()), span.fromDay(), span.toDay(), bookingId, rooms);
+        }
+    }
+
+    /** Rooms free on every night of the stay; months without a bucket have the whole room count free. */
+    public int freeRooms(Room room, LocalDate checkIn, LocalDate checkOut) {
+        validateStay(checkIn, checkOut, 1);
+        List<Span> spans = Span.of(checkIn, checkOut);
+        Map<String, RoomAvailabilityMonth> months = monthRepository.findAllById(
+                        spans.stream().map(span -> RoomAvailabilityMonth.id(room.getId(), span.month())).toList())
+                .stream().collect(Collectors.toMap(RoomAvailabilityMonth::getId, Function.identity()));
+        int free = room.getRoomCount();
+        for (Span span : spans) {
+            RoomAvailabilityMonth month = months.get(RoomAvailabilityMonth.id(room.getId(), span.month()));
+            if (month == null) continue;
+            for (int day = span.fromDay(); day < span.toDay(); day++) {
+                free = Math.min(free, month.getFree()[day]);
+            }
+        }
+        return Math.max(0, free);
+    }
+
+    /** Stays of the hotels' rooms covering any night of {@code [from, to)}, by room id; each stay appears once. */
+    public Map<String, List<RoomAvailability>> staysByRoom(Collection<String> hotelIds, LocalDate from, LocalDate to) {
+        List<String> months = Span.of(from, to).stream().map(span -> span.month().toString()).toList();
+        Map<String, Map<String, RoomAvailability>> stays = new HashMap<>();
+        for (RoomAvailabilityMonth month : monthRepository.findByHotelIdInAndMonthIn(hotelIds, months)) {
+            if (month.getStays() == null) continue;
+            Map<String, RoomAvailability> roomStays = stays.computeIfAbsent(month.getRoomId(), roomId -> new LinkedHashMap<>());
+            month.getStays().forEach(stay -> roomStays.putIfAbsent(stay.getBookingId(), stay));
+        }
+        Map<String, List<RoomAvailability>> byRoom = new HashMap<>();
+        stays.forEach((roomId, roomStays) -> byRoom.put(roomId, List.copyOf(roomStays.values())));
+        return byRoom;
+    }
+
+    /**
+     * Carries a change of the room's count into its existing months, so their capacity and free counts follow the
+     * hotel; months created later start from the new count.
+     */
+    public void changeRoomCount(String roomId, int oldCount, int newCount) {
+        monthRepository.resize(roomId, newCount - oldCount);
+    }
+
+    public void removeHotel(String hotelId) {
+        monthRepository.deleteByHotelId(hotelId);
+    }
+
+    private void createMissingMonths(String hotelId, Room room, List<Span> spans) {
+        List<RoomAvailabilityMonth> months = new ArrayList<>();
+        for (Span span : spans) {
+            months.add(RoomAvailabilityMonth.empty(hotelId, room.getId(), span.month(), room.getRoomCount()));
+        }
+        monthRepository.createMissing(months);
+    }
+
+    private static boolean contains(RoomAvailabilityMonth month, String bookingId) {
+        return month.getStays() != null && month.getStays().stream().anyMatch(stay -> bookingId.equals(stay.getBookingId()));
+    }
+
+    static void validateStay(LocalDate checkIn, LocalDate checkOut, int rooms) {
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut) || rooms < 1) {
+            throw new InvalidBookingException("A reservation needs check-in before check-out and at least one room");
+        }
+    }
+
+    /** A stay to hold in one of the hotel's rooms. */
+    public record Reservation(Room room, RoomAvailability stay) {
+    }
+}
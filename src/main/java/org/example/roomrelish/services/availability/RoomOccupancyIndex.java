@@ -0,0 +1,115 @@
+package org.example.roomrelish.services.availability;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of booked rooms per night for every room.
+ * A check-in/check-out query costs O(log days) instead of a scan over the room's whole booking history.
+ * Nights are half-open: a stay from the 10th to the 12th occupies the nights of the 10th and the 11th.
+ * Built from the availability buckets of the current and later months; earlier nights cannot be booked any more.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomOccupancyIndex {
+
+    private final RoomAvailabilityMonthRepository monthRepository;
+    private final Map<String, RoomOccupancy> rooms = new ConcurrentHashMap<>();
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try (Stream<RoomAvailabilityMonth> months = monthRepository.streamByMonthGreaterThanEqual(YearMonth.now().toString())) {
+            months.filter(month -> month.getStays() != null)
+                    .forEach(month -> month.getStays().forEach(stay -> rebuildStay(month.getRoomId(), stay)));
+        }
+        logger.info("Room occupancy index built for " + rooms.size() + " rooms");
+    }
+
+    private void rebuildStay(String roomId, RoomAvailability stay) {
+        try {
+            book(roomId, stay);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Skipped stay " + stay.getBookingId() + " of room " + roomId + ": " + e.getMessage());
+        }
+    }
+
+    public void book(String roomId, RoomAvailability availability) {
+        rooms.computeIfAbsent(roomId, id -> new RoomOccupancy()).book(availability);
+    }
+
+    public void release(String roomId, String bookingId) {
+        RoomOccupancy occupancy = rooms.get(roomId);
+        if (occupancy != null) {
+            occupancy.release(bookingId);
+        }
+    }
+
+    public void removeHotel(Hotel hotel) {
+        if (hotel.getRooms() != null) {
+            hotel.getRooms().forEach(room -> rooms.remove(room.getId()));
+        }
+    }
+
+    /** Highest number of rooms booked on any night of the stay; zero for rooms that were never booked. */
+    public int maxOccupancy(String roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        RoomOccupancy occupancy = rooms.get(roomId);
+        if (occupancy == null) {
+            return 0;
+        }
+        return occupancy.max(checkInDate.toEpochDay(), lastNightExclusive(checkInDate, checkOutDate));
+    }
+
+    static long lastNightExclusive(LocalDate checkInDate, LocalDate checkOutDate) {
+        long checkIn = checkInDate.toEpochDay();
+        return checkOutDate == null ? checkIn + 1 : Math.max(checkIn + 1, checkOutDate.toEpochDay());
+    }
+
+    private static final class RoomOccupancy {
+        private final Map<String, RoomAvailability> stays = new HashMap<>();
+        private OccupancyTree tree;
+
+        synchronized void book(RoomAvailability availability) {
+            if (availability.getCheckInDate() == null) return;
+            String key = availability.getBookingId() != null ? availability.getBookingId() : UUID.randomUUID().toString();
+            if (stays.containsKey(key)) return;
+            apply(availability, availability.getRoomCount());
+            stays.put(key, availability);
+        }
+
+        synchronized void release(String bookingId) {
+            RoomAvailability availability = stays.remove(bookingId);
+            if (availability != null) {
+                apply(availability, -availability.getRoomCount());
+            }
+        }
+
+        synchronized int max(long fromNight, long toNight) {
+            return tree == null ? 0 : tree.max(fromNight, toNight);
+        }
+
+        private void apply(RoomAvailability availability, int delta) {
+            long from = availability.getCheckInDate().toEpochDay();
+            if (tree == null) {
+                tree = new OccupancyTree(from);
+            }
+            tree.add(from, lastNightExclusive(availability.getCheckInDate(), availability.getCheckOutDate()), delta);
+        }
+    }
+}
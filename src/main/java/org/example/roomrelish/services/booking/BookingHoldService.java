@@ -0,0 +1,211 @@
+package org.example.roomrelish.services.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.concurrent.TimingWheel;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Time-boxed holds of unpaid bookings. A new booking takes its rooms out of the inventory straight away and keeps
+ * them until {@code booking.hold.ttl} has passed; if it is still unpaid by then its payment and booking are deleted
+ * and the rooms given back. Deadlines wait in a {@link TimingWheel} that is filled again from the unpaid payments on
+ * startup, so holds placed before a restart still expire.
+ */
+@Service
+public class BookingHoldService {
+
+    /** How long a batch whose expiry failed, e.g. while Mongo was unreachable, waits before it is tried again. */
+    static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final HotelRepository hotelRepository;
+    private final RoomInventoryService roomInventory;
+    private final HotelWriteQueue hotelWrites;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final SearchResultCache searchResultCache;
+    private final HotelCatalog hotelCatalog;
+    private final Duration ttl;
+    private final int batchSize;
+    private final TimingWheel<String> deadlines;
+    private final Counter placed;
+    private final Counter confirmed;
+    private final Counter released;
+    private final Counter expired;
+
+    public BookingHoldService(PaymentRepository paymentRepository,
+                              BookingRepository bookingRepository,
+                              HotelRepository hotelRepository,
+                              RoomInventoryService roomInventory,
+                              HotelWriteQueue hotelWrites,
+                              RoomOccupancyIndex occupancyIndex,
+                              SearchResultCache searchResultCache,
+                              HotelCatalog hotelCatalog,
+                              MeterRegistry meterRegistry,
+                              @Value("${booking.hold.ttl}") Duration ttl,
+                              @Value("${booking.hold.tick-ms}") long tickMillis,
+                              @Value("${booking.hold.wheel-size}") int wheelSize,
+                              @Value("${booking.hold.expiry-batch-size}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.hotelRepository = hotelRepository;
+        this.roomInventory = roomInventory;
+        this.hotelWrites = hotelWrites;
+        this.occupancyIndex = occupancyIndex;
+        this.searchResultCache = searchResultCache;
+        this.hotelCatalog = hotelCatalog;
+        this.ttl = ttl;
+        this.batchSize = Math.max(1, batchSize);
+        this.deadlines = new TimingWheel<>(Duration.ofMillis(tickMillis), wheelSize, Instant.now());
+        this.placed = event(meterRegistry, "placed");
+        this.confirmed = event(meterRegistry, "confirmed");
+        this.released = event(meterRegistry, "released");
+        this.expired = event(meterRegistry, "expired");
+        Gauge.builder("booking.holds.pending", deadlines, TimingWheel::size).register(meterRegistry);
+    }
+
+    private static Counter event(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("booking.holds").tag("event", event).register(meterRegistry);
+    }
+
+    /** Deadline for a hold placed now, to be stored on the booking's payment before the hold is placed. */
+    public Instant newExpiry() {
+        return Instant.now().plus(ttl);
+    }
+
+    /**
+     * Takes the booking's rooms out of the inventory until the payment's {@code holdExpiresAt}. When that fails, with
+     * a {@link RoomUnavailableException} because a night is sold out or part way through the write, whatever months
+     * the booking took are given back, the booking and payment are deleted again and the failure is rethrown.
+     */
+    public void hold(Hotel hotel, Room room, Booking booking, Payment payment) {
+        RoomAvailability stay = RoomAvailability.of(booking);
+        try {
+            hotelWrites.reserve(hotel.getId(), room, stay);
+        } catch (RuntimeException e) {
+            discard(room, booking, payment, e);
+            throw e;
+        }
+        occupancyIndex.book(room.getId(), stay);
+        searchResultCache.invalidate(hotel);
+        deadlines.schedule(booking.getId(), payment.getHoldExpiresAt());
+        placed.increment();
+    }
+
+    private void discard(Room room, Booking booking, Payment payment, RuntimeException failure) {
+        try {
+            roomInventory.release(room.getId(), booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate(), booking.getNumOfRooms());
+        } catch (RuntimeException releaseFailure) {
+            // Keeps the booking for the expiry, which gives its rooms back once the inventory can be written again
+            failure.addSuppressed(releaseFailure);
+            deadlines.schedule(booking.getId(), payment.getHoldExpiresAt());
+            return;
+        }
+        paymentRepository.delete(payment);
+        bookingRepository.delete(booking);
+    }
+
+    /** The booking was paid: its rooms stay taken. */
+    public void confirmed(String bookingId) {
+        if (deadlines.cancel(bookingId)) {
+            confirmed.increment();
+        }
+    }
+
+    /** Gives back the rooms of an unpaid booking that is being cancelled. */
+    public void release(Payment payment) {
+        deadlines.cancel(payment.getBookingId());
+        releaseRooms(payment);
+        invalidate(payment.getHotelId());
+        released.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.tick-ms}")
+    public void expireDue() {
+        List<String> due = deadlines.advance(Instant.now());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<String> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expire(batch);
+            } catch (RuntimeException e) {
+                logger.warning("Expiring " + batch.size() + " holds failed, retrying in " + RETRY_DELAY + ": " + e.getMessage());
+                Instant retryAt = Instant.now().plus(RETRY_DELAY);
+                batch.forEach(bookingId -> deadlines.schedule(bookingId, retryAt));
+            }
+        }
+    }
+
+    /** Deletes the bookings of the batch that are still unpaid, giving their rooms back; paid ones are left alone. */
+    void expire(List<String> bookingIds) {
+        List<String> expiredBookings = new ArrayList<>(bookingIds.size());
+        Set<String> hotelIds = new HashSet<>();
+        for (String bookingId : bookingIds) {
+            paymentRepository.removeUnpaidByBookingId(bookingId).ifPresent(payment -> {
+                releaseRooms(payment);
+                expiredBookings.add(bookingId);
+                hotelIds.add(payment.getHotelId());
+            });
+        }
+        if (expiredBookings.isEmpty()) return;
+        bookingRepository.deleteAllById(expiredBookings);
+        hotelIds.forEach(this::invalidate);
+        expired.increment(expiredBookings.size());
+        logger.info("Expired " + expiredBookings.size() + " unpaid bookings");
+    }
+
+    /**
+     * Schedules the holds of every unpaid payment again. Payments older than holds, which never had a deadline, get
+     * a full hold from now.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Instant unset = newExpiry();
+        try (Stream<Payment> unpaid = paymentRepository.streamByPaymentStatusFalse()) {
+            unpaid.forEach(payment -> deadlines.schedule(payment.getBookingId(),
+                    payment.getHoldExpiresAt() != null ? payment.getHoldExpiresAt() : unset));
+        }
+        logger.info("Recovered " + deadlines.size() + " pending booking holds");
+    }
+
+    private void releaseRooms(Payment payment) {
+        roomInventory.release(payment.getRoomId(), payment.getBookingId(),
+                payment.getCheckInDate(), payment.getCheckOutDate(), payment.getNumOfRooms());
+        occupancyIndex.release(payment.getRoomId(), payment.getBookingId());
+    }
+
+    private void invalidate(String hotelId) {
+        hotelCatalog.findById(hotelId)
+                .or(() -> hotelRepository.findById(hotelId))
+                .ifPresent(searchResultCache::invalidate);
+    }
+}
@@ -3,6 +3,7 @@ package org.example.roomrelish.services.booking;
 import lombok.RequiredArgsConstructor;
 import org.example.roomrelish.constants.ApplicationConstants;
 import org.example.roomrelish.dto.BookingDetailsDTO;
+import org.example.roomrelish.exception.InvalidBookingException;
 import org.example.roomrelish.exception.ResourceNotFoundException;
 import org.example.roomrelish.exception.RoomUnavailableException;
 import org.example.roomrelish.models.*;
@@ -10,11 +11,13 @@ import org.example.roomrelish.repository.BookingRepository;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
 import org.example.roomrelish.repository.PaymentRepository;
-import org.example.roomrelish.services.email.EmailService;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.HotelCatalog;
 import org.springframework.stereotype.Service;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -29,13 +32,17 @@ public class BookingService implements BookingInterface {
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
     private final CustomerRepository customerRepository;
-    private final EmailService emailService;
+    private final EmailOutbox emailOutbox;
+    private final EmailTemplates emailTemplates;
+    private final HotelCatalog hotelCatalog;
+    private final RoomInventoryService roomInventory;
+    private final BookingHoldService bookingHolds;
 
     public Booking bookRoom(BookingDetailsDTO bookingDetailsDTO)  {
-        if (bookingDetailsDTO == null)
-            throw new IllegalArgumentException("No details provided");
+        validate(bookingDetailsDTO);
 
-        Hotel hotel = hotelRepository.findById(bookingDetailsDTO.get_hotelId())
+        Hotel hotel = hotelCatalog.findById(bookingDetailsDTO.get_hotelId())
+                .or(() -> hotelRepository.findById(bookingDetailsDTO.get_hotelId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel", "hotel id", bookingDetailsDTO.get_hotelId()));
         Customer customer = customerRepository.findById(bookingDetailsDTO.get_userId())
                 .orElseThrow(()-> new ResourceNotFoundException("Customer", "customer id", bookingDetailsDTO.get_userId()));
@@ -45,7 +52,8 @@ public class BookingService implements BookingInterface {
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Room", "room id", bookingDetailsDTO.get_roomId()));
 
-        validateRoomAvailability(requiredRoom.getRoomCount(), bookingDetailsDTO.getCustomerRoomCount());
+        validateRoomAvailability(roomInventory.freeRooms(requiredRoom, bookingDetailsDTO.getCheckInDate(), bookingDetailsDTO.getCheckOutDate()),
+                bookingDetailsDTO.getCustomerRoomCount());
 
         updateCustomerRecentVisits(customer, hotel);
 
@@ -54,12 +62,33 @@ public class BookingService implements BookingInterface {
         Booking savedBooking = bookingRepository.save(booking);
 
         Payment payment = createPayment(savedBooking, requiredRoom, hotel);
+        payment.setHoldExpiresAt(bookingHolds.newExpiry());
         paymentRepository.save(payment);
+        // Keeps the rooms until the payment comes in or the hold expires; fails with RoomUnavailableException when
+        // the last rooms were taken since the check above
+        bookingHolds.hold(hotel, requiredRoom, savedBooking, payment);
         //send booking confirmation email to customer
         sendBookingConfirmationEmail(customer,savedBooking,hotel, requiredRoom);
         return savedBooking;
     }
 
+    /** Rejects a booking whose stay the inventory could not hold before anything is read. */
+    void validate(BookingDetailsDTO bookingDetailsDTO) {
+        if (bookingDetailsDTO == null)
+            throw new InvalidBookingException("No details provided");
+        LocalDate checkIn = bookingDetailsDTO.getCheckInDate();
+        LocalDate checkOut = bookingDetailsDTO.getCheckOutDate();
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut) || bookingDetailsDTO.getCustomerRoomCount() < 1)
+            throw new InvalidBookingException("A booking needs a check-in date before the check-out date and at least one room");
+        if (!withinBookingHorizon(checkOut))
+            throw new InvalidBookingException("A booking must check out within " + ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS + " days from today");
+    }
+
+    /** Whether a stay ending on the given day lies within the window rooms can be booked ahead. */
+    static boolean withinBookingHorizon(LocalDate checkOutDate) {
+        return !checkOutDate.isAfter(LocalDate.now().plusDays(ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS));
+    }
+
     public Payment createPayment(Booking booking, Room requiredRoom, Hotel hotel) {
         return Payment.builder()
                 .bookingId(booking.getId())
@@ -114,30 +143,8 @@ public class BookingService implements BookingInterface {
     public void sendBookingConfirmationEmail(Customer customer,Booking booking, Hotel hotel, Room room){
         String to = customer.getEmail();
         String subject = "Booking Confirmation - " + hotel.getHotelName();
-        String body = generateBookingConfirmationBody(customer, booking, hotel, room);
-        emailService.sendHtmlEmail(to, subject, body);
-        logger.info("Booking confirmation mail sent");
-    }
-
-    public String generateBookingConfirmationBody(Customer customer, Booking booking, Hotel hotel, Room room) {
-
-        NumberFormat formatter = new DecimalFormat("#0.00");
-
-        return "<html><body>" +
-                "<h2>Booking Confirmation - " + hotel.getHotelName() + "</h2>" +
-                "<p>Dear " + customer.getUserName() + ",</p>" +
-                "<p>Your booking at " + hotel.getHotelName() + " has been confirmed.</p>" +
-                "<h3>Booking Details:</h3>" +
-                "<ul>" +
-                "<li><strong>Booking ID:</strong> " + booking.getId() + "</li>" +
-                "<li><strong>Hotel Name:</strong> " + hotel.getHotelName() + "</li>" +
-                "<li><strong>Room Type:</strong> " + room.getRoomType() + "</li>" +
-                "<li><strong>Check-in Date:</strong> " + booking.getCheckInDate() + "</li>" +
-                "<li><strong>Check-out Date:</strong> " + booking.getCheckOutDate() + "</li>" +
-                "<li><strong>Total Amount:</strong> $" + formatter.format(booking.getTotalAmount()) + "</li>" +
-                "</ul>" +
-                "<p>Thank you for choosing " + hotel.getHotelName() + ".</p>" +
-                "<p>Best regards,<br/>Hotel Management Team</p>" +
-                "</body></html>";
+        String body = emailTemplates.bookingConfirmation(customer, booking, hotel, room);
+        emailOutbox.enqueue("booking-confirmation:" + booking.getId(), to, subject, body);
+        logger.info("Booking confirmation mail queued");
     }
 }
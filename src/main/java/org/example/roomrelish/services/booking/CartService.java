@@ -0,0 +1,234 @@
+package org.example.roomrelish.services.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.example.roomrelish.constants.ApplicationConstants;
+import org.example.roomrelish.dto.BookingDetailsDTO;
+import org.example.roomrelish.dto.CartCheckoutDTO;
+import org.example.roomrelish.dto.CartDTO;
+import org.example.roomrelish.dto.CartLineDTO;
+import org.example.roomrelish.exception.InvalidCartException;
+import org.example.roomrelish.exception.ResourceNotFoundException;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.CustomerRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomInventoryService.Reservation;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Books and pays for several rooms, possibly in several hotels, in one call. The lines are checked together before
+ * anything is read; the customer and the hotels are then read once for the whole cart. The rooms of every line are
+ * held all or nothing through the {@link HotelWriteQueue}, then the bookings and payments are inserted with one write
+ * per collection and a single confirmation covering every booking is queued. When an insert fails the rooms and
+ * whatever was inserted are given back.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final HotelRepository hotelRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final CustomerRepository customerRepository;
+    private final HotelCatalog hotelCatalog;
+    private final HotelWriteQueue hotelWrites;
+    private final RoomInventoryService roomInventory;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final SearchResultCache searchResultCache;
+    private final BookingService bookingService;
+    private final EmailOutbox emailOutbox;
+    private final EmailTemplates emailTemplates;
+
+    private record Line(Hotel hotel, Room room, Booking booking) {
+    }
+
+    public CartCheckoutDTO checkout(CartDTO cart) {
+        validate(cart);
+        Customer customer = customerRepository.findById(cart.get_userId())
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "customer id", cart.get_userId()));
+        Map<String, Hotel> hotels = findHotels(cart.getLines());
+
+        List<Line> lines = new ArrayList<>(cart.getLines().size());
+        for (CartLineDTO cartLine : cart.getLines()) {
+            Hotel hotel = hotels.get(cartLine.get_hotelId());
+            if (hotel == null) {
+                throw new ResourceNotFoundException("Hotel", "hotel id", cartLine.get_hotelId());
+            }
+            Room room = (hotel.getRooms() == null ? List.<Room>of() : hotel.getRooms()).stream()
+                    .filter(candidate -> candidate.getId().equals(cartLine.get_roomId()))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Room", "room id", cartLine.get_roomId()));
+            Booking booking = bookingService.createBooking(bookingDetails(cart.get_userId(), cartLine, room), room);
+            // Ids are set up front so the rooms can be held under them before anything is written
+            booking.setId(new ObjectId().toString());
+            lines.add(new Line(hotel, room, booking));
+        }
+
+        Map<String, List<Reservation>> reservations = new LinkedHashMap<>();
+        for (Line line : lines) {
+            reservations.computeIfAbsent(line.hotel().getId(), hotelId -> new ArrayList<>())
+                    .add(new Reservation(line.room(), RoomAvailability.of(line.booking())));
+        }
+        hotelWrites.reserveAll(reservations);
+
+        LocalDateTime confirmedAt = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>(lines.size());
+        List<Payment> payments = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            Payment payment = bookingService.createPayment(line.booking(), line.room(), line.hotel());
+            payment.setId(new ObjectId().toString());
+            payment.setPaymentStatus(true);
+            payment.setBookingConfirmedDateTime(confirmedAt);
+            bookings.add(line.booking());
+            payments.add(payment);
+        }
+        insert(lines, bookings, payments);
+
+        Set<Hotel> bookedHotels = new LinkedHashSet<>();
+        for (Line line : lines) {
+            occupancyIndex.book(line.room().getId(), RoomAvailability.of(line.booking()));
+            bookedHotels.add(line.hotel());
+        }
+        bookedHotels.forEach(searchResultCache::invalidate);
+        updateCustomerRecentVisits(customer, bookedHotels);
+        sendCartConfirmationEmail(customer, lines, payments);
+
+        double totalAmount = payments.stream().mapToDouble(Payment::getTotalAmount).sum();
+        logger.info("Checked out cart of " + lines.size() + " bookings in " + bookedHotels.size() + " hotels");
+        return new CartCheckoutDTO(payments, totalAmount);
+    }
+
+    /** Checks every line before anything is read, reporting all problems of the cart at once. */
+    void validate(CartDTO cart) {
+        if (cart == null || cart.get_userId() == null || cart.get_userId().isBlank()) {
+            throw new InvalidCartException("A cart needs a user id");
+        }
+        if (cart.getLines() == null || cart.getLines().isEmpty() || cart.getLines().size() > ApplicationConstants.MAX_CART_LINES) {
+            throw new InvalidCartException("A cart needs 1 to " + ApplicationConstants.MAX_CART_LINES + " lines");
+        }
+        List<String> problems = new ArrayList<>();
+        for (int index = 0; index < cart.getLines().size(); index++) {
+            CartLineDTO line = cart.getLines().get(index);
+            String prefix = "Line " + (index + 1) + ": ";
+            if (line == null) {
+                problems.add(prefix + "missing");
+                continue;
+            }
+            if (line.get_hotelId() == null || line.get_hotelId().isBlank() || line.get_roomId() == null || line.get_roomId().isBlank()) {
+                problems.add(prefix + "needs a hotel id and a room id");
+            }
+            if (line.getCustomerRoomCount() < 1) {
+                problems.add(prefix + "needs at least one room");
+            }
+            if (line.getCheckInDate() == null || line.getCheckOutDate() == null || !line.getCheckInDate().isBefore(line.getCheckOutDate())) {
+                problems.add(prefix + "needs a check-in date before the check-out date");
+            } else if (!BookingService.withinBookingHorizon(line.getCheckOutDate())) {
+                problems.add(prefix + "must check out within " + ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS + " days from today");
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new InvalidCartException(String.join("; ", problems));
+        }
+    }
+
+    /** The cart's hotels by id, from the catalog where possible and otherwise with one query for the rest. */
+    private Map<String, Hotel> findHotels(List<CartLineDTO> lines) {
+        Map<String, Hotel> hotels = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (CartLineDTO line : lines) {
+            String hotelId = line.get_hotelId();
+            if (hotels.containsKey(hotelId) || missing.contains(hotelId)) continue;
+            hotelCatalog.findById(hotelId).ifPresentOrElse(hotel -> hotels.put(hotelId, hotel), () -> missing.add(hotelId));
+        }
+        if (!missing.isEmpty()) {
+            hotelRepository.findAllById(missing).forEach(hotel -> hotels.put(hotel.getId(), hotel));
+        }
+        return hotels;
+    }
+
+    private void insert(List<Line> lines, List<Booking> bookings, List<Payment> payments) {
+        try {
+            bookingRepository.insert(bookings);
+            paymentRepository.insert(payments);
+        } catch (RuntimeException e) {
+            logger.warning("Writing cart of " + lines.size() + " bookings failed, giving back its rooms: " + e.getMessage());
+            try {
+                paymentRepository.deleteAllById(payments.stream().map(Payment::getId).toList());
+                bookingRepository.deleteAllById(bookings.stream().map(Booking::getId).toList());
+            } finally {
+                for (Line line : lines) {
+                    Booking booking = line.booking();
+                    roomInventory.release(line.room().getId(), booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate(), booking.getNumOfRooms());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static BookingDetailsDTO bookingDetails(String userId, CartLineDTO line, Room room) {
+        return BookingDetailsDTO.builder()
+                ._userId(userId)
+                ._hotelId(line.get_hotelId())
+                ._roomId(line.get_roomId())
+                .customerRoomCount(line.getCustomerRoomCount())
+                .customerDayCount((int) ChronoUnit.DAYS.between(line.getCheckInDate(), line.getCheckOutDate()))
+                .checkInDate(line.getCheckInDate())
+                .checkOutDate(line.getCheckOutDate())
+                .roomType(room.getRoomType())
+                .build();
+    }
+
+    private void updateCustomerRecentVisits(Customer customer, Set<Hotel> hotels) {
+        List<String> recentVisits = customer.getRecentVisitsOfHotels() == null ? new ArrayList<>() : customer.getRecentVisitsOfHotels();
+        boolean changed = false;
+        for (Hotel hotel : hotels) {
+            if (!recentVisits.contains(hotel.getId())) {
+                recentVisits.add(hotel.getId());
+                changed = true;
+            }
+        }
+        if (changed) {
+            customer.setRecentVisitsOfHotels(recentVisits);
+            customerRepository.save(customer);
+        }
+    }
+
+    private void sendCartConfirmationEmail(Customer customer, List<Line> lines, List<Payment> payments) {
+        List<EmailTemplates.CartLineEmail> emailLines = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            emailLines.add(new EmailTemplates.CartLineEmail(line.booking(), line.hotel(), line.room(), payments.get(i)));
+        }
+        String subject = "Booking Confirmation - " + lines.size() + " bookings";
+        String body = emailTemplates.cartConfirmation(customer, emailLines);
+        emailOutbox.enqueue("cart-confirmation:" + lines.getFirst().booking().getId(), customer.getEmail(), subject, body);
+        logger.info("Cart confirmation email is queued");
+    }
+}
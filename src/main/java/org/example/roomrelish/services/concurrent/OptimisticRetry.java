@@ -0,0 +1,92 @@
+package org.example.roomrelish.services.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Retry policy for read-modify-write of versioned documents. The attempt re-reads the document, applies its change
+ * and saves; when the save loses to a concurrent one ({@link OptimisticLockingFailureException}) the whole attempt
+ * runs again after a random pause of up to {@code retryBackoff} doubled per conflict, capped at {@code maxBackoff},
+ * so writers that collided do not collide again in step. After {@code maxAttempts} conflicts the caller gets a
+ * {@link ConcurrentUpdateException}.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${optimistic-retry.max-attempts}") int maxAttempts,
+                           @Value("${optimistic-retry.retry-backoff}") Duration retryBackoff,
+                           @Value("${optimistic-retry.max-backoff}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public void execute(String operation, Runnable attempt) {
+        execute(operation, () -> {
+            attempt.run();
+            return null;
+        });
+    }
+
+    /** Runs {@code attempt} until it saves without a version conflict; {@code operation} tags the metrics. */
+    public <T> T execute(String operation, Supplier<T> attempt) {
+        for (int attempts = 1; ; attempts++) {
+            try {
+                T result = attempt.get();
+                if (attempts > 1) {
+                    outcome(operation, "retried").increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                outcome(operation, "conflict").increment();
+                if (attempts >= maxAttempts) {
+                    outcome(operation, "exhausted").increment();
+                    logger.warning(operation + " gave up after " + attempts + " conflicting attempts: " + e.getMessage());
+                    throw new ConcurrentUpdateException("The resource was changed concurrently, please try again");
+                }
+                pause(attempts);
+            }
+        }
+    }
+
+    /** Counts per operation: every conflict, calls that succeeded after a conflict and calls that ran out of attempts. */
+    private Counter outcome(String operation, String outcome) {
+        return meterRegistry.counter("optimistic.writes", "operation", operation, "outcome", outcome);
+    }
+
+    /** A random pause of up to {@code retryBackoff} doubled for every conflict after the first, capped at {@code maxBackoff}. */
+    Duration backoff(int conflicts) {
+        Duration ceiling = retryBackoff.multipliedBy(1L << Math.min(Math.max(conflicts - 1, 0), 20));
+        if (ceiling.compareTo(maxBackoff) > 0) {
+            ceiling = maxBackoff;
+        }
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling.toNanos() + 1));
+    }
+
+    private void pause(int conflicts) {
+        try {
+            Thread.sleep(backoff(conflicts));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a concurrent update");
+        }
+    }
+}
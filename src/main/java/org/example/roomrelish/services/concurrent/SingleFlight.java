@@ -0,0 +1,83 @@
+package org.example.roomrelish.services.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the loader on its own thread and every caller
+ * arriving while it runs waits for that result instead of loading again. A waiting caller gives up after the timeout
+ * and runs the loader itself, so one slow load never stalls the callers behind it for longer than that. Failures of
+ * the shared load are rethrown to every caller that waited on it. Nothing is kept once the load completes.
+ */
+public class SingleFlight<K, V> {
+
+    private final Duration timeout;
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public SingleFlight(MeterRegistry meterRegistry, String name, Duration timeout) {
+        this.timeout = timeout;
+        this.leaders = meterRegistry.counter("singleflight.calls", "name", name, "result", "leader");
+        this.coalesced = meterRegistry.counter("singleflight.calls", "name", name, "result", "coalesced");
+        this.timeouts = meterRegistry.counter("singleflight.calls", "name", name, "result", "timeout");
+        Gauge.builder("singleflight.in-flight", calls, Map::size).tag("name", name).register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, timeout, loader);
+    }
+
+    /** Like {@link #execute(Object, Supplier)} but waits at most {@code timeout} for a load already running for the key. */
+    public V execute(K key, Duration timeout, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight == null) {
+            leaders.increment();
+            return load(key, call, loader);
+        }
+        coalesced.increment();
+        try {
+            return inFlight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+    }
+
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private V load(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.roomrelish.services.concurrent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of deadlines by key. Time is cut into ticks and a key sits in the bucket of its deadline tick
+ * modulo the wheel size, so scheduling, cancelling and expiring a key are constant time however many keys are
+ * waiting. {@link #advance} visits only the buckets of the ticks that passed and leaves the keys due in a later turn
+ * of the wheel where they are. Deadlines are rounded up to the next tick: a key never expires early, and at most one
+ * tick late after the advance that follows its deadline.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Map<K, Long>[] buckets;
+    private final Map<K, Long> deadlineTicks = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int wheelSize, Instant start) {
+        if (tick.toMillis() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMillis = tick.toMillis();
+        this.startMillis = start.toEpochMilli();
+        this.buckets = new Map[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new HashMap<>();
+        }
+    }
+
+    /** Sets the key's deadline, replacing the one it had; a deadline already passed expires on the next advance. */
+    public synchronized void schedule(K key, Instant deadline) {
+        cancel(key);
+        long tick = Math.max(currentTick + 1, tickOf(deadline));
+        deadlineTicks.put(key, tick);
+        bucket(tick).put(key, tick);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Long tick = deadlineTicks.remove(key);
+        if (tick == null) return false;
+        bucket(tick).remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return deadlineTicks.size();
+    }
+
+    /** Moves the wheel to {@code now} and removes and returns the keys whose deadline it passed. */
+    public synchronized List<K> advance(Instant now) {
+        long target = Math.floorDiv(now.toEpochMilli() - startMillis, tickMillis);
+        if (target <= currentTick) return List.of();
+        List<K> expired = new ArrayList<>();
+        long ticks = Math.min(target - currentTick, buckets.length);
+        for (long i = 1; i <= ticks; i++) {
+            Iterator<Map.Entry<K, Long>> entries = bucket(currentTick + i).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() <= target) {
+                    entries.remove();
+                    deadlineTicks.remove(entry.getKey());
+                    expired.add(entry.getKey());
+                }
+            }
+        }
+        currentTick = target;
+        return expired;
+    }
+
+    private long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli() - startMillis + tickMillis - 1, tickMillis);
+    }
+
+    private Map<K, Long> bucket(long tick) {
+        return buckets[(int) Math.floorMod(tick, (long) buckets.length)];
+    }
+}
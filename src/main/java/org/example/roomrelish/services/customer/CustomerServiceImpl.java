@@ -11,6 +11,7 @@ import org.example.roomrelish.models.Customer;
 import org.example.roomrelish.models.Hotel;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.services.hotel.HotelCatalog;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +27,7 @@ public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
     private final PasswordEncoder passwordEncoder;
     private final HotelRepository hotelRepository;
+    private final HotelCatalog hotelCatalog;
     String errorMessageCustomer = "Customer not found";
 
     @Override
@@ -96,7 +98,7 @@ public class CustomerServiceImpl implements CustomerService {
             return Collections.emptyList();
         }
         return hotelIds.stream()
-                .map(hotelRepository::findById)
+                .map(this::readHotel)
                 .flatMap(Optional::stream)
                 .toList();
     }
@@ -136,9 +138,13 @@ public class CustomerServiceImpl implements CustomerService {
         List<String> recentHotelIds = customer.getRecentVisitsOfHotels();
         Collections.reverse(recentHotelIds);
         return recentHotelIds.stream()
-                .map(hotelRepository::findById)
+                .map(this::readHotel)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .toList();
     }
+
+    private Optional<Hotel> readHotel(String hotelId) {
+        return hotelCatalog.findById(hotelId).or(() -> hotelRepository.findById(hotelId));
+    }
 }
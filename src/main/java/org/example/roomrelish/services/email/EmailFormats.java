@@ -0,0 +1,42 @@
+package org.example.roomrelish.services.email;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/** Formatters shared by every render. {@link DecimalFormat} is not thread-safe, so each thread keeps its own. */
+final class EmailFormats {
+
+    private static final ThreadLocal<DecimalFormat> AMOUNT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#0.00", DecimalFormatSymbols.getInstance(Locale.ROOT)));
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH);
+
+    private EmailFormats() {
+    }
+
+    static String amount(double amount) {
+        return AMOUNT.get().format(amount);
+    }
+
+    static String date(LocalDate date) {
+        return date == null ? null : DATE.format(date);
+    }
+
+    /** Appends the value with the characters that are markup in HTML escaped; {@code null} appends nothing. */
+    static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) return;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
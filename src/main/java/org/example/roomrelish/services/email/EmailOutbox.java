@@ -0,0 +1,46 @@
+package org.example.roomrelish.services.email;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.OutboxEmail;
+import org.example.roomrelish.models.OutboxStatus;
+import org.example.roomrelish.repository.OutboxEmailRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.logging.Logger;
+
+/**
+ * Queues emails in the {@code email_outbox} collection instead of sending them on the request thread. The
+ * {@link EmailOutboxWorker} delivers them, retrying while the mail server is unreachable.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutbox {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final OutboxEmailRepository outboxRepository;
+    private final EmailOutboxWorker worker;
+
+    /**
+     * Queues the email under {@code key}, which names the event it is about. Queuing a key again, e.g. when a
+     * request is retried, keeps the first email.
+     */
+    public void enqueue(String key, String to, String subject, String body) {
+        Instant now = Instant.now();
+        boolean queued = outboxRepository.insertIfAbsent(OutboxEmail.builder()
+                .id(key)
+                .to(to)
+                .subject(subject)
+                .body(body)
+                .status(OutboxStatus.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+        if (queued) {
+            worker.wakeUp();
+        } else {
+            logger.info("Email " + key + " is already queued");
+        }
+    }
+}
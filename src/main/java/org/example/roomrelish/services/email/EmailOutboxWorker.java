@@ -0,0 +1,189 @@
+package org.example.roomrelish.services.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.example.roomrelish.models.OutboxEmail;
+import org.example.roomrelish.models.OutboxStatus;
+import org.example.roomrelish.repository.OutboxEmailRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Delivers the outbox. Due entries are claimed in batches and each batch is sent on a virtual thread over one
+ * connection to the mail server; at most {@code concurrency} batches are in flight. A failed email is retried with
+ * exponential backoff and marked {@link OutboxStatus#DEAD} after {@code maxAttempts}, or at once when the message
+ * itself cannot be built.
+ */
+@Component
+public class EmailOutboxWorker {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final OutboxEmailRepository outboxRepository;
+    private final EmailService emailService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Semaphore batches;
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("email-outbox-", 1).factory());
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Timer sendTimer;
+
+    public EmailOutboxWorker(OutboxEmailRepository outboxRepository,
+                             EmailService emailService,
+                             MeterRegistry meterRegistry,
+                             @Value("${email.outbox.concurrency}") int concurrency,
+                             @Value("${email.outbox.batch-size}") int batchSize,
+                             @Value("${email.outbox.max-attempts}") int maxAttempts,
+                             @Value("${email.outbox.retry-backoff}") Duration retryBackoff,
+                             @Value("${email.outbox.max-backoff}") Duration maxBackoff,
+                             @Value("${email.outbox.lease}") Duration lease) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        int permits = Math.max(1, concurrency);
+        this.batches = new Semaphore(permits);
+        this.sent = outcome(meterRegistry, "sent");
+        this.retried = outcome(meterRegistry, "retried");
+        this.dead = outcome(meterRegistry, "dead");
+        this.sendTimer = Timer.builder("email.outbox.send").register(meterRegistry);
+        Gauge.builder("email.outbox.batches.active", batches, semaphore -> permits - semaphore.availablePermits()).register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("email.outbox.emails").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /** Starts draining without waiting for the next poll, e.g. right after an email is queued. */
+    public void wakeUp() {
+        try {
+            senders.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            logger.info("Email outbox is shutting down, queued email is left for the next start");
+        }
+    }
+
+    /** Claims and hands out batches until nothing is due or every sender is busy. */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms}")
+    public void drain() {
+        while (batches.tryAcquire()) {
+            List<OutboxEmail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                batches.release();
+                return;
+            }
+            try {
+                senders.execute(() -> {
+                    try {
+                        send(batch);
+                    } finally {
+                        batches.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the claimed entries are picked up again once their lease runs out
+                batches.release();
+                return;
+            }
+        }
+    }
+
+    private List<OutboxEmail> claimBatch() {
+        List<OutboxEmail> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            Optional<OutboxEmail> email = outboxRepository.claimNext(Instant.now(), lease);
+            if (email.isEmpty()) break;
+            batch.add(email.get());
+        }
+        return batch;
+    }
+
+    void send(List<OutboxEmail> batch) {
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(emailService.createHtmlMessage(email.getTo(), email.getSubject(), email.getBody()), email);
+            } catch (MessagingException e) {
+                fail(email, e, true);
+            }
+        }
+        if (messages.isEmpty()) return;
+
+        Map<Object, Exception> failed = Map.of();
+        Exception batchError = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            emailService.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            batchError = failed.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchError = e;
+        } finally {
+            sample.stop(sendTimer);
+        }
+
+        Instant now = Instant.now();
+        for (Map.Entry<MimeMessage, OutboxEmail> message : messages.entrySet()) {
+            Exception error = batchError != null ? batchError : failed.get(message.getKey());
+            if (error == null) {
+                outboxRepository.markSent(message.getValue().getId(), message.getValue().getAttempts(), now);
+                sent.increment();
+            } else {
+                fail(message.getValue(), error, false);
+            }
+        }
+    }
+
+    private void fail(OutboxEmail email, Exception error, boolean permanent) {
+        Instant now = Instant.now();
+        if (permanent || email.getAttempts() >= maxAttempts) {
+            outboxRepository.markFailed(email.getId(), email.getAttempts(), OutboxStatus.DEAD, now, error.getMessage());
+            dead.increment();
+            logger.warning("Giving up on email " + email.getId() + " after " + email.getAttempts() + " attempts: " + error.getMessage());
+        } else {
+            outboxRepository.markFailed(email.getId(), email.getAttempts(), OutboxStatus.PENDING, now.plus(backoff(email.getAttempts())), error.getMessage());
+            retried.increment();
+        }
+    }
+
+    /** {@code retryBackoff} doubled for every attempt after the first, capped at {@code maxBackoff}. */
+    Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+}
@@ -15,15 +15,24 @@ public class EmailService {
     private final JavaMailSender mailSender;
 
     public void sendHtmlEmail(String to, String subject, String body) {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
         try {
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
+            mailSender.send(createHtmlMessage(to, subject, body));
         } catch (MessagingException e) {
             throw new EmailFailedToSendException();
         }
     }
-}
\ No newline at end of file
+
+    public MimeMessage createHtmlMessage(String to, String subject, String body) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(body, true);
+        return message;
+    }
+
+    /** Sends the messages over a single connection to the mail server. */
+    public void send(MimeMessage... messages) {
+        mailSender.send(messages);
+    }
+}
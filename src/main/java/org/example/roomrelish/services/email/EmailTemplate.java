@@ -0,0 +1,84 @@
+package org.example.roomrelish.services.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An HTML template compiled once into its literal text and the getters of its {@code {{name}}} placeholders, so a
+ * render only appends. Values are HTML-escaped, except in {@code {{{name}}}} placeholders, which take HTML that is
+ * already escaped, such as the rows rendered by another template. Renders write into a buffer kept per thread and reused while it stays
+ * under {@value #MAX_POOLED_CAPACITY} chars.
+ */
+public final class EmailTemplate<T> {
+
+    static final int MAX_POOLED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(4 * 1024));
+
+    private final String[] literals;
+    private final List<Function<T, String>> values;
+    private final boolean[] raw;
+
+    private EmailTemplate(String[] literals, List<Function<T, String>> values, boolean[] raw) {
+        this.literals = literals;
+        this.values = values;
+        this.raw = raw;
+    }
+
+    /**
+     * Compiles {@code source}, binding each placeholder to the getter of the same name in {@code fields}.
+     *
+     * @throws IllegalArgumentException when a placeholder is not closed or has no getter
+     */
+    public static <T> EmailTemplate<T> compile(String name, String source, Map<String, Function<T, String>> fields) {
+        List<String> literals = new ArrayList<>();
+        List<Function<T, String>> values = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf("{{", from)) >= 0) {
+            String closing = source.startsWith("{{{", open) ? "}}}" : "}}";
+            int start = open + closing.length();
+            int close = source.indexOf(closing, start);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in email template " + name);
+            }
+            String field = source.substring(start, close).trim();
+            Function<T, String> value = fields.get(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown placeholder {{" + field + "}} in email template " + name);
+            }
+            literals.add(source.substring(from, open));
+            values.add(value);
+            raw.add(closing.length() == 3);
+            from = close + closing.length();
+        }
+        literals.add(source.substring(from));
+        boolean[] rawValues = new boolean[raw.size()];
+        for (int i = 0; i < rawValues.length; i++) {
+            rawValues[i] = raw.get(i);
+        }
+        return new EmailTemplate<>(literals.toArray(String[]::new), List.copyOf(values), rawValues);
+    }
+
+    public String render(T model) {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        buffer.append(literals[0]);
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).apply(model);
+            if (!raw[i]) {
+                EmailFormats.appendEscaped(buffer, value);
+            } else if (value != null) {
+                buffer.append(value);
+            }
+            buffer.append(literals[i + 1]);
+        }
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_POOLED_CAPACITY) {
+            BUFFERS.remove();
+        }
+        return html;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.roomrelish.services.email;
+
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.Map.entry;
+
+/**
+ * The email bodies sent to customers, compiled at startup from {@code email-templates/*.html}. A template naming a
+ * placeholder that does not exist fails the startup rather than the first send.
+ */
+@Component
+public class EmailTemplates {
+
+    public record BookingEmail(Customer customer, Booking booking, Hotel hotel, Room room) {
+    }
+
+    public record PaymentEmail(Customer customer, Booking booking, Hotel hotel, Payment payment) {
+    }
+
+    public record CancellationEmail(Customer customer, Booking booking, Hotel hotel, double charges) {
+    }
+
+    /** One paid booking of a cart, a row of the cart confirmation. */
+    public record CartLineEmail(Booking booking, Hotel hotel, Room room, Payment payment) {
+    }
+
+    /** {@code lines} holds the rows already rendered from {@link CartLineEmail}s. */
+    public record CartEmail(Customer customer, int bookingCount, double amountPaid, String lines) {
+    }
+
+    private final EmailTemplate<BookingEmail> bookingConfirmation;
+    private final EmailTemplate<PaymentEmail> paymentConfirmation;
+    private final EmailTemplate<CancellationEmail> bookingCancellation;
+    private final EmailTemplate<CartLineEmail> cartLine;
+    private final EmailTemplate<CartEmail> cartConfirmation;
+
+    public EmailTemplates() {
+        this.bookingConfirmation = EmailTemplate.compile("booking-confirmation", load("booking-confirmation"), Map.ofEntries(
+                entry("customerName", email -> email.customer().getUserName()),
+                entry("hotelName", email -> email.hotel().getHotelName()),
+                entry("roomType", email -> email.room().getRoomType()),
+                entry("roomCount", email -> String.valueOf(email.booking().getNumOfRooms())),
+                entry("bookingId", email -> email.booking().getId()),
+                entry("checkIn", email -> EmailFormats.date(email.booking().getCheckInDate())),
+                entry("checkOut", email -> EmailFormats.date(email.booking().getCheckOutDate())),
+                entry("totalAmount", email -> EmailFormats.amount(email.booking().getTotalAmount()))));
+        this.paymentConfirmation = EmailTemplate.compile("payment-confirmation", load("payment-confirmation"), Map.ofEntries(
+                entry("customerName", email -> email.customer().getUserName()),
+                entry("hotelName", email -> email.hotel().getHotelName()),
+                entry("paymentId", email -> email.payment().getId()),
+                entry("amountPaid", email -> EmailFormats.amount(email.payment().getTotalAmount())),
+                entry("bookingId", email -> email.booking().getId()),
+                entry("checkIn", email -> EmailFormats.date(email.booking().getCheckInDate())),
+                entry("checkOut", email -> EmailFormats.date(email.booking().getCheckOutDate())),
+                entry("totalAmount", email -> EmailFormats.amount(email.booking().getTotalAmount()))));
+        this.bookingCancellation = EmailTemplate.compile("booking-cancellation", load("booking-cancellation"), Map.ofEntries(
+                entry("customerName", email -> email.customer().getUserName()),
+                entry("hotelName", email -> email.hotel().getHotelName()),
+                entry("bookingId", email -> email.booking().getId()),
+                entry("checkIn", email -> EmailFormats.date(email.booking().getCheckInDate())),
+                entry("checkOut", email -> EmailFormats.date(email.booking().getCheckOutDate())),
+                entry("charges", email -> EmailFormats.amount(email.charges())),
+                entry("refund", email -> EmailFormats.amount(email.booking().getTotalAmount() - email.charges()))));
+        this.cartLine = EmailTemplate.compile("cart-line", load("cart-line"), Map.ofEntries(
+                entry("bookingId", line -> line.booking().getId()),
+                entry("hotelName", line -> line.hotel().getHotelName()),
+                entry("roomType", line -> line.room().getRoomType()),
+                entry("roomCount", line -> String.valueOf(line.booking().getNumOfRooms())),
+                entry("checkIn", line -> EmailFormats.date(line.booking().getCheckInDate())),
+                entry("checkOut", line -> EmailFormats.date(line.booking().getCheckOutDate())),
+                entry("amountPaid", line -> EmailFormats.amount(line.payment().getTotalAmount()))));
+        this.cartConfirmation = EmailTemplate.compile("cart-confirmation", load("cart-confirmation"), Map.ofEntries(
+                entry("customerName", email -> email.customer().getUserName()),
+                entry("bookingCount", email -> String.valueOf(email.bookingCount())),
+                entry("amountPaid", email -> EmailFormats.amount(email.amountPaid())),
+                entry("lines", CartEmail::lines)));
+    }
+
+    public String bookingConfirmation(Customer customer, Booking booking, Hotel hotel, Room room) {
+        return bookingConfirmation.render(new BookingEmail(customer, booking, hotel, room));
+    }
+
+    public String paymentConfirmation(Customer customer, Booking booking, Hotel hotel, Payment payment) {
+        return paymentConfirmation.render(new PaymentEmail(customer, booking, hotel, payment));
+    }
+
+    public String bookingCancellation(Customer customer, Booking booking, Hotel hotel, double charges) {
+        return bookingCancellation.render(new CancellationEmail(customer, booking, hotel, charges));
+    }
+
+    /** One email for all bookings of a cart, a row per booking. */
+    public String cartConfirmation(Customer customer, List<CartLineEmail> lines) {
+        // Rows are rendered one at a time before the outer template, as all renders share the thread's buffer
+        StringBuilder rows = new StringBuilder();
+        double amountPaid = 0;
+        for (CartLineEmail line : lines) {
+            rows.append(cartLine.render(line)).append('\n');
+            amountPaid += line.payment().getTotalAmount();
+        }
+        return cartConfirmation.render(new CartEmail(customer, lines.size(), amountPaid, rows.toString()));
+    }
+
+    private static String load(String name) {
+        try {
+            return new ClassPathResource("email-templates/" + name + ".html").getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read email template " + name, e);
+        }
+    }
+}
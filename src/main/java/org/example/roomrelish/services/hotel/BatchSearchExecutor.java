@@ -0,0 +1,51 @@
+package org.example.roomrelish.services.hotel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool running the searches of a batch request side by side. When its queue is full the submitting thread
+ * runs the search itself, which slows that request down instead of piling up work.
+ */
+@Component
+public class BatchSearchExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public BatchSearchExecutor(MeterRegistry meterRegistry,
+                               @Value("${search.batch.parallelism}") int parallelism,
+                               @Value("${search.batch.queue-capacity}") int queueCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        int poolSize = Math.max(1, parallelism);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "batch-search-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("search.batch.pool.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("search.batch.pool.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.repository.HotelRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Immutable snapshot of every hotel, indexed by id and by case-folded city, so reads never touch Mongo. Readers take
+ * the current snapshot without locking; writers build a copy with their change and swap it in, one writer at a time.
+ * Changes saved by other instances are picked up by polling for documents modified after the newest one seen.
+ * Hotels handed out here are shared: callers that modify a hotel must load their own copy from the repository.
+ */
+@Component
+public class HotelCatalog {
+
+    /** Re-reads documents this much older than the newest one seen, covering clock skew between instances. */
+    static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+
+    private final HotelRepository hotelRepository;
+    private final SearchResultCache searchResultCache;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    record Snapshot(Map<String, Hotel> byId, Map<String, List<Hotel>> byCity, Instant lastModified, boolean loaded) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Instant.EPOCH, false);
+    }
+
+    public HotelCatalog(HotelRepository hotelRepository, SearchResultCache searchResultCache) {
+        this.hotelRepository = hotelRepository;
+        this.searchResultCache = searchResultCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!snapshot.get().loaded()) {
+            long versioned = hotelRepository.backfillVersions();
+            if (versioned > 0) logger.info("Versioned " + versioned + " hotels saved before optimistic locking");
+        }
+        List<Hotel> hotels = hotelRepository.findAll();
+        Map<String, Hotel> byId = new HashMap<>();
+        hotels.forEach(hotel -> byId.put(hotel.getId(), hotel));
+        snapshot.set(snapshotOf(byId, newest(hotels, Instant.EPOCH)));
+        logger.info("Hotel catalog loaded with " + hotels.size() + " hotels");
+    }
+
+    /** Applies the hotels changed since the last poll and reloads everything when hotels were deleted elsewhere. */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms}", initialDelayString = "${catalog.refresh-interval-ms}")
+    public void refresh() {
+        Snapshot current = snapshot.get();
+        if (!current.loaded()) return;
+        List<Hotel> changed = hotelRepository.findByLastModifiedGreaterThan(current.lastModified().minus(CLOCK_SKEW));
+        List<Hotel> applied = apply(changed);
+        applied.forEach(searchResultCache::invalidate);
+        if (hotelRepository.count() != snapshot.get().byId().size()) {
+            rebuild();
+        } else if (!applied.isEmpty()) {
+            logger.info("Hotel catalog refreshed " + applied.size() + " hotels");
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot.get().loaded();
+    }
+
+    public Optional<Hotel> findById(String hotelId) {
+        return Optional.ofNullable(hotelId == null ? null : snapshot.get().byId().get(hotelId));
+    }
+
+    public List<Hotel> findAll() {
+        return List.copyOf(snapshot.get().byId().values());
+    }
+
+    public List<Hotel> findByCity(String cityName) {
+        return cityName == null ? List.of() : snapshot.get().byCity().getOrDefault(cityKey(cityName), List.of());
+    }
+
+    /**
+     * Publishes a hotel just saved on this instance; it must not be modified afterwards. Before the first load there
+     * is nothing to update, the load itself reads the saved document. A publish that arrives after the poller has
+     * already applied a newer version of the hotel is dropped, as in {@link #apply}.
+     */
+    public synchronized void publish(Hotel hotel) {
+        Snapshot current = snapshot.get();
+        if (!current.loaded() || hotel == null || hotel.getId() == null) return;
+        Hotel held = current.byId().get(hotel.getId());
+        if (held != null && held.getLastModified() != null
+                && (hotel.getLastModified() == null || held.getLastModified().isAfter(hotel.getLastModified()))) return;
+        Map<String, Hotel> byId = new HashMap<>(current.byId());
+        byId.put(hotel.getId(), hotel);
+        snapshot.set(snapshotOf(byId, current.lastModified()));
+    }
+
+    public synchronized void remove(String hotelId) {
+        Snapshot current = snapshot.get();
+        if (hotelId == null || !current.byId().containsKey(hotelId)) return;
+        Map<String, Hotel> byId = new HashMap<>(current.byId());
+        byId.remove(hotelId);
+        snapshot.set(snapshotOf(byId, current.lastModified()));
+    }
+
+    /**
+     * Swaps in the polled hotels that are newer than the held ones, in a single snapshot. Returns the previous and
+     * new version of every hotel replaced, so both cities' cached searches can be dropped.
+     */
+    private synchronized List<Hotel> apply(Collection<Hotel> changed) {
+        Snapshot current = snapshot.get();
+        Map<String, Hotel> byId = new HashMap<>(current.byId());
+        List<Hotel> applied = new ArrayList<>();
+        for (Hotel hotel : changed) {
+            Hotel previous = byId.get(hotel.getId());
+            if (previous != null && isNewer(previous, hotel)) continue;
+            byId.put(hotel.getId(), hotel);
+            if (previous != null) applied.add(previous);
+            applied.add(hotel);
+        }
+        Instant lastModified = newest(changed, current.lastModified());
+        if (!applied.isEmpty() || !lastModified.equals(current.lastModified())) {
+            snapshot.set(snapshotOf(byId, lastModified));
+        }
+        return applied;
+    }
+
+    private static boolean isNewer(Hotel held, Hotel polled) {
+        return held.getLastModified() != null
+                && (polled.getLastModified() == null || !held.getLastModified().isBefore(polled.getLastModified()));
+    }
+
+    /**
+     * The poll high-water mark only moves with documents read from Mongo: a local publish must not push it past
+     * changes another instance saved just before.
+     */
+    private static Instant newest(Collection<Hotel> hotels, Instant lastModified) {
+        Instant newest = lastModified;
+        for (Hotel hotel : hotels) {
+            if (hotel.getLastModified() != null && hotel.getLastModified().isAfter(newest)) {
+                newest = hotel.getLastModified();
+            }
+        }
+        return newest;
+    }
+
+    private static Snapshot snapshotOf(Map<String, Hotel> byId, Instant lastModified) {
+        Map<String, List<Hotel>> byCity = new HashMap<>();
+        for (Hotel hotel : byId.values()) {
+            if (hotel.getLocation() != null && hotel.getLocation().getCityName() != null) {
+                byCity.computeIfAbsent(cityKey(hotel.getLocation().getCityName()), city -> new ArrayList<>()).add(hotel);
+            }
+        }
+        byCity.replaceAll((city, hotels) -> List.copyOf(hotels));
+        return new Snapshot(Map.copyOf(byId), Map.copyOf(byCity), lastModified, true);
+    }
+
+    private static String cityKey(String cityName) {
+        return cityName.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.roomrelish.services.hotel;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.example.roomrelish.repository.HotelRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * In-process grid of hotel coordinates (cells of {@value #CELL_DEGREES} degrees) used to find the hotels around a
+ * point without a round trip to Mongo. Only ids and coordinates are held; the caller fetches the documents.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotelGeoIndex {
+
+    static final double CELL_DEGREES = 0.1;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+
+    private final HotelRepository hotelRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, GeoEntry> entries = new HashMap<>();
+    private final Map<Long, List<GeoEntry>> cells = new HashMap<>();
+    private volatile boolean loaded;
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    public record NearbyHotel(String hotelId, double distanceKm) {}
+
+    private record GeoEntry(String hotelId, double latitude, double longitude, int row, int column) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long backfilled = hotelRepository.backfillPositions();
+        List<Hotel> hotels = hotelRepository.findAllLocations();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+            hotels.forEach(this::putLocked);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Hotel geo index built for " + hotels.size() + " hotels (" + backfilled + " positions backfilled)");
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void put(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            putLocked(hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String hotelId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(hotelId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Hotels within {@code radiusKm} of the point, nearest first, at most {@code limit} of them. */
+    public List<NearbyHotel> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        int minRow = row(Math.max(-90, latitude - radiusKm / KM_PER_DEGREE));
+        int maxRow = row(Math.min(90, latitude + radiusKm / KM_PER_DEGREE));
+        double widestLatitude = Math.min(89.9, Math.abs(latitude) + radiusKm / KM_PER_DEGREE);
+        double longitudeSpan = radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude)));
+        int columnSpan = longitudeSpan >= 180 ? COLUMNS : (int) Math.ceil(longitudeSpan / CELL_DEGREES) + 1;
+        int centerColumn = column(longitude);
+
+        List<NearbyHotel> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int offset = -columnSpan; offset <= columnSpan && offset < COLUMNS - columnSpan; offset++) {
+                    collect(row, centerColumn + offset, latitude, longitude, radiusKm, found);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return nearestFirst(found, limit);
+    }
+
+    /** The {@code count} hotels nearest to the point, nearest first, searched ring by ring around its cell. */
+    public List<NearbyHotel> nearest(double latitude, double longitude, int count) {
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        double cellKm = KM_PER_DEGREE * CELL_DEGREES * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude)))));
+
+        List<NearbyHotel> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ring < Math.max(ROWS, COLUMNS); ring++) {
+                if ((long) ring * ring * 8 > entries.size()) {
+                    // Scanning the occupied cells is cheaper than walking further empty rings.
+                    found.clear();
+                    entries.values().forEach(entry -> found.add(new NearbyHotel(entry.hotelId(), distanceKm(latitude, longitude, entry))));
+                    break;
+                }
+                for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                    boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                    for (int column = centerColumn - ring; column <= centerColumn + ring; column += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                        collect(row, column, latitude, longitude, Double.MAX_VALUE, found);
+                    }
+                }
+                if (found.size() >= count && (ring * cellKm) >= kthDistance(found, count)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return nearestFirst(found, count);
+    }
+
+    private void collect(int row, int column, double latitude, double longitude, double radiusKm, List<NearbyHotel> found) {
+        if (row < 0 || row >= ROWS) return;
+        List<GeoEntry> cell = cells.get(cellKey(row, Math.floorMod(column, COLUMNS)));
+        if (cell == null) return;
+        for (GeoEntry entry : cell) {
+            double distance = distanceKm(latitude, longitude, entry);
+            if (distance <= radiusKm) {
+                found.add(new NearbyHotel(entry.hotelId(), distance));
+            }
+        }
+    }
+
+    private void putLocked(Hotel hotel) {
+        removeLocked(hotel.getId());
+        Location location = hotel.getLocation();
+        if (hotel.getId() == null || location == null) return;
+        GeoEntry entry = new GeoEntry(hotel.getId(), location.getLatitude(), location.getLongitude(),
+                row(location.getLatitude()), column(location.getLongitude()));
+        entries.put(entry.hotelId(), entry);
+        cells.computeIfAbsent(cellKey(entry.row(), entry.column()), key -> new ArrayList<>()).add(entry);
+    }
+
+    private void removeLocked(String hotelId) {
+        GeoEntry previous = hotelId == null ? null : entries.remove(hotelId);
+        if (previous == null) return;
+        long key = cellKey(previous.row(), previous.column());
+        List<GeoEntry> cell = cells.get(key);
+        cell.remove(previous);
+        if (cell.isEmpty()) cells.remove(key);
+    }
+
+    private static List<NearbyHotel> nearestFirst(List<NearbyHotel> found, int limit) {
+        return found.stream().sorted(Comparator.comparingDouble(NearbyHotel::distanceKm)).limit(limit).toList();
+    }
+
+    private static double kthDistance(List<NearbyHotel> found, int count) {
+        return found.stream().mapToDouble(NearbyHotel::distanceKm).sorted().skip(count - 1L).findFirst().orElse(Double.MAX_VALUE);
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * COLUMNS + column;
+    }
+
+    static double distanceKm(double latitude, double longitude, double otherLatitude, double otherLongitude) {
+        double dLat = Math.toRadians(otherLatitude - latitude);
+        double dLon = Math.toRadians(otherLongitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(otherLatitude)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double distanceKm(double latitude, double longitude, GeoEntry entry) {
+        return distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+    }
+}
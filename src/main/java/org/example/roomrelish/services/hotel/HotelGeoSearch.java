@@ -0,0 +1,71 @@
+package org.example.roomrelish.services.hotel;
+
+import lombok.RequiredArgsConstructor;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.HotelSearchQueryBuilder;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metrics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Radius and k-nearest hotel search. Candidates come from the in-process {@link HotelGeoIndex} and are then filtered
+ * by id in Mongo with the other search filters; until the grid is built the search runs as a {@code $geoNear} on the
+ * 2dsphere index instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotelGeoSearch {
+
+    private static final int NEAREST_OVERFETCH = 4;
+
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelRepository hotelRepository;
+
+    /** Hotels matching the search around its point, nearest first. */
+    public List<GeoResult<HotelSummary>> search(SearchDTO searchDTO) {
+        if (!hotelGeoIndex.isLoaded()) {
+            return hotelRepository.searchHotelsNear(searchDTO).getContent();
+        }
+        Double radiusKm = HotelSearchQueryBuilder.radiusKm(searchDTO);
+        Integer nearest = searchDTO.getNearest();
+        int fetch = nearest == null ? Integer.MAX_VALUE : nearest * NEAREST_OVERFETCH;
+        while (true) {
+            List<HotelGeoIndex.NearbyHotel> candidates = radiusKm != null
+                    ? hotelGeoIndex.withinRadius(searchDTO.getLatitude(), searchDTO.getLongitude(), radiusKm, fetch)
+                    : hotelGeoIndex.nearest(searchDTO.getLatitude(), searchDTO.getLongitude(), fetch);
+            List<GeoResult<HotelSummary>> results = filter(searchDTO, candidates, nearest);
+            boolean exhausted = candidates.size() < fetch;
+            if (nearest == null || results.size() >= nearest || exhausted) {
+                return results;
+            }
+            fetch = fetch > Integer.MAX_VALUE / NEAREST_OVERFETCH ? Integer.MAX_VALUE : fetch * NEAREST_OVERFETCH;
+        }
+    }
+
+    private List<GeoResult<HotelSummary>> filter(SearchDTO searchDTO, List<HotelGeoIndex.NearbyHotel> candidates, Integer nearest) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Map<String, HotelSummary> matching = hotelRepository.searchHotels(searchDTO,
+                        candidates.stream().map(HotelGeoIndex.NearbyHotel::hotelId).toList())
+                .stream().collect(Collectors.toMap(HotelSummary::getId, Function.identity()));
+        List<GeoResult<HotelSummary>> results = new ArrayList<>();
+        for (HotelGeoIndex.NearbyHotel candidate : candidates) {
+            HotelSummary hotel = matching.get(candidate.hotelId());
+            if (hotel != null) {
+                results.add(new GeoResult<>(hotel, new Distance(candidate.distanceKm(), Metrics.KILOMETERS)));
+                if (nearest != null && results.size() == nearest) break;
+            }
+        }
+        return results;
+    }
+}
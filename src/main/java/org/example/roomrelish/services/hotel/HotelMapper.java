@@ -12,9 +12,13 @@ public interface HotelMapper {
     HotelMapper INSTANCE = Mappers.getMapper(HotelMapper.class);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Hotel toHotel(HotelDTO hotelDTO);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     void updateHotelFromDTO(HotelDTO hotelDTO, @MappingTarget Hotel hotel);
 
 }
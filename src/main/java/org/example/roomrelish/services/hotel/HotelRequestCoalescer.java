@@ -0,0 +1,44 @@
+package org.example.roomrelish.services.hotel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.dto.SearchResultDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.services.concurrent.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Shares one computation between identical searches (same normalized key as the {@link SearchResultCache}) and one
+ * Mongo read between lookups of the same hotel that arrive while it is running. A search is only shared within one
+ * cache generation of its city, so a search arriving after an invalidation starts a fresh load. Results are shared
+ * between callers and must not be modified.
+ */
+@Component
+public class HotelRequestCoalescer {
+
+    private final SingleFlight<Flight, SearchResultDTO> searches;
+    private final SingleFlight<String, Optional<Hotel>> lookups;
+
+    public HotelRequestCoalescer(MeterRegistry meterRegistry,
+                                 @Value("${search.coalesce.search-timeout}") Duration searchTimeout,
+                                 @Value("${search.coalesce.lookup-timeout}") Duration lookupTimeout) {
+        this.searches = new SingleFlight<>(meterRegistry, "hotel.search", searchTimeout);
+        this.lookups = new SingleFlight<>(meterRegistry, "hotel.lookup", lookupTimeout);
+    }
+
+    /** Runs the search once for all callers of the same {@link SearchResultCache#generation(SearchDTO) generation}. */
+    public SearchResultDTO search(SearchDTO searchDTO, long generation, Supplier<SearchResultDTO> loader) {
+        return searches.execute(new Flight(SearchResultCache.SearchKey.of(searchDTO), generation), loader);
+    }
+
+    public Optional<Hotel> findById(String hotelId, Supplier<Optional<Hotel>> loader) {
+        return lookups.execute(hotelId, loader);
+    }
+
+    private record Flight(SearchResultCache.SearchKey key, long generation) {}
+}
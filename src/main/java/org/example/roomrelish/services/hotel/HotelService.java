@@ -8,10 +8,13 @@ import org.jetbrains.annotations.TestOnly;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @TestOnly
 public interface HotelService {
     List<Hotel> getAllHotels();
+    List<HotelSummary> getHotelSummaries();
     Hotel findHotelById(String id);
     void createHotel(HotelDTO hotelDTO);
     void updateHotel(String id,HotelDTO hotelDTO);
@@ -30,4 +33,14 @@ public interface HotelService {
                            List<String> amenities
     );
 
+    SearchResultDTO findHotels(SearchDTO searchDTO);
+
+    List<SuggestionDTO> suggest(String prefix, int limit);
+
+    List<RoomCalendarDTO> getAvailabilityCalendar(String id, LocalDate from, LocalDate to);
+
+    List<FlexibleStayDTO> findFlexibleStays(String cityName, int nights, LocalDate from, LocalDate to, int countOfRooms, int options);
+
+    CompletableFuture<Void> findHotelsBatch(List<SearchDTO> searches, Consumer<BatchSearchResultDTO> onResult);
+
 }
@@ -3,20 +3,40 @@ package org.example.roomrelish.services.hotel;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.example.roomrelish.dto.*;
+import org.example.roomrelish.constants.ApplicationConstants;
+import org.example.roomrelish.exception.InvalidSearchException;
 import org.example.roomrelish.exception.ResourceNotFoundException;
 import org.example.roomrelish.models.*;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.HotelSearchQueryBuilder;
+import org.example.roomrelish.services.availability.AvailabilityCalendar;
+import org.example.roomrelish.services.availability.FlexibleStayFinder;
+import org.example.roomrelish.services.availability.ParallelAvailabilityExecutor;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.concurrent.OptimisticRetry;
+import org.springframework.data.geo.GeoResult;
 import org.springframework.stereotype.Service;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +44,17 @@ public class HotelServiceImpl implements HotelService {
 
     private final HotelRepository hotelRepository;
     private final CustomerRepository customerRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final ParallelAvailabilityExecutor availabilityExecutor;
+    private final SearchResultCache searchResultCache;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelGeoSearch hotelGeoSearch;
+    private final HotelSuggestionIndex hotelSuggestionIndex;
+    private final HotelCatalog hotelCatalog;
+    private final HotelRequestCoalescer requestCoalescer;
+    private final BatchSearchExecutor batchSearchExecutor;
+    private final RoomInventoryService roomInventory;
+    private final OptimisticRetry optimisticRetry;
     String hotelErrorMessage = "Hotel not found";
 
     Logger logger = Logger.getLogger(getClass().getName());
@@ -31,12 +62,19 @@ public class HotelServiceImpl implements HotelService {
 
     @Override
     public List<Hotel> getAllHotels() {
-        return hotelRepository.findAll();
+        return hotelCatalog.isLoaded() ? hotelCatalog.findAll() : hotelRepository.findAll();
+    }
+
+    @Override
+    public List<HotelSummary> getHotelSummaries() {
+        List<HotelSummary> hotels = hotelRepository.findAllSummaries();
+        hotels.forEach(hotel -> hotel.setAvailableRoomIds(roomIds(hotel).toList()));
+        return hotels;
     }
 
     @Override
     public Hotel findHotelById(String id) {
-        return hotelRepository.findById(id)
+        return readHotel(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Hotel", "Hotel Id", id));
     }
 
@@ -47,6 +85,10 @@ public class HotelServiceImpl implements HotelService {
         }
         Hotel hotel = HotelMapper.INSTANCE.toHotel(hotelDTO);
         hotelRepository.save(hotel);
+        hotelCatalog.publish(hotel);
+        hotelGeoIndex.put(hotel);
+        hotelSuggestionIndex.put(hotel);
+        searchResultCache.invalidate(hotel);
     }
 
 
@@ -56,11 +98,39 @@ public class HotelServiceImpl implements HotelService {
             throw new IllegalArgumentException("Invalid Hotel Details");
         }
 
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException(hotelErrorMessage));
+        Map<String, Integer> previousRoomCounts = new HashMap<>();
+        Hotel hotel = optimisticRetry.execute("update-hotel", () -> {
+            Hotel current = hotelRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException(hotelErrorMessage));
+
+            searchResultCache.invalidate(current);
+            previousRoomCounts.clear();
+            previousRoomCounts.putAll(roomCounts(current));
+            HotelMapper.INSTANCE.updateHotelFromDTO(hotelDTO, current);
+            hotelRepository.save(current);
+            return current;
+        });
+        // The month buckets copied the room count when they were created, so a changed count is carried into them
+        roomCounts(hotel).forEach((roomId, roomCount) -> {
+            Integer previousRoomCount = previousRoomCounts.get(roomId);
+            if (previousRoomCount != null && previousRoomCount.intValue() != roomCount) {
+                roomInventory.changeRoomCount(roomId, previousRoomCount, roomCount);
+            }
+        });
+        hotelCatalog.publish(hotel);
+        hotelGeoIndex.put(hotel);
+        hotelSuggestionIndex.put(hotel);
+        searchResultCache.invalidate(hotel);
 
-        HotelMapper.INSTANCE.updateHotelFromDTO(hotelDTO, hotel);
+    }
 
+    private static Map<String, Integer> roomCounts(Hotel hotel) {
+        Map<String, Integer> roomCounts = new HashMap<>();
+        if (hotel.getRooms() != null) {
+            hotel.getRooms().stream().filter(room -> room.getId() != null)
+                    .forEach(room -> roomCounts.put(room.getId(), room.getRoomCount()));
+        }
+        return roomCounts;
     }
 
     @Override
@@ -68,11 +138,17 @@ public class HotelServiceImpl implements HotelService {
         Hotel hotel = hotelRepository.findById(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Hotel", "Hotel Id", id));
         hotelRepository.delete(hotel);
+        hotelCatalog.remove(hotel.getId());
+        occupancyIndex.removeHotel(hotel);
+        roomInventory.removeHotel(hotel.getId());
+        hotelGeoIndex.remove(hotel.getId());
+        hotelSuggestionIndex.remove(hotel.getId());
+        searchResultCache.invalidate(hotel);
     }
 
     @Override
     public List<ReviewResponse> getReviews(String id) {
-        Hotel hotel = hotelRepository.findById(id)
+        Hotel hotel = readHotel(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel Id", id));
 
          List<GuestReview> guestReviews = hotel.getGuestReviews();
@@ -97,26 +173,27 @@ public class HotelServiceImpl implements HotelService {
 
     @Override
     public void addReview(String id, ReviewDTO reviewDTO) {
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel Id", id));
-
-        if (hotel.getGuestReviews() == null)
-            hotel.setGuestReviews(new ArrayList<>());
-
         GuestReview guestReview = GuestReview.builder()
                 .user(reviewDTO.getUserid())
                 .guestRating(reviewDTO.getRating())
                 .comment(reviewDTO.getComment())
                 .build();
-        hotel.getGuestReviews().add(guestReview);
-        hotelRepository.save(hotel);
+        Hotel hotel = optimisticRetry.execute("add-review", () -> {
+            Hotel current = hotelRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel Id", id));
+
+            if (current.getGuestReviews() == null)
+                current.setGuestReviews(new ArrayList<>());
+            current.getGuestReviews().add(guestReview);
+            hotelRepository.save(current);
+            return current;
+        });
+        hotelCatalog.publish(hotel);
     }
 
     @Transactional
     @Override
     public void addRoom(String id, RoomDTO roomDTO) {
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel id", id));
         Room room = Room.builder()
                 .id(new ObjectId().toString())
                 .roomType(roomDTO.getRoomType())
@@ -124,13 +201,20 @@ public class HotelServiceImpl implements HotelService {
                 .roomCount(roomDTO.getRoomCount())
                 .roomRate(roomDTO.getRoomRate())
                 .build();
-        List<Room> rooms = hotel.getRooms();
-        if (rooms == null) {
-            rooms = new ArrayList<>();
-            hotel.setRooms(rooms);
-        }
-        rooms.add(room);
-        hotelRepository.save(hotel);
+        Hotel hotel = optimisticRetry.execute("add-room", () -> {
+            Hotel current = hotelRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel id", id));
+            List<Room> rooms = current.getRooms();
+            if (rooms == null) {
+                rooms = new ArrayList<>();
+                current.setRooms(rooms);
+            }
+            rooms.add(room);
+            hotelRepository.save(current);
+            return current;
+        });
+        hotelCatalog.publish(hotel);
+        searchResultCache.invalidate(hotel);
     }
 
 
@@ -142,51 +226,274 @@ public class HotelServiceImpl implements HotelService {
                                       int priceRangeMin,
                                       double rating,
                                       List<String> amenities) {
+        return findHotels(SearchDTO.builder()
+                .cityName(cityName)
+                .checkInDate(checkInDate)
+                .checkOutDate(checkOutDate)
+                .countOfRooms(countOfRooms)
+                .priceRangeMax(priceRangeMax)
+                .priceRangeMin(priceRangeMin)
+                .rating(rating)
+                .amenities(amenities)
+                .build());
+    }
+
+    @Override
+    public SearchResultDTO findHotels(SearchDTO searchDTO) {
+        validate(searchDTO);
+        SearchResultDTO result = cachedSearch(searchDTO, () -> searchHotels(searchDTO));
+        return page(result, searchDTO);
+    }
+
+    /**
+     * Serves the search from the cache, sharing a miss with identical searches of the same cache generation. One that
+     * started before an invalidation of the city is neither joined by later callers nor cached.
+     */
+    private SearchResultDTO cachedSearch(SearchDTO searchDTO, Supplier<SearchResultDTO> loader) {
+        return searchResultCache.getOrCompute(searchDTO,
+                () -> requestCoalescer.search(searchDTO, searchResultCache.generation(searchDTO), loader));
+    }
+
+    /**
+     * Rejects a search before it reaches the cache: without a city or a point it would match every hotel, and the
+     * point, radius and count of nearest hotels must stay within ranges the geo search can serve.
+     */
+    static void validate(SearchDTO searchDTO) {
+        if (searchDTO == null || ((searchDTO.getCityName() == null || searchDTO.getCityName().isBlank())
+                && !HotelSearchQueryBuilder.hasLocation(searchDTO))) {
+            throw new InvalidSearchException("A search needs a city or a latitude and longitude");
+        }
+        if (searchDTO.getLatitude() != null && !(searchDTO.getLatitude() >= -90 && searchDTO.getLatitude() <= 90)) {
+            throw new InvalidSearchException("Latitude must be between -90 and 90");
+        }
+        if (searchDTO.getLongitude() != null && !(searchDTO.getLongitude() >= -180 && searchDTO.getLongitude() <= 180)) {
+            throw new InvalidSearchException("Longitude must be between -180 and 180");
+        }
+        if (searchDTO.getRadiusKm() != null
+                && !(searchDTO.getRadiusKm() > 0 && searchDTO.getRadiusKm() <= ApplicationConstants.MAX_SEARCH_RADIUS_KM)) {
+            throw new InvalidSearchException("Radius must be above 0 and at most " + ApplicationConstants.MAX_SEARCH_RADIUS_KM + " km");
+        }
+        if (searchDTO.getNearest() != null
+                && (searchDTO.getNearest() < 1 || searchDTO.getNearest() > ApplicationConstants.MAX_SEARCH_PAGE_SIZE)) {
+            throw new InvalidSearchException("Nearest must be between 1 and " + ApplicationConstants.MAX_SEARCH_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Cuts the requested page out of the full (cached) result without modifying it. A search without sort, page size
+     * or cursor gets the whole result as before; otherwise pages default to {@link ApplicationConstants#MAX_SEARCH_PAGE_SIZE}
+     * hotels ordered by distance for geo searches and by rating for the rest.
+     */
+    private SearchResultDTO page(SearchResultDTO result, SearchDTO searchDTO) {
+        if (searchDTO.getSort() == null && searchDTO.getPageSize() == null && searchDTO.getCursor() == null) {
+            return result;
+        }
+        boolean hasLocation = HotelSearchQueryBuilder.hasLocation(searchDTO);
+        SearchSort sort = searchDTO.getSort() != null ? searchDTO.getSort() : hasLocation ? SearchSort.DISTANCE : SearchSort.RATING;
+        if (sort == SearchSort.DISTANCE && !hasLocation) {
+            throw new InvalidSearchException("Sorting by distance needs a latitude and longitude");
+        }
+        int pageSize = searchDTO.getPageSize() != null ? searchDTO.getPageSize() : ApplicationConstants.MAX_SEARCH_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > ApplicationConstants.MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidSearchException("Page size must be between 1 and " + ApplicationConstants.MAX_SEARCH_PAGE_SIZE);
+        }
+
+        SearchRanker.Page page = SearchRanker.page(result.getHotels(), result.getDistancesKm(),
+                sort, pageSize, searchDTO.getCursor());
+        SearchResultDTO pageResult = new SearchResultDTO();
+        pageResult.setHotels(page.hotels());
+        pageResult.setRoomIds(result.getRoomIds().isEmpty() ? List.of()
+                : page.hotels().stream().flatMap(hotel -> hotel.getAvailableRoomIds().stream()).distinct().toList());
+        if (result.getDistancesKm() != null) {
+            Map<String, Double> distancesKm = new LinkedHashMap<>();
+            page.hotels().forEach(hotel -> distancesKm.put(hotel.getId(), result.getDistancesKm().get(hotel.getId())));
+            pageResult.setDistancesKm(distancesKm);
+        }
+        pageResult.setFacets(result.getFacets());
+        pageResult.setTotalHotels(result.getTotalHotels());
+        pageResult.setNextCursor(page.nextCursor());
+        return pageResult;
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return hotelSuggestionIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public List<RoomCalendarDTO> getAvailabilityCalendar(String id, LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)
+                || from.plusDays(ApplicationConstants.MAX_CALENDAR_NIGHTS).isBefore(to)) {
+            throw new InvalidSearchException("Calendar needs from before to, at most " + ApplicationConstants.MAX_CALENDAR_NIGHTS + " nights apart");
+        }
+        Hotel hotel = readHotel(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel", "Hotel Id", id));
+        return AvailabilityCalendar.of(hotel.getRooms(), roomInventory.staysByRoom(List.of(hotel.getId()), from, to), from, to);
+    }
+
+    @Override
+    public List<FlexibleStayDTO> findFlexibleStays(String cityName, int nights, LocalDate from, LocalDate to, int countOfRooms, int options) {
+        if (cityName == null || cityName.isBlank()) {
+            throw new InvalidSearchException("Flexible search needs a city");
+        }
+        if (nights < 1 || from == null || to == null || from.plusDays(nights).isAfter(to)
+                || from.plusDays(ApplicationConstants.MAX_CALENDAR_NIGHTS).isBefore(to)) {
+            throw new InvalidSearchException("The window must fit the stay and span at most " + ApplicationConstants.MAX_CALENDAR_NIGHTS + " nights");
+        }
+        if (countOfRooms < 1 || options < 1) {
+            throw new InvalidSearchException("Count of rooms and options must be positive");
+        }
+        List<FlexibleStayDTO> stays = new ArrayList<>();
+        List<Hotel> hotels = hotelCatalog.isLoaded() ? hotelCatalog.findByCity(cityName) : hotelRepository.findRoomsByCity(cityName.trim());
+        if (hotels.isEmpty()) return stays;
+        Map<String, List<RoomAvailability>> staysByRoom = roomInventory.staysByRoom(hotels.stream().map(Hotel::getId).toList(), from, to);
+        for (Hotel hotel : hotels) {
+            List<StayOptionDTO> cheapest = FlexibleStayFinder.cheapestStays(hotel.getRooms(), staysByRoom, from, to, nights, countOfRooms, options);
+            if (!cheapest.isEmpty()) {
+                stays.add(new FlexibleStayDTO(hotel.getId(), hotel.getHotelName(), cheapest));
+            }
+        }
+        stays.sort(Comparator.comparingLong(stay -> stay.getOptions().getFirst().getTotalPrice()));
+        return stays;
+    }
+
+    /**
+     * Runs the searches on the batch pool and hands each result to {@code onResult} as soon as it is ready. The
+     * candidates of every plain city search missing from the cache are fetched with a single {@code $in} query, made
+     * by the first such search and then filtered in memory per search; geo searches run on their own.
+     */
+    @Override
+    public CompletableFuture<Void> findHotelsBatch(List<SearchDTO> searches, Consumer<BatchSearchResultDTO> onResult) {
+        if (searches == null || searches.isEmpty() || searches.size() > ApplicationConstants.MAX_BATCH_SEARCHES
+                || searches.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidSearchException("A batch needs 1 to " + ApplicationConstants.MAX_BATCH_SEARCHES + " searches");
+        }
+        Map<String, String> citiesByKey = new LinkedHashMap<>();
+        searches.stream().filter(HotelServiceImpl::isCitySearch)
+                .forEach(searchDTO -> citiesByKey.putIfAbsent(SearchResultCache.normalizeCity(searchDTO.getCityName()), searchDTO.getCityName().trim()));
+        List<String> cities = List.copyOf(citiesByKey.values());
+        Supplier<Map<String, List<HotelSummary>>> candidates = SingletonSupplier.of(() -> hotelRepository.findSummariesByCities(cities)
+                .stream().collect(Collectors.groupingBy(hotel -> SearchResultCache.normalizeCity(hotel.getCityName()))));
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[searches.size()];
+        for (int index = 0; index < searches.size(); index++) {
+            int position = index;
+            SearchDTO searchDTO = searches.get(index);
+            tasks[index] = batchSearchExecutor.submit(() -> batchEntry(position, searchDTO, candidates)).thenAccept(onResult);
+        }
+        return CompletableFuture.allOf(tasks);
+    }
+
+    private BatchSearchResultDTO batchEntry(int index, SearchDTO searchDTO, Supplier<Map<String, List<HotelSummary>>> candidates) {
         try {
-            logger.config("Inside search");
-            List<Hotel> filteredHotels = hotelRepository.findByLocationCityName(cityName);
-            filteredHotels = filteringHotelsByAmenities(filteredHotels, amenities);
+            validate(searchDTO);
+            SearchResultDTO result = cachedSearch(searchDTO,
+                    () -> isCitySearch(searchDTO) ? searchCandidates(searchDTO, candidates.get()) : searchHotels(searchDTO));
+            return new BatchSearchResultDTO(index, searchDTO.getCityName(), page(result, searchDTO), null);
+        } catch (RuntimeException e) {
+            logger.warning("Batch search " + index + " failed: " + e.getMessage());
+            return new BatchSearchResultDTO(index, searchDTO.getCityName(), null, e.getMessage());
+        }
+    }
 
-            filteredHotels = filteringHotelsByRating(filteredHotels, rating);
+    /**
+     * The in-memory equivalent of {@link #searchHotels} over hotels prefetched for the search's city. With a stay,
+     * hotels left without a free room are dropped here, as the availability stages drop them from the Mongo search.
+     */
+    private SearchResultDTO searchCandidates(SearchDTO searchDTO, Map<String, List<HotelSummary>> candidates) {
+        List<HotelSummary> hotels = new ArrayList<>();
+        for (HotelSummary hotel : candidates.getOrDefault(SearchResultCache.normalizeCity(searchDTO.getCityName()), List.of())) {
+            if (HotelSearchQueryBuilder.matches(hotel, searchDTO)) {
+                // Shared by the searches of the batch, so each one sets room ids on its own copy
+                hotels.add(hotel.toBuilder().build());
+            }
+        }
+        boolean hasStay = HotelSearchQueryBuilder.hasStay(searchDTO);
+        if (hasStay) {
+            findAvailability(searchDTO.getCheckInDate(), searchDTO.getCheckOutDate(), searchDTO.getCountOfRooms(), hotels);
+            hotels.removeIf(hotel -> hotel.getAvailableRoomIds().isEmpty());
+        }
+        return toSearchResult(hotels, hasStay);
+    }
 
-            return filteringHotelsByCheckInCheckOutDate(filteredHotels, checkInDate, checkOutDate, countOfRooms);
+    private static boolean isCitySearch(SearchDTO searchDTO) {
+        return searchDTO.getCityName() != null && !searchDTO.getCityName().isBlank() && !HotelSearchQueryBuilder.hasLocation(searchDTO);
+    }
+
+    private SearchResultDTO searchHotels(SearchDTO searchDTO) {
+        try {
+            logger.config("Inside search");
+            if (HotelSearchQueryBuilder.hasLocation(searchDTO)) {
+                return searchNearby(searchDTO);
+            }
+            List<HotelSummary> filteredHotels = hotelRepository.searchHotels(searchDTO);
+
+            return filteringHotelsByCheckInCheckOutDate(filteredHotels, searchDTO.getCheckInDate(), searchDTO.getCheckOutDate(), searchDTO.getCountOfRooms());
 
         } catch (Exception e) {
             throw new IllegalArgumentException("An error occurred while searching for hotels.", e);
         }
     }
 
-    public SearchResultDTO filteringHotelsByCheckInCheckOutDate(List<Hotel> filteredHotels, LocalDate checkInDate, LocalDate checkOutDate, int countOfRooms) {
+    private SearchResultDTO searchNearby(SearchDTO searchDTO) {
+        List<GeoResult<HotelSummary>> nearbyHotels = hotelGeoSearch.search(searchDTO);
+        Map<String, Double> distancesKm = new LinkedHashMap<>();
+        nearbyHotels.forEach(result -> distancesKm.put(result.getContent().getId(), result.getDistance().getValue()));
+
+        SearchResultDTO searchResultDTO = filteringHotelsByCheckInCheckOutDate(nearbyHotels.stream().map(GeoResult::getContent).toList(),
+                searchDTO.getCheckInDate(), searchDTO.getCheckOutDate(), searchDTO.getCountOfRooms());
+        searchResultDTO.setDistancesKm(distancesKm);
+        return searchResultDTO;
+    }
+
+    public SearchResultDTO filteringHotelsByCheckInCheckOutDate(List<HotelSummary> filteredHotels, LocalDate checkInDate, LocalDate checkOutDate, int countOfRooms) {
+
+        boolean hasStay = (checkInDate != null) && (checkOutDate != null);
+        if (hasStay) {
+            findAvailability(checkInDate, checkOutDate, countOfRooms, filteredHotels);
+        }
+        return toSearchResult(filteredHotels, hasStay);
+    }
 
-        List<String> availableRoomIds = new ArrayList<>();
-        if ((checkInDate != null) && (checkOutDate != null)) {
-            findAvailability(checkInDate, checkOutDate, countOfRooms, availableRoomIds, filteredHotels);
+    private SearchResultDTO toSearchResult(List<HotelSummary> filteredHotels, boolean hasStay) {
+        LinkedHashSet<String> availableRoomIds = new LinkedHashSet<>();
+        SearchFacetCounter facets = new SearchFacetCounter();
+        for (HotelSummary hotel : filteredHotels) {
+            if (hasStay) {
+                availableRoomIds.addAll(hotel.getAvailableRoomIds());
+            } else {
+                hotel.setAvailableRoomIds(roomIds(hotel).toList());
+            }
+            facets.add(hotel);
         }
-        LinkedHashSet<String> set = new LinkedHashSet<>(availableRoomIds);
-        ArrayList<String> availableRoomIdsList = new ArrayList<>(set);
         SearchResultDTO searchResultDTO = new SearchResultDTO();
         searchResultDTO.setHotels(filteredHotels);
-        searchResultDTO.setRoomIds(availableRoomIdsList);
+        searchResultDTO.setRoomIds(new ArrayList<>(availableRoomIds));
+        searchResultDTO.setFacets(facets.toDTO());
+        searchResultDTO.setTotalHotels(filteredHotels.size());
 
         return searchResultDTO;
     }
 
-    public void findAvailability(LocalDate userCheckInDate, LocalDate userCheckOutDate, int countOfRooms, List<String> availableRoomIds, List<Hotel> filteredHotels) {
-        availableRoomIds.addAll(
-                filteredHotels.stream().flatMap(hotel -> hotel.getRooms().stream()).filter(room -> {
-                    int initialRoomCount = room.getRoomCount();
-                    int roomCount;
-                    if (room.getRoomAvailabilityList() != null) {
-                        roomCount = room.getRoomAvailabilityList().stream()
-                                .reduce(initialRoomCount,
-                                        (result, availability) -> findAvailabilityWithTheList(availability, userCheckInDate, userCheckOutDate, result),
-                                        Integer::sum);
-                    } else {
-                        roomCount = initialRoomCount;
-                    }
-                    return room.getRoomAvailabilityList() == null || roomCount > countOfRooms;
-                }).map(Room::getId).toList()
-        );
+    public void findAvailability(LocalDate userCheckInDate, LocalDate userCheckOutDate, int countOfRooms, List<HotelSummary> filteredHotels) {
+        availabilityExecutor.forEach(filteredHotels,
+                hotel -> hotel.getRooms() == null ? 0 : hotel.getRooms().size(),
+                hotel -> hotel.setAvailableRoomIds(hotel.getRooms() == null ? List.of() : hotel.getRooms().stream().filter(room -> {
+                    int freeRooms = room.getRoomCount() - occupancyIndex.maxOccupancy(room.getId(), userCheckInDate, userCheckOutDate);
+                    return freeRooms >= countOfRooms;
+                }).map(Room::getId).toList()));
+    }
+
+    /**
+     * Reads from the catalog, falling back to Mongo before it is loaded or for hotels created since the last poll;
+     * concurrent fallbacks for the same hotel share one read.
+     */
+    private Optional<Hotel> readHotel(String id) {
+        return hotelCatalog.findById(id).or(() -> requestCoalescer.findById(id, () -> hotelRepository.findById(id)));
+    }
+
+    private static Stream<String> roomIds(HotelSummary hotel) {
+        return hotel.getRooms() == null ? Stream.empty() : hotel.getRooms().stream().filter(room -> room.getRoomCount() > 0).map(Room::getId);
     }
 
     public int findAvailabilityWithTheList(RoomAvailability availability, LocalDate userCheckInDate, LocalDate userCheckOutDate, int roomCount) {
@@ -197,20 +504,4 @@ public class HotelServiceImpl implements HotelService {
         return roomCount;
     }
 
-    private List<Hotel> filteringHotelsByRating(List<Hotel> filteredHotels, double rating) {
-        if (rating > 0) {
-            filteredHotels = filteredHotels.stream().filter(hotel -> hotel.getRating() > rating).collect(Collectors.toList());
-        }
-        return filteredHotels;
-    }
-
-    private List<Hotel> filteringHotelsByAmenities(List<Hotel> filteredHotels, List<String> amenities) {
-        if (amenities != null) {
-            filteredHotels = filteredHotels.stream().filter(hotel -> new HashSet<>(hotel.getAmenities()).containsAll(amenities)).toList();
-        }
-        return filteredHotels;
-    }
-
 }
-
-
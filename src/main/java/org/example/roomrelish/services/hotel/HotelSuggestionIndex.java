@@ -0,0 +1,133 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.dto.SuggestionDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.repository.HotelRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * Prefix suggestions for city and hotel names, answered from a {@link SuggestionTrie} held in memory. A hotel
+ * weighs one plus its review count; a city weighs the sum over its hotels. Names are matched case-insensitively
+ * from their start or from the start of any later word.
+ */
+@Component
+public class HotelSuggestionIndex {
+
+    private final HotelRepository hotelRepository;
+    private final int maxResults;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie<SuggestionDTO> trie;
+    private final Map<String, List<Entry>> entriesByHotel = new HashMap<>();
+
+    Logger logger = Logger.getLogger(getClass().getName());
+
+    private record Entry(String key, SuggestionDTO suggestion, long weight) {}
+
+    public HotelSuggestionIndex(HotelRepository hotelRepository,
+                                @Value("${search.suggest.max-results}") int maxResults) {
+        this.hotelRepository = hotelRepository;
+        this.maxResults = maxResults;
+        this.trie = new SuggestionTrie<>(maxResults);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Hotel> hotels = hotelRepository.findAllNames();
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            entriesByHotel.clear();
+            hotels.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Suggestion index built for " + hotels.size() + " hotels");
+    }
+
+    public void put(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            putLocked(hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String hotelId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(hotelId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Up to {@code limit} cities and hotels starting with {@code prefix}, most popular first. */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+        List<SuggestionTrie.Completion<SuggestionDTO>> completions;
+        lock.readLock().lock();
+        try {
+            completions = trie.complete(key, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<SuggestionDTO> suggestions = new LinkedHashSet<>();
+        for (SuggestionTrie.Completion<SuggestionDTO> completion : completions) {
+            suggestions.add(completion.value());
+            if (suggestions.size() == limit) break;
+        }
+        return List.copyOf(suggestions);
+    }
+
+    private void putLocked(Hotel hotel) {
+        removeLocked(hotel.getId());
+        if (hotel.getId() == null) return;
+        long weight = 1L + Math.max(0, hotel.getNumReviews());
+        List<Entry> entries = new ArrayList<>();
+        addEntries(entries, SuggestionDTO.Type.HOTEL, hotel.getHotelName(), weight);
+        if (hotel.getLocation() != null) {
+            addEntries(entries, SuggestionDTO.Type.CITY, hotel.getLocation().getCityName(), weight);
+        }
+        entries.forEach(entry -> trie.add(entry.key(), entry.suggestion(), entry.weight()));
+        entriesByHotel.put(hotel.getId(), entries);
+    }
+
+    private void removeLocked(String hotelId) {
+        List<Entry> previous = hotelId == null ? null : entriesByHotel.remove(hotelId);
+        if (previous != null) {
+            previous.forEach(entry -> trie.add(entry.key(), entry.suggestion(), -entry.weight()));
+        }
+    }
+
+    /** One entry for the whole name and one for each later word, so "coro" finds "Taj Coromandel". */
+    private static void addEntries(List<Entry> entries, SuggestionDTO.Type type, String text, long weight) {
+        String key = normalize(text);
+        if (key.isEmpty()) return;
+        SuggestionDTO suggestion = new SuggestionDTO(type, text.trim());
+        entries.add(new Entry(key, suggestion, weight));
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            entries.add(new Entry(key.substring(i + 1), suggestion, weight));
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.constants.ApplicationConstants;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchFacetsDTO;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Accumulates the facet counts of a search result one hotel at a time. */
+final class SearchFacetCounter {
+
+    private final Map<String, Long> amenities = new TreeMap<>();
+    private final Map<Integer, Long> ratings = new TreeMap<>();
+    private final Map<Integer, Long> prices = new TreeMap<>();
+    private final Map<String, Long> hotelTypes = new TreeMap<>();
+
+    void add(HotelSummary hotel) {
+        if (hotel.getAmenities() != null) {
+            new HashSet<>(hotel.getAmenities()).forEach(amenity -> increment(amenities, amenity));
+        }
+        increment(ratings, (int) Math.floor(hotel.getRating()));
+        int bucketWidth = ApplicationConstants.FACET_PRICE_BUCKET_WIDTH;
+        increment(prices, Math.floorDiv(hotel.getPriceStartingFrom(), bucketWidth) * bucketWidth);
+        if (hotel.getHotelType() != null) {
+            increment(hotelTypes, hotel.getHotelType());
+        }
+    }
+
+    SearchFacetsDTO toDTO() {
+        return new SearchFacetsDTO(amenities, ratings, prices, hotelTypes);
+    }
+
+    private static <K> void increment(Map<K, Long> counts, K key) {
+        counts.merge(key, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchSort;
+import org.example.roomrelish.exception.InvalidSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Picks one page of a search result in a sort order with a bounded heap, so a page of {@code k} hotels out of
+ * {@code n} costs O(n log k) rather than a full sort. Pages are addressed by a keyset cursor holding the sort key and
+ * id of the last hotel served; hotels are ordered by that key and then by id, so the next page starts right after
+ * the cursor even when the result changed in between.
+ */
+final class SearchRanker {
+
+    record Page(List<HotelSummary> hotels, String nextCursor) {}
+
+    private record Ranked(double key, String id, HotelSummary hotel) {}
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::key).thenComparing(Ranked::id);
+
+    private SearchRanker() {}
+
+    static Page page(List<HotelSummary> hotels, Map<String, Double> distancesKm, SearchSort sort, int pageSize, String cursor) {
+        Ranked after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, sort);
+        PriorityQueue<Ranked> worstOnTop = new PriorityQueue<>(pageSize + 1, ORDER.reversed());
+        for (HotelSummary hotel : hotels) {
+            Ranked ranked = new Ranked(key(hotel, distancesKm, sort), hotel.getId(), hotel);
+            if (after != null && ORDER.compare(ranked, after) <= 0) continue;
+            if (worstOnTop.size() <= pageSize) {
+                worstOnTop.add(ranked);
+            } else if (ORDER.compare(ranked, worstOnTop.peek()) < 0) {
+                worstOnTop.poll();
+                worstOnTop.add(ranked);
+            }
+        }
+        boolean hasMore = worstOnTop.size() > pageSize;
+        if (hasMore) worstOnTop.poll();
+
+        List<Ranked> page = new ArrayList<>(worstOnTop);
+        page.sort(ORDER);
+        String nextCursor = hasMore ? encodeCursor(sort, page.getLast()) : null;
+        return new Page(page.stream().map(Ranked::hotel).toList(), nextCursor);
+    }
+
+    /** Ascending sort key; descending orders are negated. Missing distances sort last. */
+    private static double key(HotelSummary hotel, Map<String, Double> distancesKm, SearchSort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> hotel.getPriceStartingFrom();
+            case PRICE_DESC -> -hotel.getPriceStartingFrom();
+            case RATING -> -hotel.getRating();
+            case POPULARITY -> -hotel.getNumReviews();
+            case DISTANCE -> distancesKm == null ? Double.MAX_VALUE
+                    : distancesKm.getOrDefault(hotel.getId(), Double.MAX_VALUE);
+        };
+    }
+
+    private static String encodeCursor(SearchSort sort, Ranked last) {
+        String cursor = sort.name() + ":" + last.key() + ":" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Ranked decodeCursor(String cursor, SearchSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length == 3 && parts[0].equals(sort.name())) {
+                return new Ranked(Double.parseDouble(parts[1]), parts[2], null);
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw new InvalidSearchException("Invalid cursor for sort " + sort);
+    }
+}
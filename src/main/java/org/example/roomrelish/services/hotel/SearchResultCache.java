@@ -0,0 +1,204 @@
+package org.example.roomrelish.services.hotel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.dto.SearchResultDTO;
+import org.example.roomrelish.models.Hotel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of search results keyed on the normalized search (city case-folded, amenities sorted).
+ * Entries are weighed by the number of hotels and room ids they hold and are dropped per city whenever a
+ * booking or a hotel change can alter that city's results. Searches without a city are tagged with
+ * {@link #ALL_CITIES} and dropped on every change.
+ */
+@Component
+public class SearchResultCache {
+
+    static final String ALL_CITIES = "*";
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long timeToLiveMillis;
+
+    private final LinkedHashMap<SearchKey, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<SearchKey>> keysByCity = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private long globalGeneration;
+    private long weight;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${search.cache.max-entries}") int maxEntries,
+                             @Value("${search.cache.max-weight}") long maxWeight,
+                             @Value("${search.cache.time-to-live}") Duration timeToLive) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.hits = meterRegistry.counter("search.cache.hits");
+        this.misses = meterRegistry.counter("search.cache.misses");
+        this.evictions = meterRegistry.counter("search.cache.evictions");
+        this.invalidations = meterRegistry.counter("search.cache.invalidations");
+        Gauge.builder("search.cache.entries", this, SearchResultCache::size).register(meterRegistry);
+        Gauge.builder("search.cache.weight", this, SearchResultCache::weight).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for the search or computes and caches it. A result computed while its city was
+     * invalidated is returned to the caller but not cached, so a concurrent booking never leaves a stale entry.
+     */
+    public SearchResultDTO getOrCompute(SearchDTO searchDTO, Supplier<SearchResultDTO> loader) {
+        SearchKey key = SearchKey.of(searchDTO);
+        long generation;
+        synchronized (this) {
+            CachedResult cached = entries.get(key);
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return cached.result();
+            }
+            if (cached != null) {
+                remove(key);
+            }
+            misses.increment();
+            generation = generation(key.city());
+        }
+        SearchResultDTO result = loader.get();
+        synchronized (this) {
+            if (generation(key.city()) == generation) {
+                put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The invalidation generation of the search's city, which moves on whenever that city's results are dropped.
+     * Loads shared between callers are keyed on it, so a caller never waits on a load begun before an invalidation.
+     */
+    public synchronized long generation(SearchDTO searchDTO) {
+        return generation(SearchKey.of(searchDTO).city());
+    }
+
+    /** Drops the cached searches whose results may contain or exclude the given hotel. */
+    public void invalidate(Hotel hotel) {
+        String cityName = hotel.getLocation() != null ? hotel.getLocation().getCityName() : null;
+        invalidateCity(cityName);
+    }
+
+    public synchronized void invalidateCity(String cityName) {
+        String city = normalizeCity(cityName);
+        if (city.equals(ALL_CITIES)) {
+            invalidateAll();
+            return;
+        }
+        dropCity(city);
+        dropCity(ALL_CITIES);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations.increment(entries.size());
+        entries.clear();
+        keysByCity.clear();
+        globalGeneration++;
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    private long generation(String city) {
+        return globalGeneration + generations.getOrDefault(city, 0L);
+    }
+
+    private void dropCity(String city) {
+        generations.merge(city, 1L, Long::sum);
+        Set<SearchKey> keys = keysByCity.remove(city);
+        if (keys == null) return;
+        for (SearchKey key : keys) {
+            CachedResult removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.weight();
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void put(SearchKey key, SearchResultDTO result) {
+        long entryWeight = weigh(result);
+        if (entryWeight > maxWeight) return;
+        remove(key);
+        entries.put(key, new CachedResult(result, entryWeight, System.currentTimeMillis() + timeToLiveMillis));
+        keysByCity.computeIfAbsent(key.city(), city -> new HashSet<>()).add(key);
+        weight += entryWeight;
+
+        Iterator<Map.Entry<SearchKey, CachedResult>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            Map.Entry<SearchKey, CachedResult> entry = eldest.next();
+            eldest.remove();
+            weight -= entry.getValue().weight();
+            Set<SearchKey> cityKeys = keysByCity.get(entry.getKey().city());
+            if (cityKeys != null) cityKeys.remove(entry.getKey());
+            evictions.increment();
+        }
+    }
+
+    private void remove(SearchKey key) {
+        CachedResult removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+            Set<SearchKey> cityKeys = keysByCity.get(key.city());
+            if (cityKeys != null) cityKeys.remove(key);
+        }
+    }
+
+    private static long weigh(SearchResultDTO result) {
+        long hotels = result.getHotels() != null ? result.getHotels().size() : 0;
+        long roomIds = result.getRoomIds() != null ? result.getRoomIds().size() : 0;
+        long distances = result.getDistancesKm() != null ? result.getDistancesKm().size() : 0;
+        return 1 + hotels + roomIds + distances;
+    }
+
+    static String normalizeCity(String cityName) {
+        return cityName == null || cityName.isBlank() ? ALL_CITIES : cityName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedResult(SearchResultDTO result, long weight, long expiresAt) {}
+
+    record SearchKey(String city, LocalDate checkInDate, LocalDate checkOutDate, int countOfRooms,
+                     int priceRangeMax, int priceRangeMin, double rating, List<String> amenities,
+                     Double latitude, Double longitude, Double radiusKm, Integer nearest) {
+
+        static SearchKey of(SearchDTO searchDTO) {
+            List<String> amenities = searchDTO.getAmenities() == null ? List.of()
+                    : searchDTO.getAmenities().stream().distinct().sorted().toList();
+            return new SearchKey(normalizeCity(searchDTO.getCityName()), searchDTO.getCheckInDate(), searchDTO.getCheckOutDate(),
+                    searchDTO.getCountOfRooms(), searchDTO.getPriceRangeMax(), searchDTO.getPriceRangeMin(),
+                    searchDTO.getRating(), amenities,
+                    searchDTO.getLatitude(), searchDTO.getLongitude(), searchDTO.getRadiusKm(), searchDTO.getNearest());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.roomrelish.services.hotel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compressed (radix) trie from keys to weighted values. Every node caches the {@code maxResults} heaviest values
+ * below it, so a completion is a walk down the prefix followed by a copy of that list. Updates refresh the caches
+ * along the changed path only. Not thread-safe.
+ */
+final class SuggestionTrie<T> {
+
+    record Completion<T>(String key, T value, long weight) {}
+
+    private static final Comparator<Completion<?>> HEAVIEST_FIRST =
+            Comparator.<Completion<?>>comparingLong(Completion::weight).reversed().thenComparing(Completion::key);
+
+    private final int maxResults;
+    private final Node<T> root = new Node<>("");
+
+    SuggestionTrie(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    /** Adds {@code delta} to the weight of {@code value} under {@code key}; the value is dropped once its weight is not positive. */
+    void add(String key, T value, long delta) {
+        List<Node<T>> path = new ArrayList<>();
+        path.add(root);
+        Node<T> node = root;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            Node<T> child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                if (delta <= 0) return;
+                child = new Node<>(rest);
+                node.children.put(rest.charAt(0), child);
+            } else {
+                int common = commonPrefixLength(child.edge, rest);
+                if (common < child.edge.length()) {
+                    if (delta <= 0) return;
+                    child = split(node, child, common);
+                }
+            }
+            path.add(child);
+            node = child;
+            rest = rest.substring(child.edge.length());
+        }
+
+        if (node.values == null) node.values = new HashMap<>();
+        node.key = key;
+        if (node.values.merge(value, delta, Long::sum) <= 0) {
+            node.values.remove(value);
+        }
+        if (node.values.isEmpty()) node.values = null;
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<T> current = path.get(i);
+            if (i > 0 && current.values == null && current.children.size() <= 1) {
+                Node<T> parent = path.get(i - 1);
+                if (current.children.isEmpty()) {
+                    parent.children.remove(current.edge.charAt(0));
+                } else {
+                    Node<T> onlyChild = current.children.values().iterator().next();
+                    onlyChild.edge = current.edge + onlyChild.edge;
+                    parent.children.put(onlyChild.edge.charAt(0), onlyChild);
+                }
+                continue;
+            }
+            refreshTop(current);
+        }
+    }
+
+    /** The heaviest values whose key starts with {@code prefix}, at most {@code limit} of them. */
+    List<Completion<T>> complete(String prefix, int limit) {
+        Node<T> node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node<T> child = node.children.get(rest.charAt(0));
+            if (child == null) return List.of();
+            if (rest.length() <= child.edge.length()) {
+                if (!child.edge.startsWith(rest)) return List.of();
+                rest = "";
+            } else {
+                if (!rest.startsWith(child.edge)) return List.of();
+                rest = rest.substring(child.edge.length());
+            }
+            node = child;
+        }
+        return List.copyOf(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    void clear() {
+        root.children.clear();
+        root.values = null;
+        root.top = List.of();
+    }
+
+    private Node<T> split(Node<T> parent, Node<T> child, int at) {
+        Node<T> middle = new Node<>(child.edge.substring(0, at));
+        child.edge = child.edge.substring(at);
+        middle.children.put(child.edge.charAt(0), child);
+        middle.top = child.top;
+        parent.children.put(middle.edge.charAt(0), middle);
+        return middle;
+    }
+
+    private void refreshTop(Node<T> node) {
+        List<Completion<T>> candidates = new ArrayList<>();
+        if (node.values != null) {
+            node.values.forEach((value, weight) -> candidates.add(new Completion<>(node.key, value, weight)));
+        }
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+        candidates.sort(HEAVIEST_FIRST);
+        node.top = List.copyOf(candidates.subList(0, Math.min(maxResults, candidates.size())));
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    private static final class Node<T> {
+        private String edge;
+        private String key;
+        private final Map<Character, Node<T>> children = new HashMap<>();
+        private Map<T, Long> values;
+        private List<Completion<T>> top = List.of();
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+}
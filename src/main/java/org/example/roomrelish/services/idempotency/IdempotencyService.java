@@ -0,0 +1,185 @@
+package org.example.roomrelish.services.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roomrelish.exception.IdempotencyKeyReusedException;
+import org.example.roomrelish.exception.RequestInProgressException;
+import org.example.roomrelish.models.IdempotencyRecord;
+import org.example.roomrelish.models.IdempotencyStatus;
+import org.example.roomrelish.repository.IdempotencyRecordRepository;
+import org.example.roomrelish.services.concurrent.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request made with an {@code Idempotency-Key} at most once and answers its retries with the stored response.
+ * Keys are scoped to the authenticated caller, so two clients choosing the same key never see each other's responses.
+ * Completed responses are looked up in a bounded map of the most recent ones, then in the {@code idempotency_keys}
+ * collection. Duplicates arriving while the first is still running wait for it on this instance; on another instance
+ * they get a {@link RequestInProgressException}. A request that fails is forgotten, so it can be retried. Reusing a
+ * key for a different request is rejected with {@link IdempotencyKeyReusedException}.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<String, IdempotencyRecord> inFlight;
+    private final Duration cacheTimeToLive;
+    private final Duration inProgressTimeout;
+    private final Map<String, IdempotencyRecord> recent;
+
+    private final Counter executed;
+    private final Counter replayedFromMemory;
+    private final Counter replayedFromStore;
+    private final Counter rejected;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.cache.max-entries}") int maxEntries,
+                              @Value("${idempotency.cache.time-to-live}") Duration cacheTimeToLive,
+                              @Value("${idempotency.in-progress-timeout}") Duration inProgressTimeout) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.inFlight = new SingleFlight<>(meterRegistry, "idempotency", inProgressTimeout);
+        this.cacheTimeToLive = cacheTimeToLive;
+        this.inProgressTimeout = inProgressTimeout;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.executed = outcome(meterRegistry, "executed");
+        this.replayedFromMemory = outcome(meterRegistry, "replayed-memory");
+        this.replayedFromStore = outcome(meterRegistry, "replayed-store");
+        this.rejected = outcome(meterRegistry, "rejected");
+        Gauge.builder("idempotency.cache.size", this, IdempotencyService::cacheSize).register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.requests").tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} for the caller's first request with this key to the endpoint and returns its response, or
+     * the response stored for it; without a key the action simply runs.
+     */
+    public <T> T execute(String endpoint, String caller, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = endpoint + ":" + caller + ":" + key;
+        String fingerprint = fingerprint(caller, request);
+        IdempotencyRecord record = inFlight.execute(id, () -> load(id, fingerprint, action));
+        if (!fingerprint.equals(record.getFingerprint())) {
+            rejected.increment();
+            throw new IdempotencyKeyReusedException(HEADER + " " + key + " was already used for a different request");
+        }
+        return read(record.getResponse(), responseType);
+    }
+
+    private IdempotencyRecord load(String id, String fingerprint, Supplier<?> action) {
+        IdempotencyRecord cached = cached(id);
+        if (cached != null) {
+            replayedFromMemory.increment();
+            return cached;
+        }
+        IdempotencyRecord stored = repository.findById(id).orElse(null);
+        if (stored != null && stored.getStatus() == IdempotencyStatus.COMPLETED) {
+            return replayStored(stored);
+        }
+
+        Instant now = Instant.now();
+        if (!repository.claim(id, fingerprint, now, now.minus(inProgressTimeout))) {
+            IdempotencyRecord current = repository.findById(id).orElse(null);
+            if (current != null && current.getStatus() == IdempotencyStatus.COMPLETED) {
+                return replayStored(current);
+            }
+            if (current != null && !fingerprint.equals(current.getFingerprint())) {
+                return current;
+            }
+            throw new RequestInProgressException("A request with this " + HEADER + " is still being processed");
+        }
+
+        Object result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            repository.deleteById(id);
+            throw e;
+        }
+        String response = write(result);
+        repository.complete(id, response);
+        executed.increment();
+        IdempotencyRecord completed = new IdempotencyRecord(id, fingerprint, IdempotencyStatus.COMPLETED, now, response);
+        remember(completed);
+        return completed;
+    }
+
+    private IdempotencyRecord replayStored(IdempotencyRecord stored) {
+        replayedFromStore.increment();
+        remember(stored);
+        return stored;
+    }
+
+    private synchronized IdempotencyRecord cached(String id) {
+        IdempotencyRecord record = recent.get(id);
+        if (record != null && record.getStartedAt().plus(cacheTimeToLive).isBefore(Instant.now())) {
+            recent.remove(id);
+            return null;
+        }
+        return record;
+    }
+
+    private synchronized void remember(IdempotencyRecord record) {
+        recent.put(record.getId(), record);
+    }
+
+    private synchronized int cacheSize() {
+        return recent.size();
+    }
+
+    private String fingerprint(String caller, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(caller.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response", e);
+        }
+    }
+}
@@ -8,15 +8,19 @@ import org.example.roomrelish.repository.BookingRepository;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
 import org.example.roomrelish.repository.PaymentRepository;
-import org.example.roomrelish.services.email.EmailService;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.booking.BookingHoldService;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.SearchResultCache;
 import org.springframework.stereotype.Service;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 @Service
@@ -25,8 +29,14 @@ public class PaymentServiceImpl implements PaymentService {
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
     private final HotelRepository hotelRepository;
-    private final EmailService emailService;
+    private final EmailOutbox emailOutbox;
+    private final EmailTemplates emailTemplates;
     private final CustomerRepository customerRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final SearchResultCache searchResultCache;
+    private final RoomInventoryService roomInventory;
+    private final HotelWriteQueue hotelWrites;
+    private final BookingHoldService bookingHolds;
     Logger logger = Logger.getLogger(getClass().getName());
 
     
@@ -49,11 +59,16 @@ public class PaymentServiceImpl implements PaymentService {
         Customer customer = customerRepository.findById(currentPayment.getUserId())
                 .orElseThrow(()-> new ResourceNotFoundException("Customer", "customer id", currentPayment.getUserId()));
 
+        // A no-op while the booking's hold stands. Takes the rooms again if the hold ran out; then fails with
+        // RoomUnavailableException, before anything is written, when a night of the stay is sold out
+        hotelWrites.reserve(currentHotel.getId(), currentRoom, RoomAvailability.of(currentBooking));
+        Payment savedPayment = markPaid(currentRoom, currentBooking, currentPayment);
+        modifyRoomCountForConfirmBooking(currentRoom, currentBooking);
 
-        modifyRoomCountForConfirmBooking(currentRoom, currentBooking, currentHotel);
-        sendPaymentConfirmationEmail(customer,currentBooking,currentHotel,currentPayment);
-
-        return saveBookingAndPayment(currentHotel, currentPayment);
+        bookingHolds.confirmed(bookingId);
+        sendPaymentConfirmationEmail(customer,currentBooking,currentHotel,savedPayment);
+        searchResultCache.invalidate(currentHotel);
+        return savedPayment;
     }
 
     public Payment setPaymentStatus(String bookingId)  {
@@ -62,28 +77,31 @@ public class PaymentServiceImpl implements PaymentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "payment id", bookingId));
         currentPayment.setBookingConfirmedDateTime(LocalDateTime.now());
         currentPayment.setPaymentStatus(true);
+        currentPayment.setHoldExpiresAt(null);
         return currentPayment;
     }
 
-    public Payment saveBookingAndPayment(Hotel currentHotel, Payment currentPayment) {
-        hotelRepository.save(currentHotel);
-        return paymentRepository.save(currentPayment);
+    /**
+     * Flips the payment to paid only while it is still unpaid, so an expiry of its hold racing this confirmation
+     * either finds it paid and leaves it, or has deleted it first; then the rooms taken above are given back and
+     * nothing is written. A payment that was paid already is returned as stored.
+     */
+    Payment markPaid(Room currentRoom, Booking currentBooking, Payment currentPayment) {
+        if (paymentRepository.markPaid(currentPayment)) {
+            return currentPayment;
+        }
+        Optional<Payment> storedPayment = paymentRepository.findByBookingId(currentPayment.getBookingId());
+        if (storedPayment.isPresent() && storedPayment.get().isPaymentStatus()) {
+            return storedPayment.get();
+        }
+        roomInventory.release(currentRoom.getId(), currentBooking.getId(),
+                currentBooking.getCheckInDate(), currentBooking.getCheckOutDate(), currentBooking.getNumOfRooms());
+        logger.info("Hold of booking " + currentBooking.getId() + " expired while it was being paid");
+        throw new ResourceNotFoundException("Payment", "booking id", currentBooking.getId());
     }
 
-    public void modifyRoomCountForConfirmBooking(Room currentRoom, Booking currentBooking, Hotel currentHotel) {
-        List<RoomAvailability> roomAvailabilityList = currentRoom.getRoomAvailabilityList();
-
-        if (roomAvailabilityList == null) {
-            roomAvailabilityList = new ArrayList<>();
-            currentRoom.setRoomAvailabilityList(roomAvailabilityList);
-        }
-        RoomAvailability roomAvailability = new RoomAvailability();
-        roomAvailability.setBookingId(currentBooking.getId());
-        roomAvailability.setCheckInDate(currentBooking.getCheckInDate());
-        roomAvailability.setCheckOutDate(currentBooking.getCheckOutDate());
-        roomAvailability.setRoomCount(currentBooking.getNumOfRooms());
-        currentRoom.getRoomAvailabilityList().add(roomAvailability);
-        currentHotel.setRooms(currentHotel.getRooms());
+    public void modifyRoomCountForConfirmBooking(Room currentRoom, Booking currentBooking) {
+        occupancyIndex.book(currentRoom.getId(), RoomAvailability.of(currentBooking));
     }
 
     @Override
@@ -106,6 +124,7 @@ public class PaymentServiceImpl implements PaymentService {
             return "Cancelled booking and the amount refunded will be " + (currentBooking.getTotalAmount() - chargesAmount);
         } else {
             logger.info("Payment Status is false");
+            bookingHolds.release(currentPayment);
             deleteBookingAndPayment(currentBooking, currentPayment);
             return "Booking details deleted";
         }
@@ -118,8 +137,8 @@ public class PaymentServiceImpl implements PaymentService {
         Room currentRoom = currentHotel.getRooms().stream()
                 .filter(room -> room.getId().equals(currentPayment.getRoomId()))
                 .findFirst().orElseThrow(() -> new ResourceNotFoundException("Room", "room id", currentPayment.getRoomId()));
-        modifyRoomCountForDeleteBooking(currentBooking, currentRoom, currentHotel);
-        hotelRepository.save(currentHotel);
+        modifyRoomCountForDeleteBooking(currentBooking, currentRoom);
+        searchResultCache.invalidate(currentHotel);
         deleteBookingAndPayment(currentBooking, currentPayment);
 
         LocalDate checkInDate = currentBooking.getCheckInDate();
@@ -130,6 +149,7 @@ public class PaymentServiceImpl implements PaymentService {
         } else if (dayDifference == 1) {
             chargesAmount =  ApplicationConstants.DEFAULT_CANCELLATION_CHARGE * currentBooking.getTotalAmount();
         }
+        sendCancellationEmail(currentPayment, currentBooking, currentHotel, chargesAmount);
 
         return chargesAmount;
     }
@@ -139,42 +159,25 @@ public class PaymentServiceImpl implements PaymentService {
         paymentRepository.delete(currentPayment);
     }
 
-    public void modifyRoomCountForDeleteBooking(Booking currentBooking, Room currentRoom, Hotel currentHotel) {
-        List<RoomAvailability> availabilityList = currentRoom.getRoomAvailabilityList();
-        availabilityList.removeIf(availability -> (currentBooking.getId()).equals(availability.getBookingId()));
-        currentRoom.setRoomAvailabilityList(availabilityList);
-        currentHotel.setRooms(currentHotel.getRooms());
+    public void modifyRoomCountForDeleteBooking(Booking currentBooking, Room currentRoom) {
+        roomInventory.release(currentRoom.getId(), currentBooking.getId(),
+                currentBooking.getCheckInDate(), currentBooking.getCheckOutDate(), currentBooking.getNumOfRooms());
+        occupancyIndex.release(currentRoom.getId(), currentBooking.getId());
     }
     private void sendPaymentConfirmationEmail(Customer customer,Booking booking, Hotel hotel, Payment payment){
         String to = customer.getEmail();
         String subject = "Booking Confirmation - " + hotel.getHotelName();
-        String body = generatePaymentConfirmationBody(customer, booking, hotel, payment);
-        emailService.sendHtmlEmail(to, subject, body);
-        logger.info("Payment confirmation email is sent");
+        String body = emailTemplates.paymentConfirmation(customer, booking, hotel, payment);
+        emailOutbox.enqueue("payment-confirmation:" + payment.getId(), to, subject, body);
+        logger.info("Payment confirmation email is queued");
     }
-    private String generatePaymentConfirmationBody(Customer customer, Booking booking, Hotel hotel, Payment payment) {
-
-        NumberFormat formatter = new DecimalFormat("#0.00");
-
-        return "<html><body>" +
-                "<h2>Booking Confirmation - " + hotel.getHotelName() + "</h2>" +
-                "<p>Dear " + customer.getUserName() + ",</p>" +
-                "<p>Your have paid for your latest booking at " + hotel.getHotelName() + ".</p>" +
-                "<h3>Payment Details:</h3>"+
-                "<ul>"+
-                "<li><strong>Payment ID:</strong>"+payment.getId()+"</li>"+
-                "<li><strong>Customer Name:</strong>"+customer.getUserName()+"</li?>"+
-                "<li><strong>Total Amount paid (Inclusive GST):</strong>"+payment.getTotalAmount()+"</li>"+
-                "<h3>Booking Details:</h3>" +
-                "<ul>" +
-                "<li><strong>Booking ID:</strong> " + booking.getId() + "</li>" +
-                "<li><strong>Hotel Name:</strong> " + hotel.getHotelName() + "</li>" +
-                "<li><strong>Check-in Date:</strong> " + booking.getCheckInDate() + "</li>" +
-                "<li><strong>Check-out Date:</strong> " + booking.getCheckOutDate() + "</li>" +
-                "<li><strong>Total Amount:</strong> $" + formatter.format(booking.getTotalAmount()) + "</li>" +
-                "</ul>" +
-                "<p>Thank you for choosing " + hotel.getHotelName() + ".</p>" +
-                "<p>Best regards,<br/>Hotel Management Team</p>" +
-                "</body></html>";
+
+    private void sendCancellationEmail(Payment payment, Booking booking, Hotel hotel, double chargesAmount) {
+        customerRepository.findById(payment.getUserId()).ifPresent(customer -> {
+            String subject = "Booking Cancelled - " + hotel.getHotelName();
+            String body = emailTemplates.bookingCancellation(customer, booking, hotel, chargesAmount);
+            emailOutbox.enqueue("booking-cancellation:" + booking.getId(), customer.getEmail(), subject, body);
+            logger.info("Booking cancellation email is queued");
+        });
     }
 }
@@ -0,0 +1,101 @@
+package org.example.roomrelish.repository;
+
+import org.bson.Document;
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelSearchQueryBuilderTest {
+
+    @Test
+    void testCriteria_allFilters() {
+        SearchDTO searchDTO = SearchDTO.builder()
+                .cityName("Chennai")
+                .rating(3.5)
+                .priceRangeMin(100)
+                .priceRangeMax(400)
+                .amenities(List.of("Free WiFi", "Swimming pool"))
+                .build();
+
+        Document query = HotelSearchQueryBuilder.criteria(searchDTO).getCriteriaObject();
+        List<?> filters = (List<?>) query.get("$and");
+
+        assertEquals(4, filters.size());
+        assertEquals(new Document("location.cityName", "Chennai"), filters.get(0));
+        assertEquals(new Document("rating", new Document("$gt", 3.5)), filters.get(1));
+        assertEquals(new Document("priceStartingFrom", new Document("$gte", 100).append("$lte", 400)), filters.get(2));
+        assertEquals(new Document("amenities", new Document("$all", List.of("Free WiFi", "Swimming pool"))), filters.get(3));
+    }
+
+    @Test
+    void testCriteria_ignoresUnsetFilters() {
+        SearchDTO searchDTO = SearchDTO.builder().cityName("Chennai").build();
+
+        Document query = HotelSearchQueryBuilder.criteria(searchDTO).getCriteriaObject();
+
+        assertEquals(List.of(new Document("location.cityName", "Chennai")), query.get("$and"));
+    }
+
+    @Test
+    void testCriteria_openEndedPriceRange() {
+        SearchDTO searchDTO = SearchDTO.builder().priceRangeMin(150).build();
+
+        Document query = HotelSearchQueryBuilder.criteria(searchDTO).getCriteriaObject();
+
+        assertEquals(List.of(new Document("priceStartingFrom", new Document("$gte", 150))), query.get("$and"));
+    }
+
+    @Test
+    void testMatches_sameFiltersAsCriteriaInMemory() {
+        HotelSummary hotel = HotelSummary.builder().rating(4.0).priceStartingFrom(300).amenities(List.of("Free WiFi", "Spa")).build();
+
+        assertTrue(HotelSearchQueryBuilder.matches(hotel, SearchDTO.builder().cityName("Anywhere").build()));
+        assertTrue(HotelSearchQueryBuilder.matches(hotel, SearchDTO.builder().rating(3.5).priceRangeMin(300).priceRangeMax(300)
+                .amenities(List.of("free wifi")).build()));
+        assertFalse(HotelSearchQueryBuilder.matches(hotel, SearchDTO.builder().rating(4.0).build()));
+        assertFalse(HotelSearchQueryBuilder.matches(hotel, SearchDTO.builder().priceRangeMax(299).build()));
+        assertFalse(HotelSearchQueryBuilder.matches(hotel, SearchDTO.builder().amenities(List.of("Spa", "Pool")).build()));
+    }
+
+    @Test
+    void testHasStay() {
+        assertTrue(HotelSearchQueryBuilder.hasStay(SearchDTO.builder()
+                .checkInDate(LocalDate.now()).checkOutDate(LocalDate.now().plusDays(1)).build()));
+        assertFalse(HotelSearchQueryBuilder.hasStay(SearchDTO.builder().checkInDate(LocalDate.now()).build()));
+    }
+
+    @Test
+    void testAvailabilityStages_looksUpCoveredMonthsAndMatchesOnRooms() {
+        List<Document> stages = HotelSearchQueryBuilder.availabilityStages(LocalDate.of(2024, 7, 30), LocalDate.of(2024, 8, 2), 2);
+
+        Document lookup = (Document) stages.getFirst().get("$lookup");
+        assertEquals("room_availability", lookup.get("from"));
+        assertTrue(lookup.toJson().contains("\"month\": {\"$in\": [\"2024-07\", \"2024-08\"]}"));
+
+        Document expr = (Document) ((Document) stages.getLast().get("$match")).get("$expr");
+        List<?> anyRoomFree = (List<?>) expr.get("$in");
+        Document map = (Document) ((Document) anyRoomFree.get(1)).get("$map");
+        assertEquals(true, anyRoomFree.getFirst());
+        assertEquals("room", map.get("as"));
+        String match = stages.getLast().toJson();
+        assertTrue(match.contains("\"$slice\": [\"$$month.free\", 29, 2]"));
+        assertTrue(match.contains("\"$slice\": [\"$$month.free\", 0, 1]"));
+        assertTrue(match.contains("\"$$room.roomCount\""));
+    }
+
+    @Test
+    void testSummaryProjection_leavesOutHeavyArrays() {
+        Document projection = (Document) HotelSearchQueryBuilder.summaryProjection().get("$project");
+
+        assertEquals("$location.cityName", projection.get("cityName"));
+        assertEquals(List.of("$images", 0), ((Document) projection.get("image")).get("$arrayElemAt"));
+        assertFalse(projection.toJson().contains("roomAvailabilityList"));
+        assertFalse(projection.containsKey("guestReviews"));
+        assertFalse(projection.containsKey("images"));
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.dto.CalendarNightDTO;
+import org.example.roomrelish.dto.RoomCalendarDTO;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityCalendarTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 6, 10);
+
+    @Test
+    void testOf_freeRoomsPerNight() {
+        Room room = Room.builder().id("r1").roomType("Suite").roomCount(5).roomRate(300).build();
+        Map<String, List<RoomAvailability>> stays = Map.of("r1", List.of(
+                new RoomAvailability("b1", FROM.minusDays(2), FROM.plusDays(1), 2),
+                new RoomAvailability("b2", FROM.plusDays(1), FROM.plusDays(3), 1),
+                new RoomAvailability("b3", FROM.plusDays(2), FROM.plusDays(10), 3),
+                new RoomAvailability("b4", FROM.plusDays(5), FROM.plusDays(6), 4)));
+
+        List<RoomCalendarDTO> calendar = AvailabilityCalendar.of(List.of(room), stays, FROM, FROM.plusDays(4));
+
+        assertEquals(1, calendar.size());
+        assertEquals("Suite", calendar.getFirst().getRoomType());
+        assertEquals(List.of(3, 4, 1, 2), calendar.getFirst().getNights().stream().map(CalendarNightDTO::getFreeRooms).toList());
+        assertEquals(FROM.plusDays(3), calendar.getFirst().getNights().getLast().getDate());
+        assertTrue(calendar.getFirst().getNights().stream().allMatch(night -> night.getRate() == 300));
+    }
+
+    @Test
+    void testOf_roomWithoutBookings() {
+        Room room = Room.builder().id("r2").roomCount(2).build();
+
+        List<RoomCalendarDTO> calendar = AvailabilityCalendar.of(List.of(room), Map.of(), FROM, FROM.plusDays(2));
+
+        assertEquals(List.of(2, 2), calendar.getFirst().getNights().stream().map(CalendarNightDTO::getFreeRooms).toList());
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.dto.StayOptionDTO;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlexibleStayFinderTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void testSlidingMinimum() {
+        assertArrayEquals(new int[]{1, 1, 2, 0}, FlexibleStayFinder.slidingMinimum(new int[]{3, 1, 4, 2, 5, 0}, 3));
+        assertArrayEquals(new long[]{8, 7, 11, 7}, FlexibleStayFinder.slidingSum(new long[]{3, 1, 4, 2, 5, 0}, 3));
+    }
+
+    @Test
+    void testCheapestStays_prefersCheapRoomWhenFree() {
+        Room cheap = Room.builder().id("cheap").roomType("Standard").roomCount(1).roomRate(100).build();
+        Room dear = Room.builder().id("dear").roomType("Suite").roomCount(1).roomRate(250).build();
+        Map<String, List<RoomAvailability>> stays = Map.of("cheap", List.of(new RoomAvailability("b1", FROM.plusDays(1), FROM.plusDays(3), 1)));
+
+        List<StayOptionDTO> options = FlexibleStayFinder.cheapestStays(List.of(cheap, dear), stays, FROM, FROM.plusDays(7), 2, 1, 3);
+
+        assertEquals(List.of(FROM.plusDays(3), FROM.plusDays(4), FROM.plusDays(5)),
+                options.stream().map(StayOptionDTO::getCheckInDate).toList());
+        assertTrue(options.stream().allMatch(option -> option.getRoomId().equals("cheap") && option.getTotalPrice() == 200));
+        assertEquals(FROM.plusDays(5), options.get(0).getCheckOutDate());
+    }
+
+    @Test
+    void testCheapestStays_fallsBackToDearRoomAndCountsRooms() {
+        Room cheap = Room.builder().id("cheap").roomCount(1).roomRate(100).build();
+        Room dear = Room.builder().id("dear").roomCount(3).roomRate(250).build();
+
+        List<StayOptionDTO> options = FlexibleStayFinder.cheapestStays(List.of(cheap, dear), Map.of(), FROM, FROM.plusDays(3), 3, 2, 5);
+
+        assertEquals(1, options.size());
+        assertEquals("dear", options.getFirst().getRoomId());
+        assertEquals(1500, options.getFirst().getTotalPrice());
+    }
+
+    @Test
+    void testCheapestStays_noFeasibleStart() {
+        Room room = Room.builder().id("r").roomCount(1).roomRate(100).build();
+        Map<String, List<RoomAvailability>> stays = Map.of("r", List.of(new RoomAvailability("b1", FROM, FROM.plusDays(10), 1)));
+
+        assertTrue(FlexibleStayFinder.cheapestStays(List.of(room), stays, FROM, FROM.plusDays(5), 2, 1, 3).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.roomrelish.services.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.exception.InvalidBookingException;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.services.availability.RoomInventoryService.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotelWriteQueueTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private RoomInventoryService roomInventory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Room room = Room.builder().id("r1").roomCount(4).build();
+    private HotelWriteQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new HotelWriteQueue(roomInventory, meterRegistry, 3);
+    }
+
+    @Test
+    void testSubmit_staysQueuedDuringAWriteGoOutTogetherInBatches() throws Exception {
+        CountDownLatch firstWrite = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<String>> batches = new ArrayList<>();
+        when(roomInventory.reserveAll(eq("h1"), any())).thenAnswer(invocation -> {
+            List<Reservation> batch = invocation.getArgument(1);
+            batches.add(batch.stream().map(reservation -> reservation.stay().getBookingId()).toList());
+            firstWrite.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Set.of("b3");
+        });
+
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        done.add(queue.submit("h1", reservation("b0")));
+        assertTrue(firstWrite.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            done.add(queue.submit("h1", reservation("b" + i)));
+        }
+        assertEquals(5, queue.pending());
+        release.countDown();
+
+        for (int i = 0; i < done.size(); i++) {
+            if (i == 3) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> done.get(3).get(5, TimeUnit.SECONDS));
+                assertInstanceOf(RoomUnavailableException.class, e.getCause());
+            } else {
+                assertNull(done.get(i).get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(List.of(List.of("b0"), List.of("b1", "b2", "b3"), List.of("b4", "b5")), batches);
+        assertEquals(5.0, meterRegistry.counter("inventory.write-queue.reservations", "result", "held").count());
+        assertEquals(1.0, meterRegistry.counter("inventory.write-queue.reservations", "result", "unavailable").count());
+        assertEquals(3, meterRegistry.summary("inventory.write-queue.batch.size").count());
+        waitUntil(() -> queue.pending() == 0);
+    }
+
+    @Test
+    void testReserve_rethrowsFailureOfItsBatchAndKeepsServing() {
+        when(roomInventory.reserveAll(eq("h1"), any()))
+                .thenThrow(new IllegalStateException("mongo down"))
+                .thenReturn(Set.of());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> queue.reserve("h1", room, stay("b1")));
+        assertEquals("mongo down", e.getMessage());
+        assertDoesNotThrow(() -> queue.reserve("h1", room, stay("b2")));
+        assertEquals(1.0, meterRegistry.counter("inventory.write-queue.reservations", "result", "failed").count());
+    }
+
+    @Test
+    void testReserveAll_soldOutStayGivesBackTheWholeCart() {
+        when(roomInventory.reserveAll(any(), any())).thenAnswer(invocation ->
+                "h2".equals(invocation.getArgument(0)) ? Set.of("b3") : Set.of());
+
+        assertThrows(RoomUnavailableException.class, () -> queue.reserveAll(Map.of(
+                "h1", List.of(reservation("b1"), reservation("b2")),
+                "h2", List.of(reservation("b3")))));
+
+        for (String bookingId : List.of("b1", "b2", "b3")) {
+            verify(roomInventory).release("r1", bookingId, CHECK_IN, CHECK_IN.plusDays(2), 1);
+        }
+    }
+
+    @Test
+    void testReserve_rejectsInvalidStayWithoutQueueing() {
+        RoomAvailability backwards = new RoomAvailability("b1", CHECK_IN, CHECK_IN.minusDays(1), 1);
+
+        assertThrows(InvalidBookingException.class, () -> queue.reserve("h1", room, backwards));
+
+        verifyNoInteractions(roomInventory);
+    }
+
+    private Reservation reservation(String bookingId) {
+        return new Reservation(room, stay(bookingId));
+    }
+
+    private static RoomAvailability stay(String bookingId) {
+        return new RoomAvailability(bookingId, CHECK_IN, CHECK_IN.plusDays(2), 1);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.roomrelish.services.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelAvailabilityExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ParallelAvailabilityExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new ParallelAvailabilityExecutor(meterRegistry, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testForEach_belowThresholdStaysOnCallerThread() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(List.of(1, 2, 3), item -> 10, item -> threads.add(Thread.currentThread().getName()));
+
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        assertEquals(1.0, meterRegistry.counter("search.availability.runs", "mode", "sequential").count());
+        assertEquals(0.0, meterRegistry.counter("search.availability.runs", "mode", "parallel").count());
+    }
+
+    @Test
+    void testForEach_largeInputVisitsEveryItemOnceOnPool() {
+        List<Integer> items = IntStream.range(0, 1000).boxed().toList();
+        AtomicIntegerArray visits = new AtomicIntegerArray(items.size());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(items, item -> 5, item -> {
+            visits.incrementAndGet(item);
+            threads.add(Thread.currentThread().getName());
+        });
+
+        IntStream.range(0, items.size()).forEach(i -> assertEquals(1, visits.get(i)));
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("availability-")));
+        assertEquals(1.0, meterRegistry.counter("search.availability.runs", "mode", "parallel").count());
+        assertTrue(meterRegistry.summary("search.availability.tasks").max() >= 50);
+    }
+
+    @Test
+    void testForEach_singleHeavyItemIsNotSplit() {
+        AtomicIntegerArray visits = new AtomicIntegerArray(2);
+
+        executor.forEach(List.of(0, 1), item -> item == 0 ? 10_000 : 1, visits::incrementAndGet);
+
+        assertEquals(1, visits.get(0));
+        assertEquals(1, visits.get(1));
+        assertEquals(2.0, meterRegistry.summary("search.availability.tasks").totalAmount());
+    }
+}
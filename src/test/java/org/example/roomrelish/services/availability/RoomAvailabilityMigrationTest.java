@@ -0,0 +1,71 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityMigrationTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    @Mock
+    private RoomInventoryService roomInventory;
+
+    private RoomAvailabilityMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new RoomAvailabilityMigration(hotelRepository, roomInventory, true);
+    }
+
+    @Test
+    void testMigrate_importsEveryStayThenStripsTheHotel() {
+        Room room = Room.builder().id("r1").roomCount(3).build();
+        Hotel hotel = new Hotel();
+        hotel.setId("h1");
+        hotel.setRooms(List.of(room, Room.builder().id("r2").roomCount(1).build()));
+        when(hotelRepository.findIdsWithEmbeddedAvailability()).thenReturn(List.of("h1"));
+        when(hotelRepository.findById("h1")).thenReturn(Optional.of(hotel));
+        when(hotelRepository.findEmbeddedAvailability("h1")).thenReturn(Map.of("r1", List.of(
+                new RoomAvailability("b1", CHECK_IN, CHECK_IN.plusDays(2), 2),
+                new RoomAvailability(null, CHECK_IN, null, 1),
+                new RoomAvailability("b3", null, null, 1))));
+
+        assertEquals(1, migration.migrate());
+
+        ArgumentCaptor<RoomAvailability> stays = ArgumentCaptor.forClass(RoomAvailability.class);
+        verify(roomInventory, times(2)).importStay(eq("h1"), eq(room), stays.capture());
+        assertEquals("b1", stays.getAllValues().getFirst().getBookingId());
+        RoomAvailability legacy = stays.getAllValues().getLast();
+        assertEquals("migrated-r1-1", legacy.getBookingId());
+        assertEquals(CHECK_IN.plusDays(1), legacy.getCheckOutDate());
+        verify(hotelRepository).removeEmbeddedAvailability("h1");
+    }
+
+    @Test
+    void testRun_doesNothingWhenDisabled() throws Exception {
+        new RoomAvailabilityMigration(hotelRepository, roomInventory, false).run(null);
+
+        verifyNoInteractions(hotelRepository, roomInventory);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.exception.InvalidBookingException;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.models.RoomAvailabilityMonth.Hold;
+import org.example.roomrelish.models.RoomAvailabilityMonth.Span;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomInventoryServiceTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 7, 30);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2024, 8, 2);
+    private static final String JULY = "r1:2024-07";
+    private static final String AUGUST = "r1:2024-08";
+
+    @Mock
+    private RoomAvailabilityMonthRepository monthRepository;
+
+    @InjectMocks
+    private RoomInventoryService roomInventory;
+
+    private final Room room = Room.builder().id("r1").roomCount(4).build();
+    private final RoomAvailability stay = new RoomAvailability("b1", CHECK_IN, CHECK_OUT, 2);
+
+    @Test
+    void testSpan_splitsStayAtMonthEnds() {
+        assertEquals(List.of(new Span(YearMonth.of(2024, 7), 29, 31), new Span(YearMonth.of(2024, 8), 0, 1)),
+                Span.of(CHECK_IN, CHECK_OUT));
+        assertEquals(List.of(new Span(YearMonth.of(2024, 2), 27, 29)), Span.of(LocalDate.of(2024, 2, 28), LocalDate.of(2024, 3, 1)));
+        assertTrue(Span.of(CHECK_IN, CHECK_IN).isEmpty());
+        assertEquals(0, RoomAvailabilityMonth.empty("h1", "r1", YearMonth.of(2024, 2), 4).getFree()[29]);
+    }
+
+    @Test
+    void testReserve_stocksMonthsThenHoldsEachOne() {
+        when(monthRepository.hold(any(), anyInt(), anyInt(), eq(stay), eq(true))).thenReturn(true);
+
+        roomInventory.reserve("h1", room, stay);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RoomAvailabilityMonth>> created = ArgumentCaptor.forClass(List.class);
+        verify(monthRepository).createMissing(created.capture());
+        assertEquals(List.of(JULY, AUGUST), created.getValue().stream().map(RoomAvailabilityMonth::getId).toList());
+        RoomAvailabilityMonth july = created.getValue().getFirst();
+        assertEquals(RoomAvailabilityMonth.DAYS, july.getFree().length);
+        assertEquals(4, july.getFree()[30]);
+        verify(monthRepository).hold(JULY, 29, 31, stay, true);
+        verify(monthRepository).hold(AUGUST, 0, 1, stay, true);
+        verify(monthRepository, never()).release(any(), anyInt(), anyInt(), any(), anyInt());
+    }
+
+    @Test
+    void testReserve_retryOfHeldBookingSucceedsWithoutHoldingAgain() {
+        when(monthRepository.isHeld(any(), eq("b1"))).thenReturn(true);
+
+        roomInventory.reserve("h1", room, stay);
+
+        verify(monthRepository, never()).release(any(), anyInt(), anyInt(), any(), anyInt());
+    }
+
+    @Test
+    void testReserve_soldOutMonthGivesBackTheOthers() {
+        when(monthRepository.hold(any(), anyInt(), anyInt(), eq(stay), eq(true))).thenAnswer(invocation -> JULY.equals(invocation.getArgument(0)));
+
+        assertThrows(RoomUnavailableException.class, () -> roomInventory.reserve("h1", room, stay));
+
+        verify(monthRepository).release(JULY, 29, 31, "b1", 2);
+        verify(monthRepository).release(AUGUST, 0, 1, "b1", 2);
+    }
+
+    @Test
+    void testReserveAll_holdsNewStaysTogetherAndSkipsHeldOnes() {
+        RoomAvailabilityMonth july = RoomAvailabilityMonth.empty("h1", "r1", YearMonth.of(2024, 7), 4);
+        RoomAvailability held = new RoomAvailability("b0", CHECK_IN, CHECK_IN.plusDays(1), 1);
+        july.getStays().add(held);
+        RoomAvailability other = new RoomAvailability("b2", CHECK_IN, CHECK_IN.plusDays(1), 1);
+        when(monthRepository.findAllById(List.of(JULY, AUGUST))).thenReturn(List.of(july));
+        when(monthRepository.holdAll(any())).thenReturn(true);
+
+        assertTrue(roomInventory.reserveAll("h1", List.of(reservation(held), reservation(stay), reservation(other))).isEmpty());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RoomAvailabilityMonth>> created = ArgumentCaptor.forClass(List.class);
+        verify(monthRepository).createMissing(created.capture());
+        assertEquals(List.of(AUGUST), created.getValue().stream().map(RoomAvailabilityMonth::getId).toList());
+        verify(monthRepository).holdAll(List.of(new Hold(JULY, new Span(YearMonth.of(2024, 7), 29, 31), stay),
+                new Hold(AUGUST, new Span(YearMonth.of(2024, 8), 0, 1), stay),
+                new Hold(JULY, new Span(YearMonth.of(2024, 7), 29, 30), other)));
+        verify(monthRepository, never()).hold(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    void testReserveAll_batchThatDoesNotFitIsHeldOneByOne() {
+        RoomAvailability other = new RoomAvailability("b2", CHECK_IN, CHECK_IN.plusDays(1), 3);
+        when(monthRepository.holdAll(any())).thenReturn(false);
+        when(monthRepository.hold(any(), anyInt(), anyInt(), eq(stay), eq(true))).thenReturn(true);
+
+        assertEquals(Set.of("b2"), roomInventory.reserveAll("h1", List.of(reservation(stay), reservation(other))));
+
+        verify(monthRepository).hold(JULY, 29, 31, stay, true);
+        verify(monthRepository).hold(JULY, 29, 30, other, true);
+        verify(monthRepository).release(JULY, 29, 30, "b2", 3);
+        verify(monthRepository, never()).release(any(), anyInt(), anyInt(), eq("b1"), anyInt());
+    }
+
+    @Test
+    void testFreeRooms_leastFreeNightAndWholeCountForMissingMonths() {
+        RoomAvailabilityMonth july = RoomAvailabilityMonth.empty("h1", "r1", YearMonth.of(2024, 7), 4);
+        july.getFree()[29] = 3;
+        july.getFree()[30] = 1;
+        july.getFree()[28] = 0;
+        when(monthRepository.findAllById(List.of(JULY, AUGUST))).thenReturn(List.of(july));
+
+        assertEquals(1, roomInventory.freeRooms(room, CHECK_IN, CHECK_OUT));
+        assertThrows(InvalidBookingException.class, () -> roomInventory.freeRooms(room, CHECK_OUT, CHECK_IN));
+    }
+
+    @Test
+    void testStaysByRoom_listsStaySpanningMonthsOnce() {
+        RoomAvailabilityMonth july = RoomAvailabilityMonth.empty("h1", "r1", YearMonth.of(2024, 7), 4);
+        RoomAvailabilityMonth august = RoomAvailabilityMonth.empty("h1", "r1", YearMonth.of(2024, 8), 4);
+        july.getStays().add(stay);
+        august.getStays().add(stay);
+        august.getStays().add(new RoomAvailability("b2", CHECK_OUT, CHECK_OUT.plusDays(1), 1));
+        when(monthRepository.findByHotelIdInAndMonthIn(List.of("h1"), List.of("2024-07", "2024-08"))).thenReturn(List.of(july, august));
+
+        Map<String, List<RoomAvailability>> stays = roomInventory.staysByRoom(List.of("h1"), CHECK_IN, CHECK_OUT);
+
+        assertEquals(List.of("b1", "b2"), stays.get("r1").stream().map(RoomAvailability::getBookingId).toList());
+    }
+
+    private RoomInventoryService.Reservation reservation(RoomAvailability stay) {
+        return new RoomInventoryService.Reservation(room, stay);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.roomrelish.services.availability;
+
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.models.RoomAvailabilityMonth;
+import org.example.roomrelish.repository.RoomAvailabilityMonthRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyIndexTest {
+
+    @Mock
+    private RoomAvailabilityMonthRepository monthRepository;
+
+    @InjectMocks
+    private RoomOccupancyIndex occupancyIndex;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.of(2024, 6, 10);
+    }
+
+    @Test
+    void testMaxOccupancy_overlappingStays() {
+        occupancyIndex.book("room1", stay("b1", 0, 3, 2));
+        occupancyIndex.book("room1", stay("b2", 2, 5, 1));
+
+        assertEquals(3, occupancyIndex.maxOccupancy("room1", today, today.plusDays(5)));
+        assertEquals(2, occupancyIndex.maxOccupancy("room1", today, today.plusDays(2)));
+        assertEquals(1, occupancyIndex.maxOccupancy("room1", today.plusDays(3), today.plusDays(6)));
+    }
+
+    @Test
+    void testMaxOccupancy_checkOutNightIsFree() {
+        occupancyIndex.book("room1", stay("b1", 0, 3, 2));
+
+        assertEquals(0, occupancyIndex.maxOccupancy("room1", today.plusDays(3), today.plusDays(4)));
+        assertEquals(0, occupancyIndex.maxOccupancy("room1", today.minusDays(2), today));
+    }
+
+    @Test
+    void testBook_isIdempotentPerBooking() {
+        occupancyIndex.book("room1", stay("b1", 0, 3, 2));
+        occupancyIndex.book("room1", stay("b1", 0, 3, 2));
+
+        assertEquals(2, occupancyIndex.maxOccupancy("room1", today, today.plusDays(3)));
+    }
+
+    @Test
+    void testRelease() {
+        occupancyIndex.book("room1", stay("b1", 0, 3, 2));
+        occupancyIndex.book("room1", stay("b2", 1, 2, 1));
+
+        occupancyIndex.release("room1", "b1");
+
+        assertEquals(1, occupancyIndex.maxOccupancy("room1", today, today.plusDays(3)));
+    }
+
+    @Test
+    void testBook_growsBeyondInitialRange() {
+        occupancyIndex.book("room1", stay("b1", 0, 1, 1));
+        occupancyIndex.book("room1", stay("b2", 400, 402, 3));
+        occupancyIndex.book("room1", stay("b3", -200, -199, 2));
+
+        assertEquals(1, occupancyIndex.maxOccupancy("room1", today, today.plusDays(1)));
+        assertEquals(3, occupancyIndex.maxOccupancy("room1", today.plusDays(401), today.plusDays(500)));
+        assertEquals(2, occupancyIndex.maxOccupancy("room1", today.minusDays(300), today));
+    }
+
+    @Test
+    void testBook_growsBackwardsNightByNight() {
+        occupancyIndex.book("room1", stay("b0", 0, 1, 1));
+        for (int night = 1; night <= 400; night++) {
+            occupancyIndex.book("room1", stay("b" + night, -night, 1 - night, 1));
+        }
+
+        assertEquals(1, occupancyIndex.maxOccupancy("room1", today.minusDays(400), today.plusDays(1)));
+        assertEquals(0, occupancyIndex.maxOccupancy("room1", today.plusDays(1), today.plusDays(30)));
+    }
+
+    @Test
+    void testBook_rejectsStayBeyondSupportedSpan() {
+        occupancyIndex.book("room1", stay("b1", 0, 1, 1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> occupancyIndex.book("room1", stay("b2", 0, OccupancyTree.MAX_SIZE + 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> occupancyIndex.book("room1", stay("b3", 365_000, 365_001, 1)));
+
+        assertEquals(1, occupancyIndex.maxOccupancy("room1", today, today.plusDays(2)));
+        occupancyIndex.book("room1", stay("b2", 1, 2, 4));
+        assertEquals(4, occupancyIndex.maxOccupancy("room1", today, today.plusDays(2)));
+    }
+
+    @Test
+    void testRebuild_loadsAvailabilityMonthsFromCurrentMonth() {
+        RoomAvailabilityMonth june = RoomAvailabilityMonth.empty("hotel1", "room1", YearMonth.of(2024, 6), 5);
+        RoomAvailabilityMonth july = RoomAvailabilityMonth.empty("hotel1", "room1", YearMonth.of(2024, 7), 5);
+        RoomAvailability spanning = stay("b1", 19, 22, 4);
+        june.getStays().add(spanning);
+        july.getStays().add(spanning);
+        when(monthRepository.streamByMonthGreaterThanEqual(YearMonth.now().toString())).thenReturn(Stream.of(june, july));
+
+        occupancyIndex.rebuild();
+
+        assertEquals(4, occupancyIndex.maxOccupancy("room1", today.plusDays(20), today.plusDays(21)));
+        assertEquals(0, occupancyIndex.maxOccupancy("room1", today.plusDays(22), today.plusDays(23)));
+        assertEquals(0, occupancyIndex.maxOccupancy("unknown", today, today.plusDays(1)));
+    }
+
+    private RoomAvailability stay(String bookingId, int fromOffset, int toOffset, int roomCount) {
+        return new RoomAvailability(bookingId, today.plusDays(fromOffset), today.plusDays(toOffset), roomCount);
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.roomrelish.services.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.models.RoomAvailability;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHoldServiceTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 7, 30);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    @Mock
+    private RoomInventoryService roomInventory;
+
+    @Mock
+    private HotelWriteQueue hotelWrites;
+
+    @Mock
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private HotelCatalog hotelCatalog;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BookingHoldService holds;
+
+    private final Hotel hotel = new Hotel();
+    private final Room room = Room.builder().id("r1").roomCount(4).build();
+    private final Booking booking = Booking.builder().id("b1").numOfRooms(2).checkInDate(CHECK_IN).checkOutDate(CHECK_IN.plusDays(2)).build();
+
+    @BeforeEach
+    void setUp() {
+        holds = new BookingHoldService(paymentRepository, bookingRepository, hotelRepository, roomInventory, hotelWrites, occupancyIndex,
+                searchResultCache, hotelCatalog, meterRegistry, Duration.ofMinutes(15), 10, 64, 2);
+        hotel.setId("h1");
+    }
+
+    @Test
+    void testHold_reservesRoomsAndSchedulesExpiry() {
+        holds.hold(hotel, room, booking, payment("b1", Instant.now().plusSeconds(60)));
+
+        verify(hotelWrites).reserve("h1", room, RoomAvailability.of(booking));
+        verify(occupancyIndex).book("r1", RoomAvailability.of(booking));
+        verify(searchResultCache).invalidate(hotel);
+        assertEquals(1.0, pending());
+        assertEquals(1.0, events("placed"));
+    }
+
+    @Test
+    void testHold_soldOutDeletesBookingAndPayment() {
+        Payment payment = payment("b1", Instant.now().plusSeconds(60));
+        doThrow(new RoomUnavailableException("No available rooms")).when(hotelWrites).reserve(any(), any(), any());
+
+        assertThrows(RoomUnavailableException.class, () -> holds.hold(hotel, room, booking, payment));
+
+        verify(paymentRepository).delete(payment);
+        verify(bookingRepository).delete(booking);
+        verifyNoInteractions(occupancyIndex);
+        assertEquals(0.0, pending());
+    }
+
+    @Test
+    void testHold_failedWriteGivesBackRoomsAndDeletesBookingAndPayment() {
+        Payment payment = payment("b1", Instant.now().plusSeconds(60));
+        doThrow(new DataAccessResourceFailureException("Connection reset")).when(hotelWrites).reserve(any(), any(), any());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> holds.hold(hotel, room, booking, payment));
+
+        verify(roomInventory).release("r1", "b1", CHECK_IN, CHECK_IN.plusDays(2), 2);
+        verify(paymentRepository).delete(payment);
+        verify(bookingRepository).delete(booking);
+        verifyNoInteractions(occupancyIndex, searchResultCache);
+        assertEquals(0.0, pending());
+        assertEquals(0.0, events("placed"));
+    }
+
+    @Test
+    void testHold_failedReleaseLeavesBookingToExpiry() {
+        Payment payment = payment("b1", Instant.now().plusSeconds(60));
+        doThrow(new DataAccessResourceFailureException("Connection reset")).when(hotelWrites).reserve(any(), any(), any());
+        doThrow(new DataAccessResourceFailureException("Connection refused")).when(roomInventory).release(any(), any(), any(), any(), anyInt());
+
+        DataAccessResourceFailureException e = assertThrows(DataAccessResourceFailureException.class,
+                () -> holds.hold(hotel, room, booking, payment));
+
+        assertEquals("Connection refused", e.getSuppressed()[0].getMessage());
+        verifyNoInteractions(paymentRepository, bookingRepository);
+        assertEquals(1.0, pending());
+    }
+
+    @Test
+    void testExpireDue_deletesUnpaidBookingsInBatchesAndKeepsPaidOnes() throws Exception {
+        Instant past = Instant.now().minusSeconds(1);
+        for (String bookingId : List.of("b1", "b2", "b3")) {
+            holds.hold(hotel, room, Booking.builder().id(bookingId).build(), payment(bookingId, past));
+        }
+        when(paymentRepository.removeUnpaidByBookingId(any())).thenAnswer(invocation -> {
+            String bookingId = invocation.getArgument(0);
+            return "b2".equals(bookingId) ? Optional.empty() : Optional.of(payment(bookingId, past));
+        });
+        when(hotelCatalog.findById("h1")).thenReturn(Optional.of(hotel));
+        Thread.sleep(20);
+
+        holds.expireDue();
+
+        verify(roomInventory).release("r1", "b1", CHECK_IN, CHECK_IN.plusDays(2), 2);
+        verify(roomInventory).release("r1", "b3", CHECK_IN, CHECK_IN.plusDays(2), 2);
+        verify(occupancyIndex, never()).release("r1", "b2");
+        verify(bookingRepository, times(2)).deleteAllById(any());
+        assertEquals(2.0, events("expired"));
+        assertEquals(0.0, pending());
+    }
+
+    @Test
+    void testConfirmedAndRelease_cancelTheExpiry() {
+        holds.hold(hotel, room, booking, payment("b1", Instant.now().plusSeconds(60)));
+        holds.confirmed("b1");
+        holds.confirmed("unknown");
+        assertEquals(1.0, events("confirmed"));
+
+        Payment unpaid = payment("b2", Instant.now().plusSeconds(60));
+        holds.hold(hotel, room, Booking.builder().id("b2").build(), unpaid);
+        holds.release(unpaid);
+
+        verify(roomInventory).release("r1", "b2", CHECK_IN, CHECK_IN.plusDays(2), 2);
+        verify(occupancyIndex).release("r1", "b2");
+        assertEquals(0.0, pending());
+    }
+
+    @Test
+    void testRecover_schedulesEveryUnpaidPayment() {
+        when(paymentRepository.streamByPaymentStatusFalse()).thenReturn(Stream.of(
+                payment("b1", Instant.now().plusSeconds(60)), payment("legacy", null)));
+
+        holds.recover();
+
+        assertEquals(2.0, pending());
+    }
+
+    private double pending() {
+        return meterRegistry.get("booking.holds.pending").gauge().value();
+    }
+
+    private double events(String event) {
+        return meterRegistry.counter("booking.holds", "event", event).count();
+    }
+
+    private static Payment payment(String bookingId, Instant holdExpiresAt) {
+        return Payment.builder()
+                .id("p-" + bookingId)
+                .bookingId(bookingId)
+                .hotelId("h1")
+                .roomId("r1")
+                .numOfRooms(2)
+                .checkInDate(CHECK_IN)
+                .checkOutDate(CHECK_IN.plusDays(2))
+                .holdExpiresAt(holdExpiresAt)
+                .build();
+    }
+}
@@ -3,10 +3,15 @@ package org.example.roomrelish.services.booking;
 
 import com.flextrade.jfixture.FixtureAnnotations;
 import com.flextrade.jfixture.annotations.Fixture;
+import org.example.roomrelish.constants.ApplicationConstants;
 import org.example.roomrelish.dto.BookingDetailsDTO;
+import org.example.roomrelish.exception.InvalidBookingException;
 import org.example.roomrelish.models.*;
 import org.example.roomrelish.repository.*;
-import org.example.roomrelish.services.email.EmailService;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.HotelCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -19,6 +24,7 @@ import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class BookingServiceImplTest {
@@ -53,7 +59,19 @@ public class BookingServiceImplTest {
     Payment payment;
 
     @Mock
-    EmailService emailService;
+    EmailOutbox emailOutbox;
+
+    @Mock
+    EmailTemplates emailTemplates;
+
+    @Mock
+    HotelCatalog hotelCatalog;
+
+    @Mock
+    RoomInventoryService roomInventory;
+
+    @Mock
+    BookingHoldService bookingHolds;
 
     @BeforeEach
     public void setUp() {
@@ -64,6 +82,8 @@ public class BookingServiceImplTest {
     @Test
     void testBookRoom_Success(){
         bookingDetailsDTO.setCustomerRoomCount(1);
+        bookingDetailsDTO.setCheckInDate(LocalDate.now().plusDays(1));
+        bookingDetailsDTO.setCheckOutDate(LocalDate.now().plusDays(3));
         Booking booking = createBooking(bookingDetailsDTO);
 
         hotel.setId(bookingDetailsDTO.get_hotelId());
@@ -76,6 +96,7 @@ public class BookingServiceImplTest {
         when(roomRepository.findById(any())).thenReturn(Optional.of(room));
         when(bookingRepository.save(any())).thenReturn(booking);
         when(paymentRepository.save(any())).thenReturn(payment);
+        when(roomInventory.freeRooms(any(), any(), any())).thenReturn(5);
 
 
         Booking actualBooking = bookingService.bookRoom(bookingDetailsDTO);
@@ -85,6 +106,27 @@ public class BookingServiceImplTest {
 
     }
 
+    @Test
+    void testBookRoom_rejectsInvalidStayBeforeReading() {
+        LocalDate lastCheckOut = LocalDate.now().plusDays(ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS);
+        bookingDetailsDTO.setCustomerRoomCount(1);
+        bookingDetailsDTO.setCheckInDate(lastCheckOut.minusDays(2));
+        bookingDetailsDTO.setCheckOutDate(lastCheckOut);
+        bookingService.validate(bookingDetailsDTO);
+
+        bookingDetailsDTO.setCheckOutDate(lastCheckOut.plusDays(1));
+        assertThrows(InvalidBookingException.class, () -> bookingService.bookRoom(bookingDetailsDTO));
+        bookingDetailsDTO.setCheckOutDate(bookingDetailsDTO.getCheckInDate());
+        assertThrows(InvalidBookingException.class, () -> bookingService.bookRoom(bookingDetailsDTO));
+        bookingDetailsDTO.setCheckOutDate(null);
+        assertThrows(InvalidBookingException.class, () -> bookingService.bookRoom(bookingDetailsDTO));
+        bookingDetailsDTO.setCheckOutDate(lastCheckOut);
+        bookingDetailsDTO.setCustomerRoomCount(0);
+        assertThrows(InvalidBookingException.class, () -> bookingService.bookRoom(bookingDetailsDTO));
+        assertThrows(InvalidBookingException.class, () -> bookingService.bookRoom(null));
+        verifyNoInteractions(hotelCatalog, hotelRepository, customerRepository, roomInventory);
+    }
+
     @Test
      void testValidateRoomAvailability_success(){
         //Arrange
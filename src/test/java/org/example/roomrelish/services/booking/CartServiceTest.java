@@ -0,0 +1,196 @@
+package org.example.roomrelish.services.booking;
+
+import org.example.roomrelish.constants.ApplicationConstants;
+import org.example.roomrelish.dto.CartCheckoutDTO;
+import org.example.roomrelish.dto.CartDTO;
+import org.example.roomrelish.dto.CartLineDTO;
+import org.example.roomrelish.exception.InvalidCartException;
+import org.example.roomrelish.exception.RoomUnavailableException;
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.example.roomrelish.repository.BookingRepository;
+import org.example.roomrelish.repository.CustomerRepository;
+import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.repository.PaymentRepository;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomInventoryService.Reservation;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.HotelCatalog;
+import org.example.roomrelish.services.hotel.SearchResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 9, 10);
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private HotelCatalog hotelCatalog;
+
+    @Mock
+    private HotelWriteQueue hotelWrites;
+
+    @Mock
+    private RoomInventoryService roomInventory;
+
+    @Mock
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private EmailOutbox emailOutbox;
+
+    @Mock
+    private EmailTemplates emailTemplates;
+
+    private CartService cartService;
+
+    private final Customer customer = new Customer();
+    private final Hotel seaView = hotel("h1", Room.builder().id("r1").roomType("Deluxe").roomRate(100).roomCount(5).build());
+    private final Hotel hillTop = hotel("h2", Room.builder().id("r2").roomType("Suite").roomRate(200).roomCount(2).build());
+
+    @BeforeEach
+    void setUp() {
+        BookingService bookingService = new BookingService(null, null, null, null, null, null, null, null, null);
+        cartService = new CartService(hotelRepository, bookingRepository, paymentRepository, customerRepository, hotelCatalog,
+                hotelWrites, roomInventory, occupancyIndex, searchResultCache, bookingService, emailOutbox, emailTemplates);
+        customer.setId("u1");
+        customer.setEmail("guest@example.com");
+    }
+
+    @Test
+    void testCheckout_holdsAllLinesThenWritesEachCollectionOnceAndSendsOneEmail() {
+        when(customerRepository.findById("u1")).thenReturn(Optional.of(customer));
+        when(hotelCatalog.findById("h1")).thenReturn(Optional.of(seaView));
+        when(hotelCatalog.findById("h2")).thenReturn(Optional.empty());
+        when(hotelRepository.findAllById(List.of("h2"))).thenReturn(List.of(hillTop));
+        when(emailTemplates.cartConfirmation(eq(customer), anyList())).thenReturn("body");
+
+        CartCheckoutDTO checkout = cartService.checkout(cart(line("h1", "r1", 2, 3), line("h2", "r2", 1, 1), line("h1", "r1", 1, 2)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<Reservation>>> reservations = ArgumentCaptor.forClass(Map.class);
+        verify(hotelWrites).reserveAll(reservations.capture());
+        assertEquals(List.of("h1", "h2"), List.copyOf(reservations.getValue().keySet()));
+        assertEquals(2, reservations.getValue().get("h1").size());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Booking>> bookings = ArgumentCaptor.forClass(List.class);
+        verify(bookingRepository).insert(bookings.capture());
+        verify(paymentRepository).insert(anyList());
+        List<Payment> payments = checkout.getPayments();
+        assertEquals(3, payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            assertEquals(bookings.getValue().get(i).getId(), payments.get(i).getBookingId());
+            assertTrue(payments.get(i).isPaymentStatus());
+            assertNotNull(payments.get(i).getBookingConfirmedDateTime());
+        }
+        assertEquals(3, bookings.getValue().get(0).getNumOfDays());
+        assertEquals(payments.stream().mapToDouble(Payment::getTotalAmount).sum(), checkout.getTotalAmount());
+
+        verify(occupancyIndex, times(3)).book(any(), any());
+        verify(searchResultCache).invalidate(seaView);
+        verify(searchResultCache).invalidate(hillTop);
+        verify(customerRepository).save(customer);
+        assertEquals(List.of("h1", "h2"), customer.getRecentVisitsOfHotels());
+        verify(emailOutbox).enqueue(startsWith("cart-confirmation:"), eq("guest@example.com"), eq("Booking Confirmation - 3 bookings"), eq("body"));
+    }
+
+    @Test
+    void testCheckout_soldOutLineWritesNothing() {
+        when(customerRepository.findById("u1")).thenReturn(Optional.of(customer));
+        when(hotelCatalog.findById("h1")).thenReturn(Optional.of(seaView));
+        doThrow(new RoomUnavailableException("No available rooms for the selected dates")).when(hotelWrites).reserveAll(any());
+
+        assertThrows(RoomUnavailableException.class, () -> cartService.checkout(cart(line("h1", "r1", 2, 3))));
+
+        verifyNoInteractions(bookingRepository, paymentRepository, occupancyIndex, emailOutbox);
+    }
+
+    @Test
+    void testCheckout_failedInsertGivesBackRoomsAndWrittenBookings() {
+        when(customerRepository.findById("u1")).thenReturn(Optional.of(customer));
+        when(hotelCatalog.findById("h1")).thenReturn(Optional.of(seaView));
+        when(paymentRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("mongo down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> cartService.checkout(cart(line("h1", "r1", 2, 3))));
+
+        verify(bookingRepository).deleteAllById(anyList());
+        verify(paymentRepository).deleteAllById(anyList());
+        verify(roomInventory).release(eq("r1"), any(), eq(CHECK_IN), eq(CHECK_IN.plusDays(3)), eq(2));
+        verifyNoInteractions(occupancyIndex, emailOutbox);
+    }
+
+    @Test
+    void testCheckout_reportsEveryInvalidLineBeforeReading() {
+        CartLineDTO backwards = line("h1", "r1", 1, 1);
+        backwards.setCheckOutDate(CHECK_IN.minusDays(1));
+        LocalDate lastCheckOut = LocalDate.now().plusDays(ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS);
+        CartLineDTO tooFarAhead = new CartLineDTO("h1", "r1", 1, lastCheckOut, lastCheckOut.plusDays(1));
+
+        InvalidCartException e = assertThrows(InvalidCartException.class,
+                () -> cartService.checkout(cart(line("h1", "r1", 1, 1), line("h1", "", 0, 1), backwards, tooFarAhead)));
+
+        assertEquals("Line 2: needs a hotel id and a room id; Line 2: needs at least one room; "
+                + "Line 3: needs a check-in date before the check-out date; "
+                + "Line 4: must check out within " + ApplicationConstants.MAX_ADVANCE_BOOKING_DAYS + " days from today", e.getMessage());
+        assertThrows(InvalidCartException.class, () -> cartService.checkout(new CartDTO("u1", List.of())));
+        verifyNoInteractions(customerRepository, hotelRepository, hotelCatalog, hotelWrites);
+    }
+
+    private static CartDTO cart(CartLineDTO... lines) {
+        return new CartDTO("u1", List.of(lines));
+    }
+
+    private static CartLineDTO line(String hotelId, String roomId, int rooms, int nights) {
+        return new CartLineDTO(hotelId, roomId, rooms, CHECK_IN, CHECK_IN.plusDays(nights));
+    }
+
+    private static Hotel hotel(String id, Room room) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setHotelName("Hotel " + id);
+        hotel.setImages(List.of("image.jpg"));
+        hotel.setRooms(new ArrayList<>(List.of(room)));
+        return hotel;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.roomrelish.services.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.exception.ConcurrentUpdateException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(4));
+
+    @Test
+    void testExecute_rerunsAttemptUntilItSaves() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("add-review", () -> {
+            if (attempts.incrementAndGet() < 3) throw new OptimisticLockingFailureException("version changed");
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, writes("add-review", "conflict"));
+        assertEquals(1.0, writes("add-review", "retried"));
+        assertEquals(0.0, writes("add-review", "exhausted"));
+    }
+
+    @Test
+    void testExecute_givesUpAfterMaxAttemptsAndLetsOtherErrorsThrough() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> retry.execute("add-room", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("version changed");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, writes("add-room", "exhausted"));
+
+        assertThrows(IllegalStateException.class, () -> retry.execute("add-room", () -> {
+            throw new IllegalStateException("not a conflict");
+        }));
+        assertEquals(3.0, writes("add-room", "conflict"));
+    }
+
+    @Test
+    void testBackoff_randomUpToDoublingCeiling() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retry.backoff(1).compareTo(Duration.ofMillis(1)) <= 0);
+            assertTrue(retry.backoff(2).compareTo(Duration.ofMillis(2)) <= 0);
+            assertTrue(retry.backoff(10).compareTo(Duration.ofMillis(4)) <= 0);
+            assertFalse(retry.backoff(10).isNegative());
+        }
+    }
+
+    private double writes(String operation, String outcome) {
+        return meterRegistry.counter("optimistic.writes", "operation", operation, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.roomrelish.services.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> flight;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flight = new SingleFlight<>(meterRegistry, "test", Duration.ofSeconds(5));
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testExecute_concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> flight.execute("chennai", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "result";
+            })));
+        }
+        waitUntil(() -> calls("leader") + calls("coalesced") == 8);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7.0, calls("coalesced"));
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void testExecute_differentKeysAndLaterCallsLoadAgain() {
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("b", flight.execute("b", () -> "b"));
+        assertEquals("a2", flight.execute("a", () -> "a2"));
+        assertEquals(3.0, calls("leader"));
+        assertEquals(0.0, calls("coalesced"));
+    }
+
+    @Test
+    void testExecute_waiterTimesOutAndLoadsItself() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = callers.submit(() -> flight.execute("key", () -> {
+            await(release);
+            return "slow";
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+
+        assertEquals("own", flight.execute("key", Duration.ofMillis(20), () -> "own"));
+        assertEquals(1.0, calls("timeout"));
+
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecute_failureReachesWaitersAndIsNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> flight.execute("key", () -> {
+            await(release);
+            throw new IllegalArgumentException("boom");
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+        Future<String> waiter = callers.submit(() -> flight.execute("key", () -> "unused"));
+        waitUntil(() -> calls("coalesced") == 1);
+        release.countDown();
+
+        for (Future<String> result : List.of(leader, waiter)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+        assertEquals("ok", flight.execute("key", () -> "ok"));
+    }
+
+    private double calls(String result) {
+        return meterRegistry.counter("singleflight.calls", "name", "test", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+}
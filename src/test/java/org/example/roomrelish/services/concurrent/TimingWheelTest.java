@@ -0,0 +1,73 @@
+package org.example.roomrelish.services.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final Instant START = Instant.parse("2024-06-01T10:00:00Z");
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 8, START);
+
+    @Test
+    void testAdvance_expiresKeysOnceTheirDeadlinePassed() {
+        wheel.schedule("a", START.plusMillis(2500));
+        wheel.schedule("b", START.plusSeconds(5));
+
+        assertEquals(List.of(), wheel.advance(START.plusMillis(2999)));
+        assertEquals(List.of("a"), wheel.advance(START.plusSeconds(3)));
+        assertEquals(List.of("b"), wheel.advance(START.plusSeconds(6)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testAdvance_keepsKeysDueInALaterTurnOfTheWheel() {
+        wheel.schedule("later", START.plusSeconds(3 + 8));
+        wheel.schedule("now", START.plusSeconds(3));
+
+        assertEquals(List.of("now"), wheel.advance(START.plusSeconds(3)));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(START.plusSeconds(10)));
+        assertEquals(List.of("later"), wheel.advance(START.plusSeconds(11)));
+    }
+
+    @Test
+    void testAdvance_afterLongPauseExpiresEverythingDue() {
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule("k" + i, START.plusSeconds(i));
+        }
+
+        Set<String> expired = new HashSet<>(wheel.advance(START.plusSeconds(15)));
+
+        assertEquals(15, expired.size());
+        assertFalse(expired.contains("k16"));
+        assertEquals(5, wheel.size());
+    }
+
+    @Test
+    void testScheduleAndCancel_replaceOrDropTheDeadline() {
+        wheel.schedule("a", START.plusSeconds(2));
+        wheel.schedule("a", START.plusSeconds(4));
+        wheel.schedule("b", START.plusSeconds(2));
+
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        assertEquals(List.of(), wheel.advance(START.plusSeconds(3)));
+        assertEquals(List.of("a"), wheel.advance(START.plusSeconds(4)));
+    }
+
+    @Test
+    void testSchedule_pastDeadlineExpiresOnNextAdvance() {
+        wheel.advance(START.plusSeconds(5));
+        wheel.schedule("late", START);
+
+        assertEquals(List.of("late"), wheel.advance(START.plusSeconds(6)));
+    }
+}
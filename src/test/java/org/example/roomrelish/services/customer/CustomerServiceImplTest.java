@@ -9,6 +9,7 @@ import org.example.roomrelish.models.Customer;
 import org.example.roomrelish.models.Hotel;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.services.hotel.HotelCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -31,6 +32,8 @@ class CustomerServiceImplTest {
     private HotelRepository hotelRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private HotelCatalog hotelCatalog;
     @InjectMocks
     private CustomerServiceImpl customerService;
     @BeforeEach
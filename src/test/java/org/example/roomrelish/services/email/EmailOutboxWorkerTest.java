@@ -0,0 +1,112 @@
+package org.example.roomrelish.services.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.example.roomrelish.models.OutboxEmail;
+import org.example.roomrelish.models.OutboxStatus;
+import org.example.roomrelish.repository.OutboxEmailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxWorkerTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private OutboxEmailRepository outboxRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailOutboxWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) worker.shutdown();
+    }
+
+    @Test
+    void testDrain_sendsClaimedEmailsAndMarksThemSent() throws Exception {
+        worker = worker(greenMail.getSmtp().getPort());
+        when(outboxRepository.claimNext(any(), any()))
+                .thenReturn(Optional.of(email("booking-confirmation:b1", "a@example.com", 1)),
+                        Optional.of(email("payment-confirmation:p1", "b@example.com", 1)),
+                        Optional.empty());
+
+        worker.drain();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        verify(outboxRepository, timeout(5000)).markSent(eq("booking-confirmation:b1"), eq(1), any());
+        verify(outboxRepository, timeout(5000)).markSent(eq("payment-confirmation:p1"), eq(1), any());
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Subject booking-confirmation:b1", received.getSubject());
+        assertEquals(2.0, outcome("sent"));
+        assertEquals(1, meterRegistry.timer("email.outbox.send").count());
+    }
+
+    @Test
+    void testSend_unreachableServerBacksOffThenGivesUp() {
+        worker = worker(1);
+        Instant before = Instant.now();
+
+        worker.send(List.of(email("retry", "a@example.com", 2), email("last", "b@example.com", 3)));
+
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).markFailed(eq("retry"), eq(2), eq(OutboxStatus.PENDING), nextAttempt.capture(), anyString());
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(60)));
+        verify(outboxRepository).markFailed(eq("last"), eq(3), eq(OutboxStatus.DEAD), any(), anyString());
+        verify(outboxRepository, never()).markSent(any(), anyInt(), any());
+        assertEquals(1.0, outcome("retried"));
+        assertEquals(1.0, outcome("dead"));
+    }
+
+    @Test
+    void testBackoff_doublesUpToTheCap() {
+        worker = worker(1);
+
+        assertEquals(Duration.ofSeconds(30), worker.backoff(1));
+        assertEquals(Duration.ofSeconds(120), worker.backoff(3));
+        assertEquals(Duration.ofMinutes(10), worker.backoff(30));
+    }
+
+    private EmailOutboxWorker worker(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        return new EmailOutboxWorker(outboxRepository, new EmailService(mailSender), meterRegistry,
+                2, 10, 3, Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofMinutes(2));
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.counter("email.outbox.emails", "outcome", outcome).count();
+    }
+
+    private static OutboxEmail email(String id, String to, int attempts) {
+        return OutboxEmail.builder()
+                .id(id)
+                .to(to)
+                .subject("Subject " + id)
+                .body("<p>" + id + "</p>")
+                .status(OutboxStatus.SENDING)
+                .attempts(attempts)
+                .build();
+    }
+}
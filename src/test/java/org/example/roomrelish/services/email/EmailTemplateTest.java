@@ -0,0 +1,89 @@
+package org.example.roomrelish.services.email;
+
+import org.example.roomrelish.models.Booking;
+import org.example.roomrelish.models.Customer;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.models.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    private static final Map<String, Function<String, String>> FIELDS = Map.of(
+            "name", value -> value,
+            "length", value -> String.valueOf(value.length()),
+            "missing", value -> null);
+
+    @Test
+    void testRender_fillsPlaceholdersAndEscapesValues() {
+        EmailTemplate<String> template = EmailTemplate.compile("greeting", "<p>Hi {{name}}, {{ length }} chars{{missing}}</p>", FIELDS);
+
+        assertEquals("<p>Hi Ann, 3 chars</p>", template.render("Ann"));
+        assertEquals("<p>Hi &lt;b&gt;Tom &amp; &quot;Jo&#39;s&quot;, 15 chars</p>", template.render("<b>Tom & \"Jo's\""));
+        assertEquals("plain", EmailTemplate.compile("plain", "plain", FIELDS).render("x"));
+    }
+
+    @Test
+    void testRender_triplePlaceholderTakesHtmlAsIs() {
+        EmailTemplate<String> template = EmailTemplate.compile("rows", "<table>{{{ name }}}</table>{{name}}{{{missing}}}", FIELDS);
+
+        assertEquals("<table><tr/></table>&lt;tr/&gt;", template.render("<tr/>"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("bad", "{{{name}}", FIELDS));
+    }
+
+    @Test
+    void testRender_reusesBufferButDropsOversizedOne() {
+        EmailTemplate<String> template = EmailTemplate.compile("echo", "{{name}}", FIELDS);
+        String large = "x".repeat(EmailTemplate.MAX_POOLED_CAPACITY + 1);
+
+        assertEquals(large, template.render(large));
+        assertEquals("small", template.render("small"));
+    }
+
+    @Test
+    void testCompile_rejectsUnknownAndUnclosedPlaceholders() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("bad", "Hi {{nmae}}", FIELDS));
+        assertTrue(unknown.getMessage().contains("{{nmae}}"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("bad", "Hi {{name", FIELDS));
+    }
+
+    @Test
+    void testEmailTemplates_renderBundledTemplates() {
+        EmailTemplates templates = new EmailTemplates();
+        Customer customer = new Customer();
+        customer.setUsername("Priya <VIP>");
+        Hotel hotel = new Hotel();
+        hotel.setHotelName("Sea View");
+        Booking booking = Booking.builder().id("b1").numOfRooms(2).totalAmount(1234.5)
+                .checkInDate(LocalDate.of(2024, 7, 30)).checkOutDate(LocalDate.of(2024, 8, 2)).build();
+        Payment payment = Payment.builder().id("p1").totalAmount(1456.71).build();
+
+        String confirmation = templates.bookingConfirmation(customer, booking, hotel, Room.builder().roomType("Deluxe").build());
+        assertTrue(confirmation.contains("<p>Dear Priya &lt;VIP&gt;,</p>"));
+        assertTrue(confirmation.contains("<strong>Check-in Date:</strong> 30 Jul 2024"));
+        assertTrue(confirmation.contains("<strong>Total Amount:</strong> $1234.50"));
+        assertFalse(confirmation.contains("{{"));
+
+        assertTrue(templates.paymentConfirmation(customer, booking, hotel, payment).contains("(Inclusive GST):</strong> $1456.71"));
+        assertTrue(templates.bookingCancellation(customer, booking, hotel, 100).contains("<strong>Amount Refunded:</strong> $1134.50"));
+
+        Hotel other = new Hotel();
+        other.setHotelName("Hill & Lake");
+        String cart = templates.cartConfirmation(customer, List.of(
+                new EmailTemplates.CartLineEmail(booking, hotel, Room.builder().roomType("Deluxe").build(), payment),
+                new EmailTemplates.CartLineEmail(booking, other, Room.builder().roomType("Suite").build(), payment)));
+        assertTrue(cart.contains("<td>Sea View</td><td>Deluxe</td><td>2</td><td>30 Jul 2024</td>"));
+        assertTrue(cart.contains("<td>Hill &amp; Lake</td><td>Suite</td>"));
+        assertTrue(cart.contains("<h2>Booking Confirmation - 2 bookings</h2>"));
+        assertTrue(cart.contains("(Inclusive GST):</strong> $2913.42"));
+        assertFalse(cart.contains("{{"));
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.example.roomrelish.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotelCatalogTest {
+
+    private static final Instant LOADED_AT = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    private HotelCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new HotelCatalog(hotelRepository, searchResultCache);
+    }
+
+    @Test
+    void testBeforeRebuild_isEmptyAndIgnoresPublish() {
+        catalog.publish(hotel("1", "Chennai", LOADED_AT));
+
+        assertFalse(catalog.isLoaded());
+        assertTrue(catalog.findById("1").isEmpty());
+        assertTrue(catalog.findAll().isEmpty());
+    }
+
+    @Test
+    void testRebuild_indexesByIdAndCity() {
+        loadCatalog(hotel("1", "Chennai", LOADED_AT), hotel("2", "chennai ", LOADED_AT), hotel("3", "Madurai", LOADED_AT));
+
+        assertTrue(catalog.isLoaded());
+        assertEquals("Madurai", catalog.findById("3").orElseThrow().getLocation().getCityName());
+        assertEquals(List.of("1", "2"), catalog.findByCity(" CHENNAI").stream().map(Hotel::getId).sorted().toList());
+        assertEquals(3, catalog.findAll().size());
+        assertTrue(catalog.findByCity("Pune").isEmpty());
+    }
+
+    @Test
+    void testPublishAndRemove_swapInNewSnapshotWithoutTouchingOldOne() {
+        loadCatalog(hotel("1", "Chennai", LOADED_AT), hotel("2", "Madurai", LOADED_AT));
+        List<Hotel> before = catalog.findAll();
+
+        catalog.publish(hotel("2", "Chennai", LOADED_AT.plusSeconds(60)));
+        catalog.remove("1");
+
+        assertEquals(2, before.size());
+        assertEquals(List.of("2"), catalog.findByCity("chennai").stream().map(Hotel::getId).toList());
+        assertTrue(catalog.findByCity("madurai").isEmpty());
+        assertTrue(catalog.findById("1").isEmpty());
+    }
+
+    @Test
+    void testRefresh_appliesNewerChangesAndInvalidatesCachedSearches() {
+        Hotel stale = hotel("1", "Chennai", LOADED_AT);
+        loadCatalog(stale, hotel("2", "Madurai", LOADED_AT));
+        Hotel moved = hotel("1", "Madurai", LOADED_AT.plusSeconds(30));
+        when(hotelRepository.findByLastModifiedGreaterThan(LOADED_AT.minus(HotelCatalog.CLOCK_SKEW)))
+                .thenReturn(List.of(moved, hotel("2", "Madurai", LOADED_AT)));
+        when(hotelRepository.count()).thenReturn(2L);
+
+        catalog.refresh();
+
+        assertSame(moved, catalog.findById("1").orElseThrow());
+        assertEquals(2, catalog.findByCity("Madurai").size());
+        verify(searchResultCache).invalidate(stale);
+        verify(searchResultCache).invalidate(moved);
+        verifyNoMoreInteractions(searchResultCache);
+
+        when(hotelRepository.findByLastModifiedGreaterThan(any())).thenReturn(List.of());
+        catalog.refresh();
+        verify(hotelRepository).findByLastModifiedGreaterThan(LOADED_AT.plusSeconds(30).minus(HotelCatalog.CLOCK_SKEW));
+    }
+
+    @Test
+    void testRefresh_keepsLocallyPublishedNewerVersion() {
+        loadCatalog(hotel("1", "Chennai", LOADED_AT));
+        Hotel published = hotel("1", "Chennai", LOADED_AT.plusSeconds(90));
+        catalog.publish(published);
+        when(hotelRepository.findByLastModifiedGreaterThan(any())).thenReturn(List.of(hotel("1", "Pune", LOADED_AT.plusSeconds(30))));
+        when(hotelRepository.count()).thenReturn(1L);
+
+        catalog.refresh();
+
+        assertSame(published, catalog.findById("1").orElseThrow());
+        verifyNoInteractions(searchResultCache);
+    }
+
+    @Test
+    void testPublish_dropsVersionOlderThanPolledOne() {
+        loadCatalog(hotel("1", "Chennai", LOADED_AT));
+        Hotel polled = hotel("1", "Madurai", LOADED_AT.plusSeconds(60));
+        when(hotelRepository.findByLastModifiedGreaterThan(any())).thenReturn(List.of(polled));
+        when(hotelRepository.count()).thenReturn(1L);
+        catalog.refresh();
+
+        catalog.publish(hotel("1", "Pune", LOADED_AT.plusSeconds(30)));
+
+        assertSame(polled, catalog.findById("1").orElseThrow());
+        assertTrue(catalog.findByCity("Pune").isEmpty());
+    }
+
+    @Test
+    void testRefresh_reloadsWhenHotelsWereDeletedElsewhere() {
+        loadCatalog(hotel("1", "Chennai", LOADED_AT), hotel("2", "Madurai", LOADED_AT));
+        when(hotelRepository.findByLastModifiedGreaterThan(any())).thenReturn(List.of());
+        when(hotelRepository.count()).thenReturn(1L);
+        when(hotelRepository.findAll()).thenReturn(List.of(hotel("2", "Madurai", LOADED_AT)));
+
+        catalog.refresh();
+
+        assertTrue(catalog.findById("1").isEmpty());
+        assertEquals(1, catalog.findAll().size());
+    }
+
+    private void loadCatalog(Hotel... hotels) {
+        when(hotelRepository.findAll()).thenReturn(new ArrayList<>(List.of(hotels)));
+        catalog.rebuild();
+    }
+
+    private static Hotel hotel(String id, String cityName, Instant lastModified) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        Location location = new Location();
+        location.setCityName(cityName);
+        hotel.setLocation(location);
+        hotel.setLastModified(lastModified);
+        return hotel;
+    }
+}
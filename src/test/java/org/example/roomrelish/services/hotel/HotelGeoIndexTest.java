@@ -0,0 +1,73 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.example.roomrelish.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotelGeoIndexTest {
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    private HotelGeoIndex hotelGeoIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(hotelRepository.findAllLocations()).thenReturn(List.of(
+                hotel("marina", 13.0500, 80.2824),
+                hotel("egmore", 13.0732, 80.2609),
+                hotel("tambaram", 12.9249, 80.1000),
+                hotel("mumbai", 19.0760, 72.8777)));
+        hotelGeoIndex = new HotelGeoIndex(hotelRepository);
+        hotelGeoIndex.rebuild();
+    }
+
+    @Test
+    void testWithinRadius_nearestFirst() {
+        List<HotelGeoIndex.NearbyHotel> found = hotelGeoIndex.withinRadius(13.0827, 80.2707, 10, Integer.MAX_VALUE);
+
+        assertTrue(hotelGeoIndex.isLoaded());
+        assertEquals(List.of("egmore", "marina"), found.stream().map(HotelGeoIndex.NearbyHotel::hotelId).toList());
+        assertTrue(found.get(0).distanceKm() < found.get(1).distanceKm());
+    }
+
+    @Test
+    void testNearest_reachesDistantCells() {
+        List<HotelGeoIndex.NearbyHotel> found = hotelGeoIndex.nearest(13.0827, 80.2707, 4);
+
+        assertEquals(List.of("egmore", "marina", "tambaram", "mumbai"),
+                found.stream().map(HotelGeoIndex.NearbyHotel::hotelId).toList());
+    }
+
+    @Test
+    void testPutAndRemove_moveHotel() {
+        hotelGeoIndex.put(hotel("mumbai", 13.0830, 80.2710));
+        assertEquals("mumbai", hotelGeoIndex.nearest(13.0827, 80.2707, 1).get(0).hotelId());
+
+        hotelGeoIndex.remove("mumbai");
+        assertEquals("egmore", hotelGeoIndex.nearest(13.0827, 80.2707, 1).get(0).hotelId());
+    }
+
+    @Test
+    void testDistanceKm_haversine() {
+        assertEquals(1036, HotelGeoIndex.distanceKm(13.0827, 80.2707, 19.0760, 72.8777), 5);
+    }
+
+    private static Hotel hotel(String id, double latitude, double longitude) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setLocation(new Location("city", latitude, longitude, "address"));
+        return hotel;
+    }
+}
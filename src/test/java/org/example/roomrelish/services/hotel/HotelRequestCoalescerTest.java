@@ -0,0 +1,115 @@
+package org.example.roomrelish.services.hotel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.dto.SearchResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelRequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchResultCache searchResultCache;
+    private HotelRequestCoalescer requestCoalescer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchResultCache = new SearchResultCache(meterRegistry, 10, 100, Duration.ofMinutes(5));
+        requestCoalescer = new HotelRequestCoalescer(meterRegistry, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testSearch_loadStartedBeforeInvalidationIsNotJoinedOrCached() throws Exception {
+        SearchDTO searchDTO = search();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        SearchResultDTO stale = emptyResult();
+        SearchResultDTO fresh = emptyResult();
+        Supplier<SearchResultDTO> loader = () -> {
+            if (loads.incrementAndGet() > 1) return fresh;
+            await(release);
+            return stale;
+        };
+
+        Future<SearchResultDTO> leader = callers.submit(() -> cachedSearch(searchDTO, loader));
+        waitUntil(() -> loads.get() == 1);
+        Future<SearchResultDTO> joined = callers.submit(() -> cachedSearch(searchDTO, loader));
+        waitUntil(() -> coalesced() == 1);
+
+        searchResultCache.invalidateCity("Chennai");
+        Future<SearchResultDTO> afterInvalidation = callers.submit(() -> cachedSearch(searchDTO, loader));
+        assertSame(fresh, afterInvalidation.get(1, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertSame(stale, leader.get(5, TimeUnit.SECONDS));
+        assertSame(stale, joined.get(5, TimeUnit.SECONDS));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, searchResultCache.size());
+        assertSame(fresh, searchResultCache.getOrCompute(searchDTO, () -> fail("expected a cache hit")));
+    }
+
+    private SearchResultDTO cachedSearch(SearchDTO searchDTO, Supplier<SearchResultDTO> loader) {
+        return searchResultCache.getOrCompute(searchDTO,
+                () -> requestCoalescer.search(searchDTO, searchResultCache.generation(searchDTO), loader));
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("singleflight.calls", "name", "hotel.search", "result", "coalesced").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+
+    private static SearchResultDTO emptyResult() {
+        SearchResultDTO result = new SearchResultDTO();
+        result.setHotels(new ArrayList<>());
+        result.setRoomIds(new ArrayList<>());
+        return result;
+    }
+
+    private static SearchDTO search() {
+        return SearchDTO.builder()
+                .cityName("Chennai")
+                .checkInDate(LocalDate.of(2024, 6, 10))
+                .checkOutDate(LocalDate.of(2024, 6, 12))
+                .countOfRooms(1)
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.roomrelish.services.hotel;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.roomrelish.dto.*;
+import org.example.roomrelish.exception.InvalidSearchException;
 import org.example.roomrelish.exception.ResourceNotFoundException;
 import org.example.roomrelish.models.Customer;
 import org.example.roomrelish.models.GuestReview;
@@ -8,17 +10,27 @@ import org.example.roomrelish.models.Hotel;
 import org.example.roomrelish.models.Room;
 import org.example.roomrelish.repository.CustomerRepository;
 import org.example.roomrelish.repository.HotelRepository;
+import org.example.roomrelish.services.availability.ParallelAvailabilityExecutor;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.concurrent.OptimisticRetry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,6 +45,39 @@ import static org.mockito.Mockito.*;
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Spy
+    private ParallelAvailabilityExecutor availabilityExecutor = new ParallelAvailabilityExecutor(new SimpleMeterRegistry(), 1, 256);
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private HotelGeoIndex hotelGeoIndex;
+
+    @Mock
+    private HotelGeoSearch hotelGeoSearch;
+
+    @Mock
+    private HotelSuggestionIndex hotelSuggestionIndex;
+
+    @Mock
+    private HotelCatalog hotelCatalog;
+
+    @Spy
+    private HotelRequestCoalescer requestCoalescer = new HotelRequestCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+    @Spy
+    private BatchSearchExecutor batchSearchExecutor = new BatchSearchExecutor(new SimpleMeterRegistry(), 2, 16);
+
+    @Mock
+    private RoomInventoryService roomInventory;
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
+
     @InjectMocks
     private HotelServiceImpl hotelService;
 
@@ -121,6 +166,25 @@ import static org.mockito.Mockito.*;
         assertEquals(4.2, testHotel.getRating());
     }
 
+    @Test
+    void testUpdateHotel_changedRoomCountReachesItsMonths() {
+        testHotel.setRooms(new ArrayList<>(List.of(
+                Room.builder().id("r1").roomCount(5).build(),
+                Room.builder().id("r2").roomCount(3).build())));
+        HotelDTO hotelDTO = new HotelDTO();
+        hotelDTO.setRooms(List.of(
+                Room.builder().id("r1").roomCount(2).build(),
+                Room.builder().id("r2").roomCount(3).build(),
+                Room.builder().id("r3").roomCount(4).build()));
+
+        when(hotelRepository.findById("1")).thenReturn(Optional.of(testHotel));
+
+        hotelService.updateHotel("1", hotelDTO);
+
+        verify(roomInventory).changeRoomCount("r1", 5, 2);
+        verifyNoMoreInteractions(roomInventory);
+    }
+
     @Test
      void testUpdateHotel_nonExistingId() {
         HotelDTO hotelDTO = new HotelDTO();
@@ -205,6 +269,24 @@ import static org.mockito.Mockito.*;
         assertEquals("Great place!", testHotel.getGuestReviews().getFirst().getComment());
     }
 
+    @Test
+    void testAddReview_conflictReappliesReviewToFreshCopy() {
+        ReviewDTO reviewDTO = new ReviewDTO();
+        reviewDTO.setUserid("1");
+        reviewDTO.setRating(5.0);
+        Hotel fresh = new Hotel();
+        fresh.setId("1");
+        fresh.setGuestReviews(new ArrayList<>(List.of(GuestReview.builder().user("2").build())));
+        when(hotelRepository.findById("1")).thenReturn(Optional.of(testHotel), Optional.of(fresh));
+        when(hotelRepository.save(testHotel)).thenThrow(new OptimisticLockingFailureException("version changed"));
+
+        hotelService.addReview("1", reviewDTO);
+
+        assertEquals(List.of("2", "1"), fresh.getGuestReviews().stream().map(GuestReview::getUser).toList());
+        verify(hotelRepository).save(fresh);
+        verify(hotelCatalog).publish(fresh);
+    }
+
     @Test
      void testAddRoom() {
         RoomDTO roomDTO = new RoomDTO();
@@ -228,7 +310,8 @@ import static org.mockito.Mockito.*;
 
     @Test
      void testFindHotels_noHotelsFound() {
-        when(hotelRepository.findByLocationCityName(anyString())).thenReturn(new ArrayList<>());
+        when(hotelRepository.searchHotels(any(SearchDTO.class))).thenReturn(new ArrayList<>());
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
         SearchResultDTO searchResultDTO = hotelService.findHotels("New York", LocalDate.now(), LocalDate.now().plusDays(3), 2, 400, 200, 4.0, null);
 
@@ -237,21 +320,155 @@ import static org.mockito.Mockito.*;
 
     @Test
      void testFindHotels_checkInCheckOutDates() {
-        testHotel.setId("1");
-        testHotel.setHotelName("Test Hotel");
-        testHotel.setRooms(new ArrayList<>());
-        testHotel.getRooms().add(new Room("1", "Suite", "Luxury suite with city view", 5, 300, null));
+        HotelSummary summary = HotelSummary.builder()
+                .id("1")
+                .hotelName("Test Hotel")
+                .rooms(List.of(Room.builder().id("1").roomCount(5).build()))
+                .build();
 
-        List<Hotel> dummyHotels = new ArrayList<>();
-        dummyHotels.add(testHotel);
+        List<HotelSummary> dummyHotels = new ArrayList<>();
+        dummyHotels.add(summary);
 
-        when(hotelRepository.findByLocationCityName("New York")).thenReturn(dummyHotels);
+        when(hotelRepository.searchHotels(argThat(search -> "New York".equals(search.getCityName())))).thenReturn(dummyHotels);
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
         SearchResultDTO searchResultDTO = hotelService.findHotels("New York", LocalDate.now(), LocalDate.now().plusDays(3), 2, 400, 200, 4.0, null);
 
         assertEquals(1, searchResultDTO.getHotels().size());
         assertEquals(1, searchResultDTO.getRoomIds().size()); // One room should be available
         assertEquals("1", searchResultDTO.getRoomIds().getFirst());
+        assertEquals(List.of("1"), searchResultDTO.getHotels().getFirst().getAvailableRoomIds());
+    }
+
+    @Test
+    void testFindHotels_facetCounts() {
+        List<HotelSummary> dummyHotels = List.of(
+                HotelSummary.builder().id("1").hotelType("Resort").rating(4.5).priceStartingFrom(450).amenities(List.of("Pool", "WiFi", "WiFi")).build(),
+                HotelSummary.builder().id("2").hotelType("Resort").rating(4.0).priceStartingFrom(900).amenities(List.of("WiFi")).build(),
+                HotelSummary.builder().id("3").hotelType("Hostel").rating(3.2).priceStartingFrom(120).build());
+        when(hotelRepository.searchHotels(any(SearchDTO.class))).thenReturn(dummyHotels);
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        SearchFacetsDTO facets = hotelService.findHotels(SearchDTO.builder().cityName("Goa").build()).getFacets();
+
+        assertEquals(Map.of("Pool", 1L, "WiFi", 2L), facets.getAmenities());
+        assertEquals(Map.of(3, 1L, 4, 2L), facets.getRatings());
+        assertEquals(Map.of(0, 2L, 500, 1L), facets.getPrices());
+        assertEquals(Map.of("Hostel", 1L, "Resort", 2L), facets.getHotelTypes());
+    }
+
+    @Test
+    void testFindHotels_pagesCachedResultWithoutChangingIt() {
+        List<HotelSummary> dummyHotels = List.of(
+                HotelSummary.builder().id("1").rating(3.0).build(),
+                HotelSummary.builder().id("2").rating(5.0).build(),
+                HotelSummary.builder().id("3").rating(4.0).build());
+        when(hotelRepository.searchHotels(any(SearchDTO.class))).thenReturn(dummyHotels);
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        SearchResultDTO firstPage = hotelService.findHotels(SearchDTO.builder().cityName("Goa").sort(SearchSort.RATING).pageSize(2).build());
+        SearchResultDTO secondPage = hotelService.findHotels(SearchDTO.builder().cityName("Goa").sort(SearchSort.RATING).pageSize(2)
+                .cursor(firstPage.getNextCursor()).build());
+
+        assertEquals(List.of("2", "3"), firstPage.getHotels().stream().map(HotelSummary::getId).toList());
+        assertEquals(List.of("1"), secondPage.getHotels().stream().map(HotelSummary::getId).toList());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(3, secondPage.getTotalHotels());
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(SearchDTO.builder().cityName("Goa").pageSize(0).build()));
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(SearchDTO.builder().cityName("Goa").sort(SearchSort.DISTANCE).build()));
+    }
+
+    @Test
+    void testFindHotels_rejectsSearchWithoutCityOrPoint() {
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(SearchDTO.builder().build()));
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(SearchDTO.builder().cityName(" ").rating(4.0).build()));
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(SearchDTO.builder().latitude(15.5).build()));
+        verifyNoInteractions(searchResultCache, hotelRepository);
+    }
+
+    @Test
+    void testFindHotels_rejectsGeoParametersOutOfRange() {
+        List<SearchDTO> invalid = List.of(
+                SearchDTO.builder().latitude(90.5).longitude(73.8).build(),
+                SearchDTO.builder().latitude(-91.0).longitude(73.8).build(),
+                SearchDTO.builder().latitude(Double.NaN).longitude(73.8).build(),
+                SearchDTO.builder().latitude(15.5).longitude(180.5).build(),
+                SearchDTO.builder().latitude(15.5).longitude(-181.0).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).radiusKm(0.0).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).radiusKm(-5.0).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).radiusKm(20_000.0).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).nearest(0).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).nearest(-3).build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).nearest(Integer.MAX_VALUE).build());
+
+        invalid.forEach(searchDTO -> assertThrows(InvalidSearchException.class, () -> hotelService.findHotels(searchDTO), searchDTO::toString));
+        verifyNoInteractions(searchResultCache, hotelGeoSearch);
+    }
+
+    @Test
+    void testFindHotelsBatch_fetchesCitiesOnceAndStreamsEverySearch() {
+        when(hotelRepository.findSummariesByCities(List.of("Goa", "Pune"))).thenReturn(List.of(
+                HotelSummary.builder().id("1").cityName("Goa").rating(4.5).rooms(List.of(Room.builder().id("r1").roomCount(2).build())).build(),
+                HotelSummary.builder().id("2").cityName("GOA").rating(3.0).rooms(List.of(Room.builder().id("r2").roomCount(1).build())).build()));
+        when(occupancyIndex.maxOccupancy(anyString(), any(), any())).thenAnswer(invocation -> "r2".equals(invocation.getArgument(0)) ? 1 : 0);
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        List<SearchDTO> searches = List.of(
+                SearchDTO.builder().cityName("Goa").rating(4.0).build(),
+                SearchDTO.builder().cityName(" goa").checkInDate(LocalDate.now()).checkOutDate(LocalDate.now().plusDays(2)).countOfRooms(1).build(),
+                SearchDTO.builder().cityName("Pune").build(),
+                SearchDTO.builder().latitude(15.5).longitude(73.8).build(),
+                SearchDTO.builder().rating(4.0).build());
+        Map<Integer, BatchSearchResultDTO> results = new ConcurrentHashMap<>();
+
+        hotelService.findHotelsBatch(searches, result -> results.put(result.getIndex(), result)).join();
+
+        assertEquals(5, results.size());
+        assertEquals(List.of("1"), results.get(0).getResult().getHotels().stream().map(HotelSummary::getId).toList());
+        assertEquals(List.of("r1"), results.get(1).getResult().getRoomIds());
+        assertEquals(0, results.get(2).getResult().getTotalHotels());
+        assertEquals(0, results.get(3).getResult().getTotalHotels());
+        assertEquals("A search needs a city or a latitude and longitude", results.get(4).getError());
+        verify(hotelRepository, times(1)).findSummariesByCities(any());
+        verify(hotelRepository, never()).searchHotels(any(SearchDTO.class));
+        assertThrows(InvalidSearchException.class, () -> hotelService.findHotelsBatch(List.of(), result -> {}));
+    }
+
+    @Test
+    void testFindHotelsBatch_matchesSingleSearch() {
+        Supplier<List<HotelSummary>> goaHotels = () -> List.of(
+                HotelSummary.builder().id("1").cityName("Goa").rating(4.5).rooms(List.of(Room.builder().id("r1").roomCount(2).build())).build(),
+                HotelSummary.builder().id("2").cityName("Goa").rating(3.0).rooms(List.of(Room.builder().id("r2").roomCount(1).build())).build());
+        // The availability stages of the Mongo search leave out hotel 2, whose only room is booked for the stay
+        when(hotelRepository.searchHotels(any(SearchDTO.class))).thenAnswer(invocation -> new ArrayList<>(goaHotels.get().subList(0, 1)));
+        when(hotelRepository.findSummariesByCities(List.of("Goa"))).thenAnswer(invocation -> goaHotels.get());
+        when(occupancyIndex.maxOccupancy(anyString(), any(), any())).thenAnswer(invocation -> "r2".equals(invocation.getArgument(0)) ? 1 : 0);
+        when(searchResultCache.getOrCompute(any(SearchDTO.class), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        SearchDTO searchDTO = SearchDTO.builder().cityName("Goa").checkInDate(LocalDate.now())
+                .checkOutDate(LocalDate.now().plusDays(2)).countOfRooms(1).build();
+        Map<Integer, BatchSearchResultDTO> results = new ConcurrentHashMap<>();
+
+        SearchResultDTO single = hotelService.findHotels(searchDTO);
+        hotelService.findHotelsBatch(List.of(searchDTO), result -> results.put(result.getIndex(), result)).join();
+
+        assertEquals(single, results.get(0).getResult());
+        assertEquals(1, single.getTotalHotels());
+        assertEquals(List.of("1"), single.getHotels().stream().map(HotelSummary::getId).toList());
+        assertEquals(List.of("r1"), single.getRoomIds());
+    }
+
+    @Test
+    void testGetHotelSummaries_listsBookableRooms() {
+        HotelSummary summary = HotelSummary.builder()
+                .id("1")
+                .hotelName("Hotel A")
+                .rooms(List.of(Room.builder().id("r1").roomCount(2).build(), Room.builder().id("r2").roomCount(0).build()))
+                .build();
+        when(hotelRepository.findAllSummaries()).thenReturn(List.of(summary));
+
+        List<HotelSummary> hotels = hotelService.getHotelSummaries();
+
+        assertEquals(1, hotels.size());
+        assertEquals(List.of("r1"), hotels.getFirst().getAvailableRoomIds());
     }
 
     // Additional test cases can be added to cover more scenarios
@@ -0,0 +1,76 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.dto.SuggestionDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.example.roomrelish.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotelSuggestionIndexTest {
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    private HotelSuggestionIndex suggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(hotelRepository.findAllNames()).thenReturn(List.of(
+                hotel("1", "Taj Coromandel", "Chennai", 40),
+                hotel("2", "Chennai Grand", "Chennai", 2),
+                hotel("3", "Cheval Blanc", "Chandigarh", 10)));
+        suggestionIndex = new HotelSuggestionIndex(hotelRepository, 10);
+        suggestionIndex.rebuild();
+    }
+
+    @Test
+    void testSuggest_citiesAndHotelsByPopularity() {
+        assertEquals(List.of(
+                        new SuggestionDTO(SuggestionDTO.Type.CITY, "Chennai"),
+                        new SuggestionDTO(SuggestionDTO.Type.CITY, "Chandigarh"),
+                        new SuggestionDTO(SuggestionDTO.Type.HOTEL, "Cheval Blanc"),
+                        new SuggestionDTO(SuggestionDTO.Type.HOTEL, "Chennai Grand")),
+                suggestionIndex.suggest(" CH", 10));
+        assertEquals(1, suggestionIndex.suggest("ch", 1).size());
+    }
+
+    @Test
+    void testSuggest_matchesLaterWords() {
+        assertEquals(List.of(new SuggestionDTO(SuggestionDTO.Type.HOTEL, "Taj Coromandel")), suggestionIndex.suggest("coro", 10));
+    }
+
+    @Test
+    void testPutAndRemove_updateIncrementally() {
+        suggestionIndex.put(hotel("3", "Cheval Blanc", "Coimbatore", 10));
+        assertTrue(suggestionIndex.suggest("chand", 10).isEmpty());
+        assertEquals(List.of(new SuggestionDTO(SuggestionDTO.Type.CITY, "Coimbatore")), suggestionIndex.suggest("coi", 10));
+
+        suggestionIndex.remove("1");
+        assertTrue(suggestionIndex.suggest("taj", 10).isEmpty());
+        assertEquals(List.of(
+                        new SuggestionDTO(SuggestionDTO.Type.HOTEL, "Cheval Blanc"),
+                        new SuggestionDTO(SuggestionDTO.Type.CITY, "Coimbatore"),
+                        new SuggestionDTO(SuggestionDTO.Type.CITY, "Chennai"),
+                        new SuggestionDTO(SuggestionDTO.Type.HOTEL, "Chennai Grand")),
+                suggestionIndex.suggest("c", 10));
+    }
+
+    private static Hotel hotel(String id, String name, String city, int numReviews) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setHotelName(name);
+        hotel.setNumReviews(numReviews);
+        hotel.setLocation(new Location(city, 0, 0, "address"));
+        return hotel;
+    }
+}
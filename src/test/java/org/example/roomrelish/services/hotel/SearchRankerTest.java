@@ -0,0 +1,76 @@
+package org.example.roomrelish.services.hotel;
+
+import org.example.roomrelish.dto.HotelSummary;
+import org.example.roomrelish.dto.SearchSort;
+import org.example.roomrelish.exception.InvalidSearchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchRankerTest {
+
+    private final List<HotelSummary> hotels = List.of(
+            hotel("a", 300, 4.1, 10),
+            hotel("b", 100, 4.8, 50),
+            hotel("c", 200, 3.9, 5),
+            hotel("d", 100, 4.5, 70),
+            hotel("e", 500, 4.8, 1));
+
+    @Test
+    void testPage_walksAllPagesInOrder() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            SearchRanker.Page page = SearchRanker.page(hotels, null, SearchSort.PRICE_ASC, 2, cursor);
+            assertTrue(page.hotels().size() <= 2);
+            page.hotels().forEach(hotel -> seen.add(hotel.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("b", "d", "c", "a", "e"), seen);
+    }
+
+    @Test
+    void testPage_sortModes() {
+        assertEquals(List.of("e", "a", "c"), ids(SearchRanker.page(hotels, null, SearchSort.PRICE_DESC, 3, null)));
+        assertEquals(List.of("b", "e", "d"), ids(SearchRanker.page(hotels, null, SearchSort.RATING, 3, null)));
+        assertEquals(List.of("d", "b"), ids(SearchRanker.page(hotels, null, SearchSort.POPULARITY, 2, null)));
+        assertEquals(List.of("c", "a", "b"), ids(SearchRanker.page(hotels, Map.of("a", 2.0, "b", 3.5, "c", 0.4), SearchSort.DISTANCE, 3, null)));
+    }
+
+    @Test
+    void testPage_lastPageHasNoCursor() {
+        SearchRanker.Page page = SearchRanker.page(hotels, null, SearchSort.RATING, 5, null);
+
+        assertEquals(5, page.hotels().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testPage_cursorSurvivesRemovedHotel() {
+        String cursor = SearchRanker.page(hotels, null, SearchSort.PRICE_ASC, 2, null).nextCursor();
+        List<HotelSummary> withoutD = hotels.stream().filter(hotel -> !hotel.getId().equals("d")).toList();
+
+        assertEquals(List.of("c", "a"), ids(SearchRanker.page(withoutD, null, SearchSort.PRICE_ASC, 2, cursor)));
+    }
+
+    @Test
+    void testPage_rejectsCursorOfOtherSort() {
+        String cursor = SearchRanker.page(hotels, null, SearchSort.PRICE_ASC, 2, null).nextCursor();
+
+        assertThrows(InvalidSearchException.class, () -> SearchRanker.page(hotels, null, SearchSort.RATING, 2, cursor));
+        assertThrows(InvalidSearchException.class, () -> SearchRanker.page(hotels, null, SearchSort.RATING, 2, "%%%"));
+    }
+
+    private static List<String> ids(SearchRanker.Page page) {
+        return page.hotels().stream().map(HotelSummary::getId).toList();
+    }
+
+    private static HotelSummary hotel(String id, int price, double rating, int numReviews) {
+        return HotelSummary.builder().id(id).priceStartingFrom(price).rating(rating).numReviews(numReviews).build();
+    }
+}
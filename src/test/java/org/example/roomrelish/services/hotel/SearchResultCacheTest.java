@@ -0,0 +1,130 @@
+package org.example.roomrelish.services.hotel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.dto.SearchDTO;
+import org.example.roomrelish.dto.SearchResultDTO;
+import org.example.roomrelish.models.Hotel;
+import org.example.roomrelish.models.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchResultCache searchResultCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchResultCache = new SearchResultCache(meterRegistry, 3, 100, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGetOrCompute_normalizedKeyHits() {
+        searchResultCache.getOrCompute(search("Chennai", List.of("Free WiFi", "Swimming pool")), this::load);
+        searchResultCache.getOrCompute(search(" chennai ", List.of("Swimming pool", "Free WiFi")), this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.counter("search.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("search.cache.misses").count());
+    }
+
+    @Test
+    void testInvalidate_dropsOnlyThatCity() {
+        searchResultCache.getOrCompute(search("Chennai", null), this::load);
+        searchResultCache.getOrCompute(search("Mumbai", null), this::load);
+
+        searchResultCache.invalidate(hotelIn("CHENNAI"));
+        searchResultCache.getOrCompute(search("Chennai", null), this::load);
+        searchResultCache.getOrCompute(search("Mumbai", null), this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(1.0, meterRegistry.counter("search.cache.invalidations").count());
+    }
+
+    @Test
+    void testInvalidate_dropsSearchesWithoutCity() {
+        searchResultCache.getOrCompute(search(null, null), this::load);
+
+        searchResultCache.invalidate(hotelIn("Chennai"));
+        searchResultCache.getOrCompute(search(null, null), this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetOrCompute_evictsLeastRecentlyUsed() {
+        searchResultCache.getOrCompute(search("A", null), this::load);
+        searchResultCache.getOrCompute(search("B", null), this::load);
+        searchResultCache.getOrCompute(search("C", null), this::load);
+        searchResultCache.getOrCompute(search("A", null), this::load);
+        searchResultCache.getOrCompute(search("D", null), this::load);
+
+        searchResultCache.getOrCompute(search("A", null), this::load);
+        assertEquals(4, loads.get());
+        searchResultCache.getOrCompute(search("B", null), this::load);
+        assertEquals(5, loads.get());
+        assertTrue(meterRegistry.counter("search.cache.evictions").count() >= 1.0);
+        assertEquals(3, searchResultCache.size());
+    }
+
+    @Test
+    void testGetOrCompute_boundedByWeight() {
+        SearchResultDTO heavy = emptyResult();
+        for (int i = 0; i < 60; i++) heavy.getRoomIds().add("room" + i);
+
+        searchResultCache.getOrCompute(search("A", null), () -> heavy);
+        searchResultCache.getOrCompute(search("B", null), () -> heavy);
+
+        assertEquals(1, searchResultCache.size());
+        assertTrue(searchResultCache.weight() <= 100);
+    }
+
+    @Test
+    void testGetOrCompute_skipsResultInvalidatedWhileLoading() {
+        searchResultCache.getOrCompute(search("Chennai", null), () -> {
+            searchResultCache.invalidateCity("Chennai");
+            return load();
+        });
+
+        assertEquals(0, searchResultCache.size());
+    }
+
+    private SearchResultDTO load() {
+        loads.incrementAndGet();
+        return emptyResult();
+    }
+
+    private static SearchResultDTO emptyResult() {
+        SearchResultDTO result = new SearchResultDTO();
+        result.setHotels(new ArrayList<>());
+        result.setRoomIds(new ArrayList<>());
+        return result;
+    }
+
+    private SearchDTO search(String cityName, List<String> amenities) {
+        return SearchDTO.builder()
+                .cityName(cityName)
+                .checkInDate(LocalDate.of(2024, 6, 10))
+                .checkOutDate(LocalDate.of(2024, 6, 12))
+                .countOfRooms(1)
+                .amenities(amenities)
+                .build();
+    }
+
+    private Hotel hotelIn(String cityName) {
+        Hotel hotel = new Hotel();
+        hotel.setLocation(new Location(cityName, 0, 0, "address"));
+        return hotel;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.roomrelish.services.hotel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    private SuggestionTrie<String> trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie<>(3);
+        trie.add("chennai", "Chennai", 5);
+        trie.add("chandigarh", "Chandigarh", 7);
+        trie.add("chan", "Chan", 1);
+        trie.add("coimbatore", "Coimbatore", 2);
+        trie.add("mumbai", "Mumbai", 9);
+    }
+
+    @Test
+    void testComplete_heaviestFirstWithinPrefix() {
+        assertEquals(List.of("Chandigarh", "Chennai", "Chan"), values(trie.complete("ch", 10)));
+        assertEquals(List.of("Chandigarh", "Chan"), values(trie.complete("cha", 10)));
+        assertEquals(List.of("Chandigarh"), values(trie.complete("chand", 10)));
+        assertEquals(List.of("Chandigarh", "Chennai"), values(trie.complete("c", 2)));
+        assertTrue(trie.complete("chx", 10).isEmpty());
+        assertTrue(trie.complete("chennaix", 10).isEmpty());
+    }
+
+    @Test
+    void testComplete_keepsOnlyMaxResultsPerNode() {
+        assertEquals(List.of("Mumbai", "Chandigarh", "Chennai"), values(trie.complete("", 10)));
+    }
+
+    @Test
+    void testAdd_weightChangesReorderAndRemove() {
+        trie.add("chennai", "Chennai", 10);
+        assertEquals(List.of("Chennai", "Chandigarh", "Chan"), values(trie.complete("ch", 10)));
+
+        trie.add("chandigarh", "Chandigarh", -7);
+        trie.add("chan", "Chan", -1);
+        assertEquals(List.of("Chennai"), values(trie.complete("ch", 10)));
+        assertTrue(trie.complete("cha", 10).isEmpty());
+        assertEquals(List.of("Coimbatore"), values(trie.complete("co", 10)));
+    }
+
+    @Test
+    void testAdd_sameKeyHoldsSeveralValues() {
+        trie.add("chennai", "CHENNAI", 6);
+
+        assertEquals(List.of("CHENNAI", "Chennai"), values(trie.complete("chennai", 10)));
+    }
+
+    private static List<String> values(List<SuggestionTrie.Completion<String>> completions) {
+        return completions.stream().map(SuggestionTrie.Completion::value).toList();
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.roomrelish.services.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roomrelish.exception.IdempotencyKeyReusedException;
+import org.example.roomrelish.exception.RequestInProgressException;
+import org.example.roomrelish.models.IdempotencyRecord;
+import org.example.roomrelish.models.IdempotencyStatus;
+import org.example.roomrelish.models.Payment;
+import org.example.roomrelish.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String CALLER = "guest@example.com";
+    private static final String ID = "pay:" + CALLER + ":key-1";
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyService idempotency;
+
+    @BeforeEach
+    void setUp() {
+        idempotency = new IdempotencyService(repository, objectMapper, meterRegistry, 100, Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testExecute_withoutKeyAlwaysRuns() {
+        pay(null, "b1");
+        pay(" ", "b1");
+
+        assertEquals(2, runs.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testExecute_retryReplaysStoredResponse() {
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(true);
+
+        Payment first = pay("key-1", "b1");
+        Payment retry = pay("key-1", "b1");
+
+        assertEquals(1, runs.get());
+        assertEquals(first, retry);
+        assertNotSame(first, retry);
+        verify(repository).complete(eq(ID), contains("\"bookingId\":\"b1\""));
+        assertEquals(1.0, outcome("executed"));
+        assertEquals(1.0, outcome("replayed-memory"));
+    }
+
+    @Test
+    void testExecute_replaysResponseCompletedOnAnotherInstance() throws Exception {
+        Payment stored = Payment.builder().id("p1").bookingId("b1").paymentStatus(true).build();
+        when(repository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(ID, fingerprint("b1"),
+                IdempotencyStatus.COMPLETED, Instant.now(), objectMapper.writeValueAsString(stored))));
+
+        assertEquals(stored, pay("key-1", "b1"));
+        assertEquals(0, runs.get());
+        assertEquals(1.0, outcome("replayed-store"));
+    }
+
+    @Test
+    void testExecute_keyReusedForOtherRequestIsRejected() {
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(true);
+        pay("key-1", "b1");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> pay("key-1", "b2"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testExecute_sameKeyFromAnotherCallerRunsSeparately() {
+        when(repository.claim(anyString(), anyString(), any(), any())).thenReturn(true);
+
+        pay("key-1", "b1");
+        Payment other = pay("other@example.com", "key-1", "b2");
+
+        assertEquals("b2", other.getBookingId());
+        assertEquals(2, runs.get());
+        verify(repository).claim(eq(ID), anyString(), any(), any());
+        verify(repository).claim(eq("pay:other@example.com:key-1"), anyString(), any(), any());
+    }
+
+    @Test
+    void testExecute_keyInProgressElsewhereIsConflict() throws Exception {
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(false);
+        when(repository.findById(ID)).thenReturn(Optional.empty(), Optional.of(new IdempotencyRecord(ID, fingerprint("b1"),
+                IdempotencyStatus.IN_PROGRESS, Instant.now(), null)));
+
+        assertThrows(RequestInProgressException.class, () -> pay("key-1", "b1"));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testExecute_failedRequestIsForgottenAndCanBeRetried() {
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> idempotency.execute("pay", CALLER, "key-1", "b1", Payment.class, () -> {
+            throw new IllegalStateException("gateway down");
+        }));
+        verify(repository).deleteById(ID);
+
+        assertEquals("b1", pay("key-1", "b1").getBookingId());
+    }
+
+    @Test
+    void testExecute_concurrentDuplicatesShareOneExecution() throws Exception {
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(true);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Payment>> responses = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                responses.add(clients.submit(() -> idempotency.execute("pay", CALLER, "key-1", "b1", Payment.class, () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return Payment.builder().id("p1").bookingId("b1").build();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Payment> response : responses) {
+                assertEquals("p1", response.get(5, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+    }
+
+    private Payment pay(String key, String bookingId) {
+        return pay(CALLER, key, bookingId);
+    }
+
+    private Payment pay(String caller, String key, String bookingId) {
+        return idempotency.execute("pay", caller, key, bookingId, Payment.class, () -> {
+            runs.incrementAndGet();
+            return Payment.builder().id("p-" + bookingId).bookingId(bookingId).paymentStatus(true).build();
+        });
+    }
+
+    private double outcome(String result) {
+        return meterRegistry.counter("idempotency.requests", "result", result).count();
+    }
+
+    private String fingerprint(Object request) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(CALLER.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,9 +2,16 @@ package org.example.roomrelish.services.payment;
 
 import com.flextrade.jfixture.FixtureAnnotations;
 import com.flextrade.jfixture.annotations.Fixture;
+import org.example.roomrelish.exception.ResourceNotFoundException;
 import org.example.roomrelish.models.*;
 import org.example.roomrelish.repository.*;
-import org.example.roomrelish.services.email.EmailService;
+import org.example.roomrelish.services.availability.HotelWriteQueue;
+import org.example.roomrelish.services.availability.RoomInventoryService;
+import org.example.roomrelish.services.availability.RoomOccupancyIndex;
+import org.example.roomrelish.services.booking.BookingHoldService;
+import org.example.roomrelish.services.email.EmailOutbox;
+import org.example.roomrelish.services.email.EmailTemplates;
+import org.example.roomrelish.services.hotel.SearchResultCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +25,12 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
  class PaymentServiceTest {
@@ -33,7 +46,19 @@ import static org.mockito.Mockito.when;
     @Mock
     private PaymentRepository paymentRepository;
     @Mock
-     EmailService emailService;
+     EmailOutbox emailOutbox;
+    @Mock
+    EmailTemplates emailTemplates;
+    @Mock
+    RoomOccupancyIndex occupancyIndex;
+    @Mock
+    SearchResultCache searchResultCache;
+    @Mock
+    RoomInventoryService roomInventory;
+    @Mock
+    HotelWriteQueue hotelWrites;
+    @Mock
+    BookingHoldService bookingHolds;
      @Fixture
      Hotel hotel;
 
@@ -46,9 +71,6 @@ import static org.mockito.Mockito.when;
      @Fixture
      Customer customer;
 
-     @Fixture
-     List<RoomAvailability> roomAvailabilityList;
-
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -70,7 +92,7 @@ import static org.mockito.Mockito.when;
         when(bookingRepository.findById(any())).thenReturn(Optional.of((createBooking(bookingId))));
         when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(payment));
         when(customerRepository.findById(any())).thenReturn(Optional.of(customer));
-        when(paymentService.confirmBook(bookingId)).thenReturn(payment);
+        when(paymentRepository.markPaid(payment)).thenReturn(true);
 
 
         Payment actualPayment = paymentService.confirmBook(bookingId);
@@ -79,6 +101,44 @@ import static org.mockito.Mockito.when;
 
     }
 
+    @Test
+    void testConfirmBook_holdExpiredMeanwhileGivesBackTheRooms(){
+        String bookingId="123";
+        Payment payment = createPayment(bookingId);
+        Booking booking = createBooking(bookingId);
+        customer.setId(payment.getUserId());
+        when(hotelRepository.findById(any())).thenReturn(Optional.of(createHotel(payment.getHotelId())));
+        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(payment), Optional.empty());
+        when(customerRepository.findById(any())).thenReturn(Optional.of(customer));
+        when(paymentRepository.markPaid(payment)).thenReturn(false);
+
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> paymentService.confirmBook(bookingId));
+
+        verify(roomInventory).release(payment.getRoomId(), booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate(), booking.getNumOfRooms());
+        verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(occupancyIndex, emailOutbox);
+    }
+
+    @Test
+    void testConfirmBook_alreadyPaidKeepsTheRooms(){
+        String bookingId="123";
+        Payment payment = createPayment(bookingId);
+        Payment storedPayment = createPayment(bookingId);
+        storedPayment.setPaymentStatus(true);
+        customer.setId(payment.getUserId());
+        when(hotelRepository.findById(any())).thenReturn(Optional.of(createHotel(payment.getHotelId())));
+        when(bookingRepository.findById(any())).thenReturn(Optional.of(createBooking(bookingId)));
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(payment), Optional.of(storedPayment));
+        when(customerRepository.findById(any())).thenReturn(Optional.of(customer));
+        when(paymentRepository.markPaid(payment)).thenReturn(false);
+
+        Payment actualPayment = paymentService.confirmBook(bookingId);
+
+        Assertions.assertSame(storedPayment, actualPayment);
+        verify(roomInventory, never()).release(any(), any(), any(), any(), anyInt());
+    }
+
 
 
      @Test
@@ -96,22 +156,13 @@ import static org.mockito.Mockito.when;
      @Test
      void testModifyRoomCountForConfirmBooking() {
 
-         paymentService.modifyRoomCountForConfirmBooking(currentRoom, currentBooking, hotel);
+         paymentService.modifyRoomCountForConfirmBooking(currentRoom, currentBooking);
 
-         List<RoomAvailability> availabilityList = currentRoom.getRoomAvailabilityList();
-         Assertions.assertNotNull(availabilityList);
+         verify(occupancyIndex).book(eq(currentRoom.getId()), argThat(stay -> stay.getBookingId().equals(currentBooking.getId())
+                 && stay.getRoomCount() == currentBooking.getNumOfRooms()));
      }
 
 
-     @Test
-    void testSaveBookingAndPayment_Success(){
-        when(paymentService.saveBookingAndPayment(hotel,createPayment("123"))).thenReturn(createPayment("123"));
-
-        Payment payment = paymentService.saveBookingAndPayment(hotel,createPayment("123"));
-
-        Assertions.assertNotNull(payment);
-    }
-
     @Test
     void testDeleteBooking_Success(){
         String bookingId = "123";
@@ -145,18 +196,12 @@ import static org.mockito.Mockito.when;
 
      @Test
       void testModifyRoomCountForDeleteBooking() {
-        List<RoomAvailability> availabilityList = currentRoom.getRoomAvailabilityList();
-         if (availabilityList == null) {
-             availabilityList = new ArrayList<>();
-             currentRoom.setRoomAvailabilityList(availabilityList);
-         }
-         RoomAvailability roomAvailability = new RoomAvailability();
-         roomAvailability.setBookingId(currentBooking.getId());
-         availabilityList.add(roomAvailability);
-
-         paymentService.modifyRoomCountForDeleteBooking(currentBooking, currentRoom, hotel);
-
-         Assertions.assertFalse(currentRoom.getRoomAvailabilityList().stream().anyMatch(a -> a.getBookingId().equals(currentBooking.getId())));
+
+         paymentService.modifyRoomCountForDeleteBooking(currentBooking, currentRoom);
+
+         verify(roomInventory).release(currentRoom.getId(), currentBooking.getId(),
+                 currentBooking.getCheckInDate(), currentBooking.getCheckOutDate(), currentBooking.getNumOfRooms());
+         verify(occupancyIndex).release(currentRoom.getId(), currentBooking.getId());
      }
 
 
@@ -197,7 +242,6 @@ import static org.mockito.Mockito.when;
      private Room createRoom(String roomId) {
          return Room.builder()
                  .id(roomId)
-                 .roomAvailabilityList(roomAvailabilityList)
                  .roomType("Deluxe")
                  .roomSpecification("King size")
                  .roomRate(1200)